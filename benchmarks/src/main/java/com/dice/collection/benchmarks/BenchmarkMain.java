@@ -0,0 +1,49 @@
+package com.dice.collection.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ * Without arguments, runs every benchmark once on 1 thread and once on every core, both times with
+ * the GC profiler so allocation rates are reported next to the timings. The results are saved as
+ * jmh-result-1-threads.json and jmh-result-N-threads.json to compare future engine work against.
+ * With arguments, behaves exactly like the JMH command line, e.g. "DiceCollection -prof gc -t 4"
+ */
+public class BenchmarkMain {
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args Empty for the baseline runs, or JMH command line options
+     * @throws RunnerException           If a benchmark fails
+     * @throws CommandLineOptionException If the JMH options are invalid
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        if (args.length > 0) {
+            new Runner(new CommandLineOptions(args)).run();
+            return;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, cores}) {
+            OptionsBuilder builder = new OptionsBuilder();
+            builder.include(BenchmarkMain.class.getPackageName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-" + threads + "-threads.json");
+            // The parallel histogram runs its own threads, so it is only measured from one benchmark thread
+            if (threads > 1) builder.exclude(ParallelHistogramBenchmark.class.getSimpleName());
+            Options options = builder.build();
+            new Runner(options).run();
+            if (cores == 1) break;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.dice.collection.benchmarks;
+
+import com.dice.collection.DiceCollection;
+import com.dice.collection.GenerationStrategy;
+import com.dice.collection.SumHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rolling and summing a collection of identical dice for a range of dice counts and sides.
+ * Every benchmark thread rolls its own collection, so running with more threads measures how the
+ * engine scales when many collections are rolled at the same time.
+ * The forked JVM loads the Vector API so the SIMD kernels are measured. Passing
+ * -jvmArgsAppend -Ddice.kernels=scalar measures the scalar kernels instead
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class DiceCollectionBenchmark {
+    /* How many times histogram rolls the collection in one invocation */
+    private static final int HISTOGRAM_ROLLS = 1_000;
+
+    /* Number of dice in the collection */
+    @Param({"6", "100", "1000"})
+    public int dice;
+
+    /* Sides of every die */
+    @Param({"6", "20"})
+    public int sides;
+
+    /* How random bits are turned into rolls */
+    @Param({"PER_ROLL", "ENTROPY_POOL"})
+    public GenerationStrategy strategy;
+
+    /* The collection to roll */
+    private DiceCollection collection;
+    /* Receives the sums of rollSums */
+    private final int[] sums = new int[HISTOGRAM_ROLLS];
+
+    /**
+     * Creates a seeded collection before the measurements start
+     */
+    @Setup
+    public void setUp() {
+        int[] allSides = new int[dice];
+        Arrays.fill(allSides, sides);
+        collection = new DiceCollection(allSides, "L64X128MixRandom", 42);
+        collection.setGenerationStrategy(strategy);
+    }
+
+    /**
+     * Rolls every die once
+     */
+    @Benchmark
+    public void rollAll() {
+        collection.rollAll();
+    }
+
+    /**
+     * Sums the sides facing up without rolling
+     *
+     * @return The sum, returned so it is not optimized away
+     */
+    @Benchmark
+    public int sumUpSides() {
+        return collection.sumUpSides();
+    }
+
+    /**
+     * Sums the highest side of every die
+     *
+     * @return The sum, returned so it is not optimized away
+     */
+    @Benchmark
+    public int sumMaximum() {
+        return collection.sumMaximum();
+    }
+
+    /**
+     * Rolls every die once then sums the sides facing up, which is one step of histogram
+     *
+     * @return The sum, returned so it is not optimized away
+     */
+    @Benchmark
+    public int rollAllAndSum() {
+        collection.rollAll();
+        return collection.sumUpSides();
+    }
+
+    /**
+     * Rolls the collection many times die by die across a batch of sums. The score is the time per roll
+     *
+     * @return The sums, returned so they are not optimized away
+     */
+    @Benchmark
+    @OperationsPerInvocation(HISTOGRAM_ROLLS)
+    public int[] rollSums() {
+        collection.rollSums(sums);
+        return sums;
+    }
+
+    /**
+     * Rolls the collection many times into a histogram. The score is the time per roll
+     *
+     * @return The histogram, returned so it is not optimized away
+     */
+    @Benchmark
+    @OperationsPerInvocation(HISTOGRAM_ROLLS)
+    public SumHistogram histogram() {
+        return collection.histogram(HISTOGRAM_ROLLS);
+    }
+}
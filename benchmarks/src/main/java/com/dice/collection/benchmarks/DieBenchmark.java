@@ -0,0 +1,55 @@
+package com.dice.collection.benchmarks;
+
+import com.dice.collection.Die;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Measures rolling a single die.
+ * Every benchmark thread rolls its own die with its own seeded generator
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DieBenchmark {
+    /* Sides of the die */
+    @Param({"4", "6", "20", "1000"})
+    public int sides;
+
+    /* The die to roll */
+    private Die die;
+
+    /**
+     * Creates the die before the measurements start
+     */
+    @Setup
+    public void setUp() {
+        die = new Die(sides, RandomGenerator.of("L64X128MixRandom"));
+    }
+
+    /**
+     * Rolls the die once
+     *
+     * @return The side facing up, returned so the roll is not optimized away
+     */
+    @Benchmark
+    public int roll() {
+        die.roll();
+        return die.getUpSide();
+    }
+}
@@ -0,0 +1,76 @@
+package com.dice.collection.benchmarks;
+
+import com.dice.collection.DiceCollection;
+import com.dice.collection.SumHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the fork-join histograms scale with the number of worker threads.
+ * The benchmark itself runs on one thread, the parallelism is inside the histogram
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class ParallelHistogramBenchmark {
+    /* How many times the collection is rolled in one invocation */
+    private static final int ROLLS = 1_000_000;
+
+    /* Number of threads of the fork-join pool */
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    /* The collection to roll, 6 dice with 6 sides */
+    private DiceCollection collection;
+
+    /**
+     * Creates a seeded collection before the measurements start
+     */
+    @Setup
+    public void setUp() {
+        int[] sides = new int[6];
+        Arrays.fill(sides, 6);
+        collection = new DiceCollection(sides, "L64X128MixRandom", 42);
+    }
+
+    /**
+     * Rolls the collection on a fork-join pool into a histogram. The score is the time per roll
+     *
+     * @return The histogram, returned so it is not optimized away
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROLLS)
+    public SumHistogram histogramParallel() {
+        return collection.histogramParallel(ROLLS, parallelism);
+    }
+
+    /**
+     * Rolls the collection on a fork-join pool in seeded blocks, which gives the same histogram on
+     * any number of threads. The score is the time per roll
+     *
+     * @return The histogram, returned so it is not optimized away
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROLLS)
+    public SumHistogram histogramPartitioned() {
+        return collection.histogramPartitioned(ROLLS, 42, parallelism);
+    }
+}
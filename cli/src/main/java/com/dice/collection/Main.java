@@ -1,7 +1,8 @@
 package com.dice.collection;
 
-import java.util.Arrays;
-import java.util.OptionalInt;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -24,6 +25,9 @@ public class Main {
         System.out.println("* Entries of negative numbers get converted into positive numbers.");
         System.out.println("* A die has at least 2 sides.\n");
 
+        /* Count rolls and histogram runs to report them when the user quits */
+        DiceMetrics.setEnabled(true);
+
         /* This scanner object is used throughout the entire app */
         Scanner scanner = new Scanner(System.in);
 
@@ -48,7 +52,7 @@ public class Main {
 
         /* Keep looping until user quits */
         while (!hasString(quitSelection, new String[]{"quit", "q", "exit", "e"})) {
-            System.out.println("\nRoll Options: \t 1. Once \t 2. 100,000 times");
+            System.out.println("\nRoll Options: \t 1. Once \t 2. 100,000 times \t 3. Record to a file");
             System.out.print("Enter an option number or type in the option to select: ");
 
             /* Stores user's selection of roll option */
@@ -56,48 +60,47 @@ public class Main {
 
             boolean is1Selected = hasString(selection, new String[]{"1", "once", "one time", "1 time"}); // Check if option 1 is selected
             boolean is2Selected = hasString(selection, new String[]{"2", "100000", "100,000", "100000 times", "100,000 times"}); // Check of if option 2 is elected
+            boolean is3Selected = hasString(selection, new String[]{"3", "record", "record to a file"}); // Check if option 3 is selected
 
             /* If users choose to roll once, show the result by printing the dice they got and the sum */
             if (is1Selected) {
-                diceCollection.rollAll();
-                int upSideSum = diceCollection.sumUpSides(); // The sum of current sides that are facing up
-                System.out.println("\nRolled all dice once.\nThe sum of all up sides is: " + upSideSum);
-
-                /* The array of all dice after getting rolled */
-                Die[] rolledDice = diceCollection.getDice();
-                for (int i = 0; i < rolledDice.length; i++)
-                    System.out.println("Current up side of Die " + (i + 1) + ": " + rolledDice[i].getUpSide());
+                RollResult roll = diceCollection.roll(); // The record of the roll, with the sum already added up
+                System.out.println("\nRolled all dice once.\nThe sum of all up sides is: " + roll.sum());
+
+                /* The sides of all dice after getting rolled */
+                for (int i = 0; i < roll.size(); i++)
+                    System.out.println("Current up side of Die " + (i + 1) + ": " + roll.upSide(i));
             }
 
             /* If users choose 100,000 rolls, output the histogram of the rolls */
             if (is2Selected) {
                 final int BASE_UNIT = 200; // Each star in the bar graph represents this amount
                 final int ROLLS = 100_000; // How many times to roll all dice
-                int[] tracker = diceCollection.histogram(ROLLS); // Get the histogram result after rolling
+                SumHistogram tracker = diceCollection.histogram(ROLLS); // Get the histogram result after rolling
                 StringBuilder output = new StringBuilder();
 
-                /* The highest value of sums is also the length of the histogram result array */
-                String highestSum = String.valueOf(tracker.length);
-                /* The highest value of tracker count is extracted by using max method of a Stream created from the tracker array */
-                OptionalInt highestTrackerVal = Arrays.stream(tracker).max();
-                String highestTrackerValue = String.valueOf(highestTrackerVal.isPresent() ? highestTrackerVal.getAsInt() : "");
+                /* The highest value of sums is the highest possible sum of the histogram */
+                String highestSum = String.valueOf(tracker.getMaximum());
+                /* The highest value of tracker count is kept by the histogram */
+                String highestTrackerValue = String.valueOf(tracker.highestCount());
 
                 /* For each tracking value, add paddings, add stars of bar graph, then concatenate to output */
-                for (int i = 0; i < tracker.length; i++) {
-                    String sumValue = String.valueOf(i + 1);
+                for (int sum = tracker.getMinimum(); sum <= tracker.getMaximum(); sum++) {
+                    long count = tracker.count(sum);
+                    String sumValue = String.valueOf(sum);
                     int sumValueMissingSpaces = getPaddingSpaces(sumValue, highestSum);
                     String paddedSumValue = padLeftString(sumValue, sumValueMissingSpaces);
 
-                    String trackerValue = String.valueOf(tracker[i]);
+                    String trackerValue = String.valueOf(count);
                     int trackerValueMissingSpaces = getPaddingSpaces(trackerValue, highestTrackerValue);
                     String paddedTrackerValue = padLeftString(trackerValue, trackerValueMissingSpaces);
 
-                    int numberOfStars = Math.round((float) (tracker[i] / BASE_UNIT));
+                    int numberOfStars = (int) (count / BASE_UNIT);
                     /* StringBuilder and repeat and append methods are suggested by IntelliJ for better performance when concatenating string inside of loops */
                     StringBuilder stars = new StringBuilder();
                     stars.append("*".repeat(Math.max(0, numberOfStars)));
 
-                    if (tracker[i] > 0)
+                    if (count > 0)
                         output.append(paddedSumValue).append(": ").append(paddedTrackerValue).append("\t").append(stars).append("\n");
                 }
 
@@ -106,14 +109,33 @@ public class Main {
                 System.out.println("Each star represents " + BASE_UNIT + ".");
             }
 
-            if (!is1Selected && !is2Selected)
+            /* If users choose to record, write every roll of every die to a log file instead of the console */
+            if (is3Selected) {
+                int rolls = loopNumberInput(scanner, 1, "How many rolls? ", "Need at least 1 roll. Try again.", "Only numbers are allowed. Try again.");
+                System.out.print("Enter the path of the log file: ");
+                Path path = Path.of(scanner.nextLine().trim());
+                long start = System.nanoTime();
+                try {
+                    try (RollLogWriter log = new RollLogWriter(path, diceCollection.getSides())) {
+                        diceCollection.record(rolls, log);
+                    }
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("%nRecorded %,d rolls to %s (%,d bytes) in %.2f s, %,.0f rolls per second.%n",
+                            rolls, path, Files.size(path), seconds, rolls / seconds);
+                } catch (IOException exception) {
+                    System.out.println("Could not write " + path + ": " + exception.getMessage());
+                }
+            }
+
+            if (!is1Selected && !is2Selected && !is3Selected)
                 System.out.println("Invalid selection. Try again."); // Output error of no option being selected
 
             /* Input and output of quit option */
-            if (is1Selected || is2Selected) {
+            if (is1Selected || is2Selected || is3Selected) {
                 System.out.print("\nEnter \"[q]uit\" or \"[e]xit\" to close the program or anything else to continue rolling dice: ");
                 quitSelection = scanner.nextLine();
-                if (hasString(quitSelection, new String[]{"quit", "q", "exit", "e"})) System.out.println("Bye!");
+                if (hasString(quitSelection, new String[]{"quit", "q", "exit", "e"}))
+                    System.out.println("\n" + DiceMetrics.snapshot() + "\nBye!");
             }
         }
     }
@@ -0,0 +1,485 @@
+package com.dice.collection.cluster;
+
+import com.dice.collection.DiceCollection;
+import com.dice.collection.DiceGroup;
+import com.dice.collection.SumHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Rolls one huge partitioned run of a collection of dice on several worker processes and merges their
+ * histograms. The blocks of the run are cut into shards, and every worker gets one shard at a time over
+ * its standard input and answers with a binary histogram, see {@link Worker}. Since a shard always
+ * rolls the same sums, the merged histogram is the same as {@link DiceCollection#histogramPartitioned}
+ * on one JVM, whatever the number of workers and whatever goes wrong on the way:
+ * - the shard of a worker that crashes goes back in the queue and a new worker is started
+ * - once the queue is empty, a shard that takes longer than the timeout is also given to an idle worker,
+ * and the first answer wins
+ * - a worker that sends no heartbeat for {@link #SILENCE} is killed, which is then handled as a crash.
+ * Slow workers keep sending heartbeats, so they are never killed: their shards get a second copy instead
+ * <p>
+ * Usage:
+ * Coordinator spec rolls [--workers n] [--threads n] [--shards n] [--seed n] [--timeout seconds] [--out file]
+ * runs e.g. "10d6" 10000000000 on 4 workers and optionally saves the histogram, and
+ * Coordinator --merge out-file file... merges histograms saved by separate runs of the same dice.
+ */
+public final class Coordinator {
+    /* How often the coordinator wakes up to look for silent workers */
+    private static final Duration POLL = Duration.ofMillis(500);
+    /* How long a worker may send nothing, not even a heartbeat, before it is killed */
+    private static final Duration SILENCE = Duration.ofSeconds(30);
+
+    /* Sides of each die */
+    private final int[] sides;
+    /* How many rolls the whole run makes */
+    private final long rolls;
+    /* Seed of the whole run */
+    private final long seed;
+    /* How many worker processes run at the same time */
+    private final int workerCount;
+    /* How many threads each worker rolls on */
+    private final int threads;
+    /* First block of each shard, and the end block of the run at the last index */
+    private final long[] shardBlocks;
+    /* How long a shard may take before it is given to a second worker */
+    private final Duration timeout;
+    /* Starts each worker */
+    private final WorkerLauncher launcher;
+
+    /* Events from the threads that read the workers */
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    /* Every worker started, alive or not */
+    private final List<WorkerProcess> workers = new ArrayList<>();
+    /* Whether the run is over, so workers going away are no longer failures */
+    private volatile boolean finished;
+
+    /**
+     * Constructs a coordinator of a run
+     *
+     * @param sides       Sides of each die
+     * @param rolls       How many rolls the whole run makes
+     * @param seed        Seed of the whole run
+     * @param workerCount How many worker processes run at the same time
+     * @param threads     How many threads each worker rolls on
+     * @param shards      How many shards the run is cut into, at most one per block
+     * @param timeout     How long a shard may take before it is given to a second worker
+     */
+    public Coordinator(int[] sides, long rolls, long seed, int workerCount, int threads, int shards, Duration timeout) {
+        this(sides, rolls, seed, workerCount, threads, shards, timeout, Coordinator::launchProcess);
+    }
+
+    /**
+     * Constructs a coordinator of a run whose workers are started by a given launcher
+     *
+     * @param sides       Sides of each die
+     * @param rolls       How many rolls the whole run makes
+     * @param seed        Seed of the whole run
+     * @param workerCount How many worker processes run at the same time
+     * @param threads     How many threads each worker rolls on
+     * @param shards      How many shards the run is cut into, at most one per block
+     * @param timeout     How long a shard may take before it is given to a second worker
+     * @param launcher    Starts each worker
+     */
+    Coordinator(int[] sides, long rolls, long seed, int workerCount, int threads, int shards, Duration timeout, WorkerLauncher launcher) {
+        if (rolls < 0 || workerCount < 1 || threads < 1 || shards < 1)
+            throw new IllegalArgumentException("Rolls must not be negative, and workers, threads and shards must be positive");
+        this.sides = sides.clone();
+        this.rolls = rolls;
+        this.seed = seed;
+        this.workerCount = workerCount;
+        this.threads = threads;
+        this.timeout = timeout;
+        this.launcher = launcher;
+        long blocks = DiceCollection.partitionBlocks(rolls);
+        int shardCount = (int) Math.min(shards, blocks);
+        shardBlocks = new long[shardCount + 1];
+        for (int i = 0; i <= shardCount; i++) shardBlocks[i] = blocks * i / Math.max(1, shardCount);
+    }
+
+    /**
+     * Entry point of the coordinator
+     *
+     * @param args See the usage in the description of the class
+     * @throws Exception If the run cannot finish or a file cannot be read or written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 2 && args[0].equals("--merge")) {
+            SumHistogram merged = null;
+            for (int i = 2; i < args.length; i++) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(args[i])))) {
+                    SumHistogram histogram = SumHistogram.readFrom(in);
+                    if (merged == null) {
+                        merged = histogram;
+                    } else if (histogram.getMinimum() != merged.getMinimum() || histogram.getMaximum() != merged.getMaximum()) {
+                        throw new IllegalArgumentException(args[i] + " holds sums " + histogram.getMinimum() + " to " + histogram.getMaximum()
+                                + " and cannot be merged with sums " + merged.getMinimum() + " to " + merged.getMaximum());
+                    } else {
+                        merged.merge(histogram);
+                    }
+                }
+            }
+            if (merged == null) throw new IllegalArgumentException("Nothing to merge");
+            save(merged, Path.of(args[1]));
+            System.out.println(summary(merged));
+            return;
+        }
+        if (args.length < 2) {
+            System.err.println("Usage: Coordinator spec rolls [--workers n] [--threads n] [--shards n] [--seed n] [--timeout seconds] [--out file]");
+            System.err.println("   or: Coordinator --merge out-file file...");
+            System.exit(2);
+        }
+
+        DiceGroup[] groups = DiceGroup.parse(args[0]);
+        long rolls = Long.parseLong(args[1]);
+        int workers = 2, threads = 1, shards = 0;
+        long seed = System.nanoTime();
+        Duration timeout = Duration.ofSeconds(60);
+        Path out = null;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--workers" -> workers = Integer.parseInt(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--shards" -> shards = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--timeout" -> timeout = Duration.ofSeconds(Long.parseLong(args[i + 1]));
+                case "--out" -> out = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        int[] sides = new DiceCollection(groups, RandomGenerator.getDefault()).getSides();
+        // A few shards per worker so a slow or lost shard holds back only a small part of the run
+        if (shards == 0) shards = workers * 4;
+
+        System.out.println("Rolling " + args[0] + " " + rolls + " times on " + workers + " workers with seed " + seed);
+        long start = System.nanoTime();
+        SumHistogram histogram = new Coordinator(sides, rolls, seed, workers, threads, shards, timeout).run();
+        System.out.printf("Done in %.2f s%n", (System.nanoTime() - start) / 1e9);
+        System.out.println(summary(histogram));
+        if (out != null) save(histogram, out);
+    }
+
+    /**
+     * Runs every shard on the workers and merges their histograms
+     *
+     * @return The histogram of the whole run
+     * @throws IOException If no worker can be started
+     * @throws InterruptedException If the coordinator is interrupted
+     */
+    public SumHistogram run() throws IOException, InterruptedException {
+        int maxSum = 0;
+        for (int side : sides) maxSum += side;
+        SumHistogram merged = new SumHistogram(sides.length, maxSum);
+        int shardCount = shardBlocks.length - 1;
+        boolean[] done = new boolean[shardCount];
+        int remaining = shardCount;
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int shard = 0; shard < shardCount; shard++) pending.add(shard);
+        // Every worker may be replaced once on average before the run gives up
+        int restartsLeft = workerCount;
+
+        try {
+            for (int i = 0; i < Math.min(workerCount, shardCount); i++) startWorker();
+            while (remaining > 0) {
+                for (WorkerProcess worker : workers) {
+                    if (!worker.alive || worker.shard >= 0) continue;
+                    int shard = nextShard(pending, done);
+                    if (shard < 0) break;
+                    worker.assign(shard, shardBlocks[shard], shardBlocks[shard + 1]);
+                }
+                if (workers.stream().noneMatch((worker) -> worker.alive)) throw new IOException("Every worker has failed");
+                killSilentWorkers();
+
+                Event event = events.poll(POLL.toMillis(), TimeUnit.MILLISECONDS);
+                if (event instanceof Result result) {
+                    result.worker.shard = -1;
+                    if (!done[(int) result.shard]) {
+                        done[(int) result.shard] = true;
+                        merged.merge(result.histogram);
+                        remaining--;
+                    }
+                } else if (event instanceof Failure failure) {
+                    WorkerProcess worker = failure.worker;
+                    if (!worker.alive) continue;
+                    worker.alive = false;
+                    worker.process.destroyForcibly();
+                    System.err.println("Worker " + worker.process.pid() + " failed: " + failure.cause);
+                    if (worker.shard >= 0 && !done[worker.shard]) pending.addFirst(worker.shard);
+                    if (restartsLeft-- > 0) startWorker();
+                }
+            }
+            return merged;
+        } finally {
+            stopWorkers();
+        }
+    }
+
+    /**
+     * Gives the shard an idle worker should roll next: a pending shard, or once none is pending, a
+     * shard that has been rolling for longer than the timeout on a single worker
+     *
+     * @param pending Shards waiting for a worker
+     * @param done    Which shards are merged
+     * @return The shard, or -1 if there is nothing to give
+     */
+    private int nextShard(Deque<Integer> pending, boolean[] done) {
+        while (!pending.isEmpty()) {
+            int shard = pending.pollFirst();
+            if (!done[shard]) return shard;
+        }
+        long now = System.nanoTime();
+        for (WorkerProcess straggler : workers) {
+            if (!straggler.alive || straggler.shard < 0 || done[straggler.shard]) continue;
+            if (now - straggler.assignedAt < timeout.toNanos()) continue;
+            int shard = straggler.shard;
+            long copies = workers.stream().filter((worker) -> worker.alive && worker.shard == shard).count();
+            if (copies == 1) return shard;
+        }
+        return -1;
+    }
+
+    /**
+     * Kills the workers that have sent nothing, not even a heartbeat, for longer than {@link #SILENCE}.
+     * Their readers then report them as failed
+     */
+    private void killSilentWorkers() {
+        long now = System.nanoTime();
+        for (WorkerProcess worker : workers)
+            if (worker.alive && now - worker.lastHeard > SILENCE.toNanos()) worker.process.destroyForcibly();
+    }
+
+    /**
+     * Starts a worker and sends it the job
+     *
+     * @throws IOException If the worker cannot be started
+     */
+    private void startWorker() throws IOException {
+        Process process = launcher.launch();
+        WorkerProcess worker = new WorkerProcess(process);
+        workers.add(worker);
+        try {
+            worker.sendJob(sides, rolls, seed, threads);
+        } catch (IOException exception) {
+            events.add(new Failure(worker, exception));
+        }
+        Thread.ofVirtual().name("worker-reader-" + process.pid()).start(() -> read(worker));
+    }
+
+    /**
+     * Starts a worker process with the class path and the Vector API module of this JVM
+     *
+     * @return The process
+     * @throws IOException If the process cannot be started
+     */
+    private static Process launchProcess() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) command.add("--add-modules=jdk.incubator.vector");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Worker.class.getName());
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    /**
+     * Reads the histograms a worker sends until it goes away
+     *
+     * @param worker The worker
+     */
+    private void read(WorkerProcess worker) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(worker.process.getInputStream()))) {
+            while (true) {
+                long shard = in.readLong();
+                worker.lastHeard = System.nanoTime();
+                if (shard == Worker.HEARTBEAT) continue;
+                events.add(new Result(worker, shard, SumHistogram.readFrom(in)));
+            }
+        } catch (IOException exception) {
+            if (!finished) events.add(new Failure(worker, exception));
+        }
+    }
+
+    /**
+     * Asks every worker to stop, and kills the ones that do not
+     */
+    private void stopWorkers() {
+        finished = true;
+        for (WorkerProcess worker : workers) {
+            if (!worker.alive) continue;
+            try {
+                worker.stop();
+            } catch (IOException exception) {
+                worker.process.destroyForcibly();
+            }
+        }
+        for (WorkerProcess worker : workers) {
+            try {
+                if (!worker.process.waitFor(5, TimeUnit.SECONDS)) worker.process.destroyForcibly();
+            } catch (InterruptedException exception) {
+                worker.process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Saves a histogram in its binary form
+     *
+     * @param histogram The histogram
+     * @param path      Where to save it
+     * @throws IOException If the file cannot be written
+     */
+    private static void save(SumHistogram histogram, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            histogram.writeTo(out);
+        }
+        System.out.println("Saved to " + path);
+    }
+
+    /**
+     * Gives a short report of a histogram
+     *
+     * @param histogram The histogram
+     * @return The total, the mean and the range of the counted sums
+     */
+    private static String summary(SumHistogram histogram) {
+        double mean = 0;
+        for (int sum = histogram.lowestSum(); sum <= histogram.highestSum(); sum++)
+            mean += (double) sum * histogram.count(sum) / histogram.total();
+        return String.format("Rolls: %,d, mean sum: %.4f, lowest sum: %d, highest sum: %d",
+                histogram.total(), mean, histogram.lowestSum(), histogram.highestSum());
+    }
+
+    /**
+     * Starts a worker that speaks the protocol of {@link Worker} over its standard input and output
+     */
+    @FunctionalInterface
+    interface WorkerLauncher {
+        /**
+         * Starts a worker
+         *
+         * @return The process of the worker
+         * @throws IOException If the worker cannot be started
+         */
+        Process launch() throws IOException;
+    }
+
+    /**
+     * A worker process and the shard it is rolling. Only used by the coordinator thread
+     */
+    private static final class WorkerProcess {
+        /* The process */
+        final Process process;
+        /* Commands to the process */
+        private final DataOutputStream out;
+        /* Whether the process is still used */
+        boolean alive = true;
+        /* The shard being rolled, or -1 when idle */
+        int shard = -1;
+        /* When the shard was given, from System.nanoTime */
+        long assignedAt;
+        /* When the worker last sent anything, from System.nanoTime. Written by the reader thread */
+        volatile long lastHeard = System.nanoTime();
+
+        /**
+         * Wraps a started process
+         *
+         * @param process The process
+         */
+        WorkerProcess(Process process) {
+            this.process = process;
+            out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        }
+
+        /**
+         * Sends the job every shard belongs to
+         *
+         * @param sides   Sides of each die
+         * @param rolls   How many rolls the whole run makes
+         * @param seed    Seed of the whole run
+         * @param threads How many threads to roll on
+         * @throws IOException If the process cannot be written to
+         */
+        void sendJob(int[] sides, long rolls, long seed, int threads) throws IOException {
+            out.writeInt(Worker.MAGIC);
+            out.writeInt(sides.length);
+            for (int side : sides) out.writeInt(side);
+            out.writeLong(rolls);
+            out.writeLong(seed);
+            out.writeInt(threads);
+            out.flush();
+        }
+
+        /**
+         * Gives the worker a shard. A worker that cannot be written to is left to its reader, which
+         * reports it as failed
+         *
+         * @param shard      The shard
+         * @param firstBlock The first block of the shard
+         * @param endBlock   The block after the last block of the shard
+         */
+        void assign(int shard, long firstBlock, long endBlock) {
+            this.shard = shard;
+            assignedAt = System.nanoTime();
+            try {
+                out.writeLong(shard);
+                out.writeLong(firstBlock);
+                out.writeLong(endBlock);
+                out.flush();
+            } catch (IOException exception) {
+                process.destroyForcibly();
+            }
+        }
+
+        /**
+         * Asks the worker to stop after its current shard
+         *
+         * @throws IOException If the process cannot be written to
+         */
+        void stop() throws IOException {
+            out.writeLong(-1);
+            out.close();
+        }
+    }
+
+    /**
+     * Something that happened to a worker, reported by its reader thread
+     */
+    private sealed interface Event permits Result, Failure {
+    }
+
+    /**
+     * A worker sent the histogram of a shard
+     *
+     * @param worker    The worker
+     * @param shard     The shard
+     * @param histogram The histogram of the shard
+     */
+    private record Result(WorkerProcess worker, long shard, SumHistogram histogram) implements Event {
+    }
+
+    /**
+     * A worker went away or could not be written to
+     *
+     * @param worker The worker
+     * @param cause  What went wrong
+     */
+    private record Failure(WorkerProcess worker, Exception cause) implements Event {
+    }
+}
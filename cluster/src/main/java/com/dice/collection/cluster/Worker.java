@@ -0,0 +1,116 @@
+package com.dice.collection.cluster;
+
+import com.dice.collection.DiceCollection;
+import com.dice.collection.SumHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A worker process of a {@link Coordinator}. The coordinator talks to it over its standard input and
+ * output, in binary:
+ * - the coordinator sends the job once: int {@value #MAGIC}, int number of dice, int sides of each die,
+ * long rolls of the whole run, long seed, int threads to roll on
+ * - then each shard: long shard id, long first block, long end block. A negative shard id ends the worker
+ * - the worker answers each shard with the long shard id and its histogram, see {@link SumHistogram#writeTo}
+ * - between answers, the worker sends the long {@value #HEARTBEAT} every second from its own thread, so the
+ * coordinator can tell a slow worker, which keeps sending it, from one that is stuck or gone
+ * Shards are blocks of a partitioned run, see {@link DiceCollection#histogramPartitioned(long, long, long, long, int)},
+ * so a shard rolls the same sums whichever worker rolls it and however often it is rolled.
+ * Anything printed goes to standard error, since standard output carries the histograms.
+ */
+public final class Worker {
+    /* First int of a job, to catch a worker started by something other than a coordinator */
+    static final int MAGIC = 0x44574B31;
+    /* Sent instead of a shard id to tell the coordinator the worker is still alive */
+    static final long HEARTBEAT = -2;
+    /* Time between 2 heartbeats, in milliseconds */
+    static final long HEARTBEAT_MILLIS = 1000;
+
+    /**
+     * No instances, the worker only runs as a process
+     */
+    private Worker() {
+    }
+
+    /**
+     * Entry point of a worker process
+     *
+     * @param args unused
+     * @throws IOException If the coordinator cannot be read from or written to
+     */
+    public static void main(String[] args) throws IOException {
+        OutputStream stdout = new FileOutputStream(FileDescriptor.out);
+        System.setOut(System.err); // Keep stray output away from the histograms
+        serve(System.in, stdout);
+    }
+
+    /**
+     * Rolls the shards of a job until the coordinator ends the worker or goes away
+     *
+     * @param input  Commands from the coordinator
+     * @param output Where the answers go
+     * @throws IOException If the coordinator cannot be read from or written to
+     */
+    static void serve(InputStream input, OutputStream output) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        if (in.readInt() != MAGIC) throw new IOException("Not a job of a coordinator");
+        int[] sides = new int[in.readInt()];
+        for (int i = 0; i < sides.length; i++) sides[i] = in.readInt();
+        long rolls = in.readLong();
+        long seed = in.readLong();
+        int threads = in.readInt();
+        DiceCollection collection = new DiceCollection(sides);
+        Thread heartbeat = Thread.ofPlatform().daemon().name("heartbeat").start(() -> heartbeat(out));
+
+        try {
+            while (true) {
+                long shard;
+                try {
+                    shard = in.readLong();
+                } catch (EOFException exception) {
+                    return; // The coordinator has gone away
+                }
+                if (shard < 0) return;
+                long firstBlock = in.readLong();
+                long endBlock = in.readLong();
+                SumHistogram histogram = collection.histogramPartitioned(rolls, seed, firstBlock, endBlock, threads);
+                synchronized (out) {
+                    out.writeLong(shard);
+                    histogram.writeTo(out);
+                    out.flush();
+                }
+            }
+        } finally {
+            heartbeat.interrupt();
+        }
+    }
+
+    /**
+     * Sends a heartbeat every second until the coordinator can no longer be written to
+     *
+     * @param out The output to the coordinator, shared with the histograms and locked by every writer
+     */
+    private static void heartbeat(DataOutputStream out) {
+        try {
+            while (true) {
+                Thread.sleep(HEARTBEAT_MILLIS);
+                synchronized (out) {
+                    out.writeLong(HEARTBEAT);
+                    out.flush();
+                }
+            }
+        } catch (IOException | InterruptedException exception) {
+            // The coordinator has gone away, or the worker is stopping
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.dice.collection.cluster;
+
+import com.dice.collection.DiceCollection;
+import com.dice.collection.SumHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the coordinator against workers on threads of this JVM that speak the protocol of {@link Worker}
+ * over pipes, and checks that crashed, slow and duplicated shards still merge into the histogram of
+ * {@link DiceCollection#histogramPartitioned} for the same seed
+ */
+class CoordinatorTest {
+    /* Sides of each die of every run */
+    private static final int[] SIDES = {4, 6, 6, 8, 10, 20};
+    /* Several blocks per shard, the last one partial */
+    private static final long ROLLS = 20L * (1 << 14) + 321;
+    /* Seed of every run */
+    private static final long SEED = 2024;
+    /* How long a slow worker holds each answer back, far longer than the shard timeout */
+    private static final long SLOW_MILLIS = 1500;
+
+    @Test
+    void healthyWorkersMergeThePartitionedHistogram() throws Exception {
+        Launcher launcher = new Launcher();
+        SumHistogram merged = new Coordinator(SIDES, ROLLS, SEED, 3, 1, 7, Duration.ofSeconds(60), launcher).run();
+        assertPartitioned(merged);
+        assertEquals(3, launcher.launched.size());
+        assertEquals(7, launcher.answers.get(), "No shard should be rolled twice");
+    }
+
+    @Test
+    void shardOfACrashedWorkerIsReissued() throws Exception {
+        Launcher launcher = new Launcher(Behaviour.CRASHING, Behaviour.NORMAL, Behaviour.CRASHING);
+        SumHistogram merged = new Coordinator(SIDES, ROLLS, SEED, 2, 2, 6, Duration.ofSeconds(60), launcher).run();
+        assertPartitioned(merged);
+        assertEquals(4, launcher.launched.size(), "Each crashed worker should be replaced");
+    }
+
+    @Test
+    void slowShardsAreRolledAgainAndTheFirstAnswerWins() throws Exception {
+        Launcher launcher = new Launcher(Behaviour.SLOW);
+        SumHistogram merged = new Coordinator(SIDES, ROLLS, SEED, 2, 1, 4, Duration.ofMillis(100), launcher).run();
+        assertPartitioned(merged);
+        assertEquals(2, launcher.launched.size(), "A slow worker keeps its heartbeats, so it is not replaced");
+        assertEquals(4, launcher.launched.get(1).answered, "The shard of the slow worker should have been given to the other worker");
+    }
+
+    @Test
+    void runGivesUpWhenEveryWorkerFails() {
+        Launcher launcher = new Launcher(Behaviour.CRASHING, Behaviour.CRASHING, Behaviour.CRASHING, Behaviour.CRASHING);
+        Coordinator coordinator = new Coordinator(SIDES, ROLLS, SEED, 1, 1, 3, Duration.ofSeconds(60), launcher);
+        assertThrows(IOException.class, coordinator::run);
+    }
+
+    /**
+     * Checks that a merged histogram is the partitioned histogram of the whole run on one JVM
+     *
+     * @param merged The histogram merged by the coordinator
+     */
+    private static void assertPartitioned(SumHistogram merged) {
+        SumHistogram expected = new DiceCollection(SIDES).histogramPartitioned(ROLLS, SEED, 1);
+        assertEquals(ROLLS, merged.total());
+        assertArrayEquals(expected.toArray(), merged.toArray());
+    }
+
+    /**
+     * How an in-JVM worker treats its answers
+     */
+    private enum Behaviour {
+        /* Answers every shard */
+        NORMAL,
+        /* Goes away when it is about to answer its first shard */
+        CRASHING,
+        /* Holds every answer back for SLOW_MILLIS, still sending heartbeats before */
+        SLOW
+    }
+
+    /**
+     * Starts in-JVM workers, with the planned behaviours first and normal workers after them
+     */
+    private static final class Launcher implements Coordinator.WorkerLauncher {
+        /* Behaviours of the next workers */
+        private final Deque<Behaviour> plan;
+        /* Every worker started */
+        private final List<InJvmWorker> launched = new ArrayList<>();
+        /* How many shards were answered by all workers */
+        private final AtomicInteger answers = new AtomicInteger();
+
+        /**
+         * Constructs a launcher
+         *
+         * @param plan Behaviours of the first workers
+         */
+        Launcher(Behaviour... plan) {
+            this.plan = new ArrayDeque<>(List.of(plan));
+        }
+
+        @Override
+        public Process launch() throws IOException {
+            Behaviour behaviour = plan.isEmpty() ? Behaviour.NORMAL : plan.pollFirst();
+            InJvmWorker worker = new InJvmWorker(launched.size() + 1, behaviour, answers);
+            launched.add(worker);
+            return worker;
+        }
+    }
+
+    /**
+     * A worker on a thread of this JVM, seen by the coordinator as a process whose standard input and
+     * output are pipes
+     */
+    private static final class InJvmWorker extends Process {
+        /* Commands from the coordinator */
+        private final Pipe commands = Pipe.open();
+        /* Answers to the coordinator */
+        private final Pipe answers = Pipe.open();
+        /* Id shown in place of a process id */
+        private final long id;
+        /* Runs Worker.serve */
+        private final Thread thread;
+        /* How many shards this worker answered */
+        private volatile int answered;
+        /* 0 when the worker stopped when asked, 1 when it failed */
+        private volatile int exitValue;
+
+        /**
+         * Starts a worker
+         *
+         * @param id        Id shown in place of a process id
+         * @param behaviour How it treats its answers
+         * @param total     Counts the shards answered by every worker
+         * @throws IOException If the pipes cannot be opened
+         */
+        InJvmWorker(long id, Behaviour behaviour, AtomicInteger total) throws IOException {
+            this.id = id;
+            OutputStream pipe = Channels.newOutputStream(answers.sink());
+            OutputStream out = new FilterOutputStream(pipe) {
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    // A heartbeat is one long, anything longer is an answer
+                    if (length > Long.BYTES) {
+                        if (behaviour == Behaviour.CRASHING) {
+                            destroy();
+                            throw new IOException("Worker " + id + " crashed");
+                        }
+                        if (behaviour == Behaviour.SLOW) pause();
+                        answered++;
+                        total.incrementAndGet();
+                    }
+                    pipe.write(bytes, offset, length);
+                }
+            };
+            InputStream in = Channels.newInputStream(commands.source());
+            thread = Thread.ofPlatform().daemon().name("in-jvm-worker-" + id).start(() -> {
+                try {
+                    Worker.serve(in, out);
+                } catch (IOException exception) {
+                    exitValue = 1;
+                } finally {
+                    destroy();
+                }
+            });
+        }
+
+        /**
+         * Holds an answer back
+         */
+        private static void pause() {
+            try {
+                Thread.sleep(SLOW_MILLIS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return Channels.newOutputStream(commands.sink());
+        }
+
+        /**
+         * Gives the answers of the worker. The stream of {@link Channels#newInputStream} reads under a lock,
+         * which would pin the virtual thread the coordinator reads on, so the channel is read directly
+         *
+         * @return The answers
+         */
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) throws IOException {
+                    return length == 0 ? 0 : answers.source().read(ByteBuffer.wrap(bytes, offset, length));
+                }
+            };
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            thread.join();
+            return exitValue;
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+            return thread.join(Duration.ofNanos(unit.toNanos(timeout)));
+        }
+
+        @Override
+        public int exitValue() {
+            if (thread.isAlive()) throw new IllegalThreadStateException("Worker " + id + " is running");
+            return exitValue;
+        }
+
+        /**
+         * Closes the ends of the pipes the worker uses, so it stops reading and the coordinator reads the end
+         * of its answers
+         */
+        @Override
+        public void destroy() {
+            try {
+                commands.source().close();
+                answers.sink().close();
+            } catch (IOException exception) {
+                // Already closed
+            }
+        }
+
+        @Override
+        public boolean isAlive() {
+            return thread.isAlive();
+        }
+
+        @Override
+        public long pid() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.dice.collection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Blueprint for a collection of dice that many threads roll at the same time.
+ * {@link DiceCollection} keeps its up sides in arrays that every roll overwrites, so a thread reading the
+ * sum while another one rolls can see half of each roll. Here every roll is made in memory owned by the
+ * rolling thread and becomes an immutable {@link RollResult}, which is then published as the current state
+ * in a versioned {@link Snapshot} swapped in with a compare-and-set. Readers always see one whole roll,
+ * and no lock is taken on any path.
+ * <p>
+ * Rolls are made with a generator and scratch space, a roller, taken from a small striped pool: a thread
+ * takes the roller of the slot its id points to, or of one of the next slots, and puts it back when the
+ * roll is done. A new roller is made only when every slot tried is empty, so thousands of virtual threads
+ * share about as many rollers as there are cores, and rolling threads share nothing but the snapshot and
+ * the slots. The generators are L64X128MixRandom streams seeded from the seed of the collection and the
+ * order in which the rollers are made; that order depends on the scheduler, so the rolls of a concurrent
+ * collection are not reproducible the way a seeded {@link DiceCollection} is. Use
+ * {@link DiceCollection#histogramPartitioned} when they need to be.
+ * Objects created from this class provides access to:
+ * - sides of each die and the minimum and maximum sum
+ * - ability to roll all dice from any thread
+ * - the latest roll and how many rolls were published before it
+ * - ability to roll all dice n times then record those rolls, from any thread
+ */
+public final class ConcurrentDiceCollection {
+    /* Compare-and-set access to the current snapshot */
+    private static final VarHandle CURRENT;
+
+    static {
+        try {
+            CURRENT = MethodHandles.lookup().findVarHandle(ConcurrentDiceCollection.class, "current", Snapshot.class);
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
+    /* Sides of each die. Never changed, so every thread reads it freely */
+    private final int[] sides;
+    /* Rejection threshold of each die. Never changed */
+    private final int[] thresholds;
+    /* Sum of the highest sides */
+    private final int maxSum;
+    /* Seed the generator of each thread is derived from */
+    private final long seed;
+    /* How many slots of the pool a thread tries before making a new roller */
+    private static final int PROBES = 4;
+    /* Slots of the pool, a power of 2 with room for every core to roll at once */
+    private static final int SLOTS = Integer.highestOneBit(Math.max(1, 2 * Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+    /* How many rollers have been made, to give each one its own stream */
+    private final AtomicLong streams = new AtomicLong();
+    /* Rollers that no thread is using. An empty slot is null */
+    private final AtomicReferenceArray<Roller> rollers = new AtomicReferenceArray<>(SLOTS);
+    /* The kernels the dice are rolled with */
+    private final DiceKernels kernels = DiceKernels.get();
+    /* The latest published roll. Only replaced through CURRENT */
+    private volatile Snapshot current;
+
+    /**
+     * A published roll of the collection
+     *
+     * @param version How many rolls were published before this one, 0 for the roll made by the constructor
+     * @param result  The roll
+     */
+    public record Snapshot(long version, RollResult result) {
+    }
+
+    /**
+     * Constructs the collection using a given array of sides of each die
+     *
+     * @param sides An array of sides of each die
+     * @param seed  The seed the generator of each rolling thread is derived from
+     */
+    public ConcurrentDiceCollection(int[] sides, long seed) {
+        this.sides = sides.clone(); // Copy so later changes to the caller's array do not change the collection
+        this.seed = seed;
+        thresholds = new int[sides.length];
+        int sum = 0;
+        for (int i = 0; i < sides.length; i++) {
+            thresholds[i] = DiceKernels.rejectThreshold(sides[i]);
+            sum += sides[i];
+        }
+        maxSum = sum;
+        Roller roller = acquire();
+        current = new Snapshot(0, rollResult(roller)); // Initiate every die with a random side facing up
+        release(roller);
+    }
+
+    /**
+     * Constructs the collection from groups of identical dice, e.g. 500 dice of 6 sides and 200 dice of 10 sides.
+     * Dice of a group are stored next to each other in the order of the groups
+     *
+     * @param groups The groups of dice
+     * @param seed   The seed the generator of each rolling thread is derived from
+     */
+    public ConcurrentDiceCollection(DiceGroup[] groups, long seed) {
+        this(DiceCollection.expandGroups(groups), seed);
+    }
+
+    /**
+     * Takes a roller from the pool for the calling thread, or makes one on the next stream of the collection
+     * when the slots tried are empty. The roller is the thread's alone until it is released
+     *
+     * @return The roller
+     */
+    private Roller acquire() {
+        int slot = home();
+        for (int probe = 0; probe < PROBES; probe++) {
+            Roller roller = rollers.getAndSet((slot + probe) & (SLOTS - 1), null);
+            if (roller != null) return roller;
+        }
+        long stream = streams.getAndIncrement();
+        long streamSeed = PartitionedHistogram.derivedSeed(seed, PartitionedHistogram.STREAM_DOMAIN, stream);
+        return new Roller(DiceCollection.createGenerator(PartitionedHistogram.ALGORITHM, streamSeed), sides.length);
+    }
+
+    /**
+     * Puts a roller back into an empty slot near the calling thread's, or drops it when they are all taken
+     *
+     * @param roller The roller taken by {@link #acquire()}
+     */
+    private void release(Roller roller) {
+        int slot = home();
+        for (int probe = 0; probe < PROBES; probe++) {
+            if (rollers.compareAndSet((slot + probe) & (SLOTS - 1), null, roller)) return;
+        }
+    }
+
+    /**
+     * Gives the first slot the calling thread tries, spread from its id so neighbouring threads do not
+     * all start from the same slot
+     *
+     * @return The index of the slot
+     */
+    private static int home() {
+        return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32) & (SLOTS - 1);
+    }
+
+    /**
+     * Gives how many rollers have been made, which is how many streams have been used
+     *
+     * @return The number of rollers
+     */
+    long streams() {
+        return streams.get();
+    }
+
+    /**
+     * Get the number of dice in the collection
+     *
+     * @return The number of dice
+     */
+    public int size() {
+        return sides.length;
+    }
+
+    /**
+     * Get the sides of each die
+     *
+     * @return A new array with the sides of each die in the order of the collection
+     */
+    public int[] getSides() {
+        return sides.clone();
+    }
+
+    /**
+     * Sum all the sides with value of 1
+     *
+     * @return The sum value
+     */
+    public int sumMinimum() {
+        return sides.length; // Every die contributes 1
+    }
+
+    /**
+     * Sum all the sides with the highest value
+     *
+     * @return The sum value
+     */
+    public int sumMaximum() {
+        return maxSum;
+    }
+
+    /**
+     * Roll each die once and publish the roll as the current state. Safe to call from any thread
+     *
+     * @return An immutable record of the sum and the side facing up of each die
+     */
+    public RollResult roll() {
+        RollEvent event = new RollEvent();
+        event.start();
+        Roller roller = acquire();
+        RollResult result = rollResult(roller);
+        release(roller);
+        publish(result);
+        DiceMetrics.recordRolls(1);
+        event.finish(sides.length, 1);
+        return result;
+    }
+
+    /**
+     * Get the latest published roll together with its version
+     *
+     * @return The current snapshot
+     */
+    public Snapshot current() {
+        return current;
+    }
+
+    /**
+     * Record the current sides facing up
+     *
+     * @return The latest published roll
+     */
+    public RollResult getRollResult() {
+        return current.result();
+    }
+
+    /**
+     * Sum the values of sides currently facing up, which is the sum of the latest published roll
+     *
+     * @return The sum value
+     */
+    public int sumUpSides() {
+        return current.result().sum();
+    }
+
+    /**
+     * Rolls the entire collection n times while tracking each roll. Safe to call from many threads at once:
+     * each call rolls on its own roller into its own histogram. Only the last roll is published
+     *
+     * @param rolls How many times to roll the dice in the collection
+     * @return A histogram that tracks the up side sums of rolls
+     */
+    public SumHistogram histogram(long rolls) {
+        HistogramEvent event = new HistogramEvent("concurrent");
+        event.start();
+        Roller roller = acquire();
+        SumHistogram tracker = new SumHistogram(sumMinimum(), sumMaximum());
+        int sum = 0;
+        for (long i = 0; i < rolls; i++) {
+            sum = kernels.roll(roller.random, sides, thresholds, roller.upSides, roller.bits);
+            tracker.add(sum);
+        }
+        RollResult last = rolls > 0 ? new RollResult(sum, roller.upSides) : null;
+        release(roller);
+        if (last != null) publish(last);
+        DiceMetrics.recordHistogram(rolls);
+        event.finish(sides.length, rolls);
+        return tracker;
+    }
+
+    /**
+     * Rolls every die once in the scratch space of the thread. The result keeps its own copy of the up sides
+     *
+     * @param roller The roller held by the calling thread
+     * @return The roll
+     */
+    private RollResult rollResult(Roller roller) {
+        int sum = kernels.roll(roller.random, sides, thresholds, roller.upSides, roller.bits);
+        return new RollResult(sum, roller.upSides);
+    }
+
+    /**
+     * Makes a roll the current state, one version after the state it replaces
+     *
+     * @param result The roll
+     */
+    private void publish(RollResult result) {
+        Snapshot previous;
+        do {
+            previous = current;
+        } while (!CURRENT.compareAndSet(this, previous, new Snapshot(previous.version() + 1, result)));
+    }
+
+    /**
+     * Generator and scratch space, used by one thread at a time
+     */
+    private static final class Roller {
+        /* The generator */
+        final RandomGenerator random;
+        /* Up sides of rolls that are not published */
+        final int[] upSides;
+        /* Scratch space for random values */
+        final int[] bits;
+
+        /**
+         * Constructs a roller
+         *
+         * @param random The generator
+         * @param dice   How many dice the collection has
+         */
+        Roller(RandomGenerator random, int dice) {
+            this.random = random;
+            upSides = new int[dice];
+            bits = new int[dice];
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.dice.collection;
+
+/**
+ * Utility class that computes the exact distribution of the sum of dice by convolving
+ * the uniform distribution of each die.
+ * <p>
+ * Convolving with a die of s sides is a moving sum over a window of s values, so the direct
+ * method costs one pass over the sums per die. For collections with many dice and a wide range
+ * of sums, the distribution is computed in the frequency domain instead: the Fourier transform
+ * of a die has a closed form, the transforms of all dice are multiplied, and one inverse FFT
+ * gives every probability.
+ */
+final class Convolution {
+    /* Estimated cost of the direct method above which the FFT method is used */
+    static final long FFT_THRESHOLD = 1 << 16;
+
+    /**
+     * No instances, only static utility methods
+     */
+    private Convolution() {
+    }
+
+    /**
+     * Computes how many ways there are to roll each sum.
+     * The lowest sum, which is the number of dice, is stored at index 0
+     *
+     * @param sides Sides of each die
+     * @return The number of combinations of up sides that add up to each sum
+     * @throws ArithmeticException If a count does not fit in a long
+     */
+    static long[] counts(int[] sides) {
+        long[] counts = new long[range(sides)];
+        long[] next = new long[counts.length];
+        counts[0] = 1;
+        int length = 1; // How many sums are possible with the dice convolved so far
+        for (int side : sides) {
+            int newLength = length + side - 1;
+            long window = 0; // The number of ways to reach the last "side" sums of the previous dice
+            for (int sum = 0; sum < newLength; sum++) {
+                if (sum < length) window = Math.addExact(window, counts[sum]); // Count entering the window
+                if (sum - side >= 0) window -= counts[sum - side]; // Count leaving the window
+                next[sum] = window;
+            }
+            long[] swap = counts;
+            counts = next;
+            next = swap;
+            length = newLength;
+        }
+        return counts;
+    }
+
+    /**
+     * Computes the probability of each sum using the cheaper of the direct and the FFT method.
+     * The lowest sum, which is the number of dice, is stored at index 0
+     *
+     * @param sides Sides of each die
+     * @return The probability of each sum
+     */
+    static double[] probabilities(int[] sides) {
+        return probabilities(DiceGroup.group(sides));
+    }
+
+    /**
+     * Computes the probability of each sum of groups of identical dice using the cheaper of the direct and
+     * the FFT method, without listing every die.
+     * The lowest sum, which is the number of dice, is stored at index 0
+     *
+     * @param groups The groups of dice
+     * @return The probability of each sum
+     */
+    static double[] probabilities(DiceGroup[] groups) {
+        long dice = 0;
+        for (DiceGroup group : groups) dice += group.count();
+        if (dice * range(groups) <= FFT_THRESHOLD) {
+            double[] probabilities = {1};
+            for (DiceGroup group : groups)
+                for (int die = 0; die < group.count(); die++) probabilities = extend(probabilities, group.sides());
+            return probabilities;
+        }
+        return probabilitiesFft(groups);
+    }
+
+    /**
+     * Computes the probability of each sum by convolving one die at a time
+     *
+     * @param sides Sides of each die
+     * @return The probability of each sum
+     */
+    static double[] probabilitiesDirect(int[] sides) {
+        double[] probabilities = {1};
+        for (int side : sides) probabilities = extend(probabilities, side);
+        return probabilities;
+    }
+
+    /**
+     * Convolves a distribution with one more die, which is one moving sum over the distribution
+     *
+     * @param probabilities The probability of each sum of some dice, starting from the lowest sum
+     * @param side          Sides of the added die
+     * @return The probability of each sum of the dice and the added die, starting from the lowest sum
+     */
+    static double[] extend(double[] probabilities, int side) {
+        int length = probabilities.length;
+        double[] next = new double[length + side - 1];
+        double weight = 1.0 / side;
+        double window = 0;
+        for (int sum = 0; sum < next.length; sum++) {
+            if (sum < length) window += probabilities[sum]; // Probability entering the window
+            if (sum - side >= 0) window -= probabilities[sum - side]; // Probability leaving the window
+            next[sum] = Math.max(0, window) * weight;
+        }
+        return next;
+    }
+
+    /**
+     * Computes the probability of each sum in the frequency domain.
+     * A die with s sides has the transform e^(-i*phi*(s-1)/2) * sin(s*phi/2) / (s*sin(phi/2)),
+     * so the product over all dice is a real amplitude times a single phase. Dice with the same
+     * sides are multiplied with one power
+     *
+     * @param sides Sides of each die
+     * @return The probability of each sum
+     */
+    static double[] probabilitiesFft(int[] sides) {
+        // Group dice with the same sides so each group needs one power instead of one product per die
+        return probabilitiesFft(DiceGroup.group(sides));
+    }
+
+    /**
+     * Computes the probability of each sum of groups of identical dice in the frequency domain,
+     * see {@link #probabilitiesFft(int[])}
+     *
+     * @param groups The groups of dice
+     * @return The probability of each sum
+     */
+    static double[] probabilitiesFft(DiceGroup[] groups) {
+        int range = range(groups);
+        int size = Integer.highestOneBit(Math.max(1, range - 1)) << 1; // Power of 2 that fits every sum
+        double[] real = new double[size];
+        double[] imaginary = new double[size];
+        for (int j = 0; j < size; j++) {
+            double phi = 2 * Math.PI * j / size;
+            double amplitude = 1;
+            for (DiceGroup group : groups) amplitude *= Math.pow(dieAmplitude(group.sides(), phi), group.count());
+            double phase = -phi * (range - 1) / 2;
+            real[j] = amplitude * Math.cos(phase);
+            imaginary[j] = amplitude * Math.sin(phase);
+        }
+
+        inverseFft(real, imaginary);
+        double[] probabilities = new double[range];
+        for (int i = 0; i < range; i++) probabilities[i] = Math.max(0, real[i]);
+        return probabilities;
+    }
+
+    /**
+     * Gives the real amplitude of the transform of a die, sin(s*phi/2) / (s*sin(phi/2))
+     *
+     * @param side The sides of the die
+     * @param phi  The angular frequency
+     * @return The amplitude, 1 at frequency 0
+     */
+    private static double dieAmplitude(int side, double phi) {
+        double denominator = side * Math.sin(phi / 2);
+        if (Math.abs(denominator) < 1e-300) return 1;
+        return Math.sin(side * phi / 2) / denominator;
+    }
+
+    /**
+     * Transforms a complex signal back from the frequency domain in place, with an iterative radix-2 FFT
+     *
+     * @param real      The real parts. Its length must be a power of 2
+     * @param imaginary The imaginary parts
+     */
+    private static void inverseFft(double[] real, double[] imaginary) {
+        int n = real.length;
+        // Reorder the values by bit-reversed index
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) j ^= bit;
+            j ^= bit;
+            if (i < j) {
+                double swap = real[i];
+                real[i] = real[j];
+                real[j] = swap;
+                swap = imaginary[i];
+                imaginary[i] = imaginary[j];
+                imaginary[j] = swap;
+            }
+        }
+        // Twiddle factors e^(2*pi*i*k/n) with a positive angle for the inverse transform
+        double[] cosines = new double[n / 2];
+        double[] sines = new double[n / 2];
+        for (int k = 0; k < n / 2; k++) {
+            cosines[k] = Math.cos(2 * Math.PI * k / n);
+            sines[k] = Math.sin(2 * Math.PI * k / n);
+        }
+        // Combine transforms of doubling length
+        for (int length = 2; length <= n; length <<= 1) {
+            int stride = n / length;
+            for (int start = 0; start < n; start += length) {
+                for (int k = 0; k < length / 2; k++) {
+                    double wReal = cosines[k * stride];
+                    double wImaginary = sines[k * stride];
+                    int even = start + k;
+                    int odd = even + length / 2;
+                    double oddReal = real[odd] * wReal - imaginary[odd] * wImaginary;
+                    double oddImaginary = real[odd] * wImaginary + imaginary[odd] * wReal;
+                    real[odd] = real[even] - oddReal;
+                    imaginary[odd] = imaginary[even] - oddImaginary;
+                    real[even] += oddReal;
+                    imaginary[even] += oddImaginary;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            real[i] /= n;
+            imaginary[i] /= n;
+        }
+    }
+
+    /**
+     * Gives how many sums are possible for a collection of dice
+     *
+     * @param sides Sides of each die
+     * @return The difference between the highest and lowest sum plus 1
+     */
+    static int range(int[] sides) {
+        long range = 1;
+        for (int side : sides) range += side - 1;
+        return Math.toIntExact(range);
+    }
+
+    /**
+     * Gives how many sums are possible for groups of identical dice
+     *
+     * @param groups The groups of dice
+     * @return The difference between the highest and lowest sum plus 1
+     */
+    static int range(DiceGroup[] groups) {
+        long range = 1;
+        for (DiceGroup group : groups) range += (long) (group.sides() - 1) * group.count();
+        return Math.toIntExact(range);
+    }
+}
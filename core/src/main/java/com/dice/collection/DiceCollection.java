@@ -0,0 +1,740 @@
+package com.dice.collection;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Blueprint for the collection of dice.
+ * The dice are stored as 2 primitive arrays, the sides and the current up side of each die, so rolling
+ * and summing run over contiguous memory instead of chasing a reference per die.
+ * The highest sum and the sum of the current roll are kept up to date as the dice change and roll,
+ * so every sum query costs the same no matter how many dice the collection has.
+ * Rolling and summing go through {@link DiceKernels}, which use SIMD instructions when the Vector API is available.
+ * Objects created from this class provides access to:
+ * - individual dice
+ * - groups of identical dice
+ * - information of each dice and all attributes of the collection
+ * - sum of current sides facing up
+ * - sum when all sides of 1 facing up
+ * - sum when all sides of the highest value facing up
+ * - ability to roll all dice
+ * - ability to roll many sums at once without changing the dice
+ * - ability to roll all dice n times then record those rolls
+ * - ability to write every roll of every die to a compact log file
+ * - ability to roll groups of identical dice by drawing how many land on each face
+ * - ability to roll all dice n times on many threads then record those rolls
+ * - ability to reproduce a parallel run bit for bit from a seed on any number of threads
+ * - ability to roll all dice n times while watching the histogram grow, and to stop early
+ * - ability to publish the sums of n rolls to a subscriber, in batches it asks for
+ * - approximate distribution of the sum for collections too large to compute exactly
+ * - exact distribution of the sum without rolling
+ * - ability to draw sums straight from the exact distribution instead of rolling each die
+ * - ability to reproduce every roll from a seed by choosing the random generator
+ * - ability to need fewer random numbers per roll by carving many rolls out of each one
+ * - Flight Recorder events of rolls and histogram runs, and counts of them in {@link DiceMetrics}
+ *
+ * @author Manh Truong Nguyen
+ */
+public class DiceCollection {
+    /* Sides of each die of the collection */
+    private final int[] sides;
+    /* Current side facing up of each die. Index i belongs to the die with sides[i] sides */
+    private final int[] upSides;
+    /* Sum of the sides, which is the highest possible sum. Updated whenever the sides change */
+    private int maxSum;
+    /* Sum of the sides currently facing up. Updated whenever the dice are rolled */
+    private int upSideSum;
+    /* Rejection threshold of Lemire's method for each die, kept next to the sides so rolling never divides */
+    private final int[] thresholds;
+    /* Scratch space for the random values of one rollAll */
+    private final int[] randomBits;
+    /* Scratch space for the random values of rollSums, grown when a larger batch is asked for */
+    private int[] batchBits = new int[0];
+    /* Rolling and summing kernels selected for this JVM */
+    private final DiceKernels kernels = DiceKernels.get();
+    /* Pool of leftover random bits, only used with the ENTROPY_POOL strategy and null otherwise */
+    private EntropyPool entropyPool;
+    /* The random generator shared by every die of the collection */
+    private final RandomGenerator random;
+    /* How histogram and sampleSums produce sums */
+    private SamplingMode samplingMode = SamplingMode.ROLL_DICE;
+    /* Alias table of the exact sum distribution. Built on first use and dropped whenever the dice change */
+    private SumSampler sampler;
+    /* Groups of identical dice, from the fewest sides to the most. Built on first use and dropped whenever the dice change */
+    private DiceGroup[] groups;
+
+    /**
+     * Constructs the collection using a given array of sides of each die
+     * All dice share one default random generator
+     *
+     * @param sides An array of sides of each die
+     */
+    public DiceCollection(int[] sides) {
+        this(sides, RandomGenerator.getDefault());
+    }
+
+    /**
+     * Constructs the collection using a given array of sides of each die and a seeded generator
+     * of the given algorithm, so every roll can be reproduced by using the same algorithm and seed
+     *
+     * @param sides     An array of sides of each die
+     * @param algorithm The name of a random generator algorithm, e.g. "L64X128MixRandom", "SplittableRandom", "Xoroshiro128PlusPlus"
+     * @param seed      The seed of the generator
+     */
+    public DiceCollection(int[] sides, String algorithm, long seed) {
+        this(sides, createGenerator(algorithm, seed));
+    }
+
+    /**
+     * Constructs the collection using a given array of sides of each die and a random generator
+     * that is shared by every die. Rolling the collection never allocates a new generator
+     *
+     * @param sides  An array of sides of each die
+     * @param random The random generator used for every roll of every die
+     */
+    public DiceCollection(int[] sides, RandomGenerator random) {
+        this.random = random;
+        this.sides = sides.clone(); // Copy so later changes to the caller's array do not change the collection
+        upSides = new int[sides.length];
+        thresholds = new int[sides.length];
+        for (int i = 0; i < sides.length; i++) {
+            thresholds[i] = DiceKernels.rejectThreshold(sides[i]);
+            maxSum += sides[i];
+        }
+        randomBits = new int[sides.length];
+        upSideSum = kernels.roll(random, this.sides, thresholds, upSides, randomBits); // Initiate every die with a random side facing up
+    }
+
+    /**
+     * Constructs the collection from groups of identical dice, e.g. 500 dice of 6 sides and 200 dice of 10 sides.
+     * Dice of a group are stored next to each other in the order of the groups
+     *
+     * @param groups The groups of dice
+     * @param random The random generator used for every roll of every die
+     */
+    public DiceCollection(DiceGroup[] groups, RandomGenerator random) {
+        this(expandGroups(groups), random);
+    }
+
+    /**
+     * Lists the sides of every die of some groups
+     *
+     * @param groups The groups of dice
+     * @return An array of sides of each die
+     */
+    static int[] expandGroups(DiceGroup[] groups) {
+        int total = 0;
+        for (DiceGroup group : groups) total = Math.addExact(total, group.count());
+        int[] sides = new int[total];
+        int index = 0;
+        for (DiceGroup group : groups) {
+            Arrays.fill(sides, index, index + group.count(), group.sides());
+            index += group.count();
+        }
+        return sides;
+    }
+
+    /**
+     * Creates a seeded random generator from the name of its algorithm
+     *
+     * @param algorithm The name of a random generator algorithm, e.g. "L64X128MixRandom"
+     * @param seed      The seed of the generator
+     * @return The new random generator
+     * @throws IllegalArgumentException If the algorithm is not available in this JDK
+     */
+    public static RandomGenerator createGenerator(String algorithm, long seed) {
+        return RandomGeneratorFactory.of(algorithm).create(seed);
+    }
+
+    /**
+     * Get the dice collection
+     * The dice are a snapshot of the collection at the time of calling: rolling one of them
+     * does not change the collection, and rolling the collection does not change them
+     *
+     * @return The dice collection
+     */
+    public Die[] getDice() {
+        Die[] dice = new Die[sides.length];
+        for (int i = 0; i < dice.length; i++) dice[i] = new Die(sides[i], upSides[i], random);
+        return dice;
+    }
+
+    /**
+     * Get the number of dice in the collection
+     *
+     * @return The number of dice
+     */
+    public int size() {
+        return sides.length;
+    }
+
+    /**
+     * Get the current side facing up of each die
+     *
+     * @return A new array with the up side of each die in the order of the collection
+     */
+    public int[] getUpSides() {
+        return upSides.clone();
+    }
+
+    /**
+     * Group the dice by their number of sides
+     *
+     * @return One group per distinct number of sides, ordered from the fewest sides to the most
+     */
+    public DiceGroup[] getGroups() {
+        return groups().clone();
+    }
+
+    /**
+     * Get the groups of the current dice, building them if the dice changed since they were last built
+     *
+     * @return The cached groups, not to be changed
+     */
+    private DiceGroup[] groups() {
+        if (groups == null) groups = DiceGroup.group(sides);
+        return groups;
+    }
+
+    /**
+     * Get the sides of each die
+     *
+     * @return A new array with the sides of each die in the order of the collection
+     */
+    public int[] getSides() {
+        return sides.clone();
+    }
+
+    /**
+     * Change the sides of one die. The die is rolled again so it shows a valid side
+     *
+     * The collection is left unchanged when the new sides are rejected
+     *
+     * @param index The position of the die in the collection, starting from 0
+     * @param sides The new number of sides of the die
+     * @throws IllegalArgumentException If the die would have no side
+     * @throws ArithmeticException      If the highest sum would not fit in an int
+     */
+    public void setSides(int index, int sides) {
+        if (sides < 1) throw new IllegalArgumentException("A die needs at least 1 side: " + sides);
+        int newMaxSum = Math.addExact(maxSum - this.sides[index], sides); // Checked before any field changes
+        int upSide = random.nextInt(1, sides + 1);
+        maxSum = newMaxSum;
+        upSideSum += upSide - upSides[index];
+        this.sides[index] = sides;
+        thresholds[index] = DiceKernels.rejectThreshold(sides);
+        upSides[index] = upSide;
+        sampler = null; // The sums follow a different distribution now
+        groups = null;
+    }
+
+    /**
+     * Get how histogram and sampleSums produce sums
+     *
+     * @return The sampling mode
+     */
+    public SamplingMode getSamplingMode() {
+        return samplingMode;
+    }
+
+    /**
+     * Set how histogram and sampleSums produce sums
+     *
+     * @param samplingMode The sampling mode
+     */
+    public void setSamplingMode(SamplingMode samplingMode) {
+        this.samplingMode = samplingMode;
+    }
+
+    /**
+     * Get how random bits are turned into rolls
+     *
+     * @return The generation strategy
+     */
+    public GenerationStrategy getGenerationStrategy() {
+        return entropyPool == null ? GenerationStrategy.PER_ROLL : GenerationStrategy.ENTROPY_POOL;
+    }
+
+    /**
+     * Set how random bits are turned into rolls. ENTROPY_POOL needs several times fewer random
+     * numbers for dice with few sides, at the cost of rolling one die after another
+     *
+     * @param strategy The generation strategy
+     */
+    public void setGenerationStrategy(GenerationStrategy strategy) {
+        if (strategy == getGenerationStrategy()) return;
+        entropyPool = strategy == GenerationStrategy.ENTROPY_POOL ? new EntropyPool(random) : null;
+    }
+
+    /**
+     * Get the random generator shared by the dice of the collection
+     *
+     * @return The random generator
+     */
+    public RandomGenerator getRandom() {
+        return random;
+    }
+
+    /**
+     * Sum the values of sides currently facing up
+     * The sum is kept up to date by every roll, so this does not walk the dice
+     *
+     * @return The sum value
+     */
+    public int sumUpSides() {
+        return upSideSum;
+    }
+
+    /**
+     * Sum all the sides with value of 1
+     *
+     * @return The sum value
+     */
+    public int sumMinimum() {
+        return sides.length; // Every die contributes 1
+    }
+
+    /**
+     * Sum all the sides with the highest value
+     *
+     * @return The sum value
+     */
+    public int sumMaximum() {
+        return maxSum; // Kept up to date whenever the sides change
+    }
+
+    /**
+     * Roll each die once
+     */
+    public void rollAll() {
+        RollEvent event = new RollEvent();
+        event.start();
+        rollDice();
+        DiceMetrics.recordRolls(1);
+        event.finish(sides.length, 1);
+    }
+
+    /**
+     * Rolls every die once without counting the roll, for loops that count their rolls once per run
+     */
+    private void rollDice() {
+        if (entropyPool != null) {
+            int sum = 0;
+            for (int i = 0; i < sides.length; i++) sum += upSides[i] = entropyPool.roll(sides[i]);
+            upSideSum = sum;
+            return;
+        }
+        upSideSum = kernels.roll(random, sides, thresholds, upSides, randomBits);
+    }
+
+    /**
+     * Roll each die once and record the result
+     *
+     * @return An immutable record of the sum and the side facing up of each die
+     */
+    public RollResult roll() {
+        rollAll();
+        return getRollResult();
+    }
+
+    /**
+     * Record the current sides facing up
+     *
+     * @return An immutable record of the sum and the side facing up of each die
+     */
+    public RollResult getRollResult() {
+        return new RollResult(upSideSum, upSides);
+    }
+
+    /**
+     * Roll the entire collection once for every element of an array and store the sum of each roll.
+     * The rolls are made die by die across the whole batch, so large batches run on SIMD lanes.
+     * The up sides of the dice are not changed
+     *
+     * @param sums Receives the sum of each roll. Its length is the number of rolls
+     */
+    public void rollSums(int[] sums) {
+        DiceMetrics.recordRolls(sums.length);
+        if (batchBits.length < sums.length) batchBits = new int[sums.length];
+        Arrays.fill(sums, 0);
+        if (entropyPool != null) {
+            for (int side : sides)
+                for (int r = 0; r < sums.length; r++) sums[r] += entropyPool.roll(side);
+            return;
+        }
+        for (int i = 0; i < sides.length; i++)
+            kernels.addRolls(random, sides[i], thresholds[i], sums, sums.length, batchBits);
+    }
+
+    /**
+     * Roll every group of identical dice by drawing how many of its dice land on each face,
+     * which takes far fewer random numbers than rolling each die when groups are large.
+     * Only the sum is produced: the up sides of the individual dice are not changed
+     *
+     * @return The sum of all up sides of the roll
+     */
+    public long rollGroupedSum() {
+        DiceMetrics.recordRolls(1);
+        long sum = 0;
+        for (DiceGroup group : groups()) {
+            int[] faceCounts = Multinomial.faceCounts(random, group.sides(), group.count());
+            for (int face = 0; face < faceCounts.length; face++) sum += (long) (face + 1) * faceCounts[face];
+        }
+        return sum;
+    }
+
+    /**
+     * Draw how many dice of a group land on each face, without rolling each die
+     *
+     * @param group The group of identical dice
+     * @return The counts where index 0 holds how many dice show 1
+     */
+    public int[] rollFaceCounts(DiceGroup group) {
+        return Multinomial.faceCounts(random, group.sides(), group.count());
+    }
+
+    /**
+     * Give a report of all information of individual dice and the sum values
+     *
+     * @return The string of collection's information
+     */
+    @Override
+    public String toString() {
+        /* Usage of StringBuilder class is suggested by IntelliJ for better performance of string concatenation in loops */
+        StringBuilder reportBuilder = new StringBuilder();
+        for (int i = 0; i < sides.length; i++)
+            reportBuilder.append("Die ").append(i + 1).append(" has ").append(sides[i]).append(" sides - Current up side: ").append(upSides[i]).append("\n");
+        String report = reportBuilder.toString();
+        report += "\n" + "Min sum of roll: " + sumMinimum();
+        report += "\n" + "Max sum of roll: " + sumMaximum();
+        report += "\n" + "Sum of current roll: " + sumUpSides();
+        return report;
+    }
+
+    /**
+     * Rolls the entire collection n times while tracking each roll
+     * In DIRECT_SUM mode the sums are drawn from the exact distribution and the dice are left as they are
+     *
+     * @param rolls How many times to roll the dice in the collection
+     * @return A histogram that tracks the up side sums of rolls
+     */
+    public SumHistogram histogram(long rolls) {
+        HistogramEvent event = new HistogramEvent("serial");
+        event.start();
+        /* Only the sums between min and max sum are possible, so only those need to be tracked */
+        SumHistogram tracker = new SumHistogram(sumMinimum(), sumMaximum());
+        if (samplingMode == SamplingMode.DIRECT_SUM) {
+            SumSampler directSampler = getSampler();
+            for (long i = 0; i < rolls; i++) tracker.add(directSampler.sample(random));
+        } else {
+            for (long i = 0; i < rolls; i++) {
+                rollDice();
+                tracker.add(upSideSum); // Count the sum value of sides facing up in the histogram
+            }
+        }
+        finishHistogram(event, rolls);
+        return tracker;
+    }
+
+    /**
+     * Counts a finished histogram run and commits its event
+     *
+     * @param event The event of the run
+     * @param rolls How many times the collection was rolled by the run
+     */
+    void finishHistogram(HistogramEvent event, long rolls) {
+        DiceMetrics.recordHistogram(rolls);
+        event.finish(sides.length, rolls);
+    }
+
+    /**
+     * Rolls the entire collection n times while tracking each roll in a histogram and in statistics
+     * In DIRECT_SUM mode the sums are drawn from the exact distribution and the dice are left as they are
+     *
+     * @param rolls      How many times to roll the dice in the collection
+     * @param statistics The statistics every sum is also added to
+     * @return A histogram that tracks the up side sums of rolls
+     */
+    public SumHistogram histogram(long rolls, RollStatistics statistics) {
+        HistogramEvent event = new HistogramEvent("serial");
+        event.start();
+        SumHistogram tracker = new SumHistogram(sumMinimum(), sumMaximum());
+        for (long i = 0; i < rolls; i++) {
+            int sum = nextSum();
+            tracker.add(sum);
+            statistics.add(sum);
+        }
+        finishHistogram(event, rolls);
+        return tracker;
+    }
+
+    /**
+     * Rolls the entire collection n times and keeps only statistics of the sums, in constant memory.
+     * The statistics are tested against the exact distribution of the collection, which shows whether
+     * the random generator behaves without storing any roll
+     * In DIRECT_SUM mode the sums are drawn from the exact distribution and the dice are left as they are
+     *
+     * @param rolls How many times to roll the dice in the collection
+     * @return The statistics of the sums
+     */
+    public RollStatistics statistics(long rolls) {
+        HistogramEvent event = new HistogramEvent("serial");
+        event.start();
+        RollStatistics statistics = new RollStatistics(exactDistribution());
+        for (long i = 0; i < rolls; i++) statistics.add(nextSum());
+        finishHistogram(event, rolls);
+        return statistics;
+    }
+
+    /**
+     * Rolls the entire collection n times and writes the up side of every die of every roll to a log.
+     * The dice are always rolled one by one, whatever the sampling mode, since the log keeps each die
+     *
+     * @param rolls How many times to roll the dice in the collection
+     * @param log   The log to write to, created for the sides of this collection
+     * @throws IOException If the log cannot be written
+     */
+    public void record(long rolls, RollLogWriter log) throws IOException {
+        for (long i = 0; i < rolls; i++) {
+            rollDice();
+            log.write(upSides);
+        }
+        DiceMetrics.recordRolls(rolls);
+    }
+
+    /**
+     * Produces the sums of n rolls of the entire collection, one sum at a time as the stream is consumed.
+     * In ROLL_DICE mode every sum comes from rolling all dice, in DIRECT_SUM mode every sum is drawn
+     * from the exact distribution and the dice are left as they are
+     *
+     * @param n How many sums to produce
+     * @return A sequential stream of sums
+     */
+    public IntStream sampleSums(long n) {
+        if (samplingMode == SamplingMode.DIRECT_SUM) {
+            SumSampler directSampler = getSampler();
+            return IntStream.generate(() -> {
+                DiceMetrics.recordRolls(1);
+                return directSampler.sample(random);
+            }).limit(n);
+        }
+        return IntStream.generate(() -> {
+            rollAll();
+            return sumUpSides();
+        }).limit(n);
+    }
+
+    /**
+     * Prepares a histogram run that keeps counting into a live histogram and publishes read-only
+     * snapshots with progress at a given interval. The run can be cancelled from any thread.
+     * Nothing is rolled until run is called on the returned object, directly or through an executor
+     *
+     * @param rolls            How many times to roll the dice in the collection
+     * @param snapshotInterval Minimum time between 2 published snapshots
+     * @param listener         Called with every snapshot on the thread that runs the histogram, may be null
+     * @return The run, not started yet
+     */
+    public HistogramRun streamHistogram(long rolls, Duration snapshotInterval, Consumer<HistogramRun.Snapshot> listener) {
+        return new HistogramRun(this, rolls, snapshotInterval, listener);
+    }
+
+    /**
+     * Prepares a publisher of the sums of n rolls, in batches that the subscriber asks for.
+     * In DIRECT_SUM mode the sums are drawn from the exact distribution and the dice are left as they are.
+     * Nothing is rolled until the subscriber requests batches, and the collection should not be rolled by
+     * anything else while the sums are published
+     *
+     * @param rolls    How many times to roll the dice in the collection
+     * @param executor Where the rolling and the signals to the subscriber run
+     * @return The publisher, for one subscriber
+     */
+    public SumPublisher publishSums(long rolls, Executor executor) {
+        return new SumPublisher(this::nextSum, rolls, executor);
+    }
+
+    /**
+     * Produces the sum of one roll in the current sampling mode
+     *
+     * @return The sum of all up sides
+     */
+    int nextSum() {
+        if (samplingMode == SamplingMode.DIRECT_SUM) return getSampler().sample(random);
+        rollDice();
+        return upSideSum;
+    }
+
+    /**
+     * Get the alias table of the current dice, building it if the dice changed since it was last built
+     *
+     * @return The sampler of sums
+     */
+    private SumSampler getSampler() {
+        if (sampler == null) sampler = new SumSampler(exactDistribution());
+        return sampler;
+    }
+
+    /**
+     * Rolls the entire collection n times on a fork-join pool while tracking each roll.
+     * Each worker rolls with its own random stream split off the collection's generator and counts
+     * into its own histogram. The histograms are merged at the end.
+     * The sampling mode and generation strategy of the collection are followed: with DIRECT_SUM every sum
+     * is drawn from the exact distribution, and with ENTROPY_POOL each worker carves its rolls out of a
+     * pool of its own. The dice of the collection are not changed by this method
+     *
+     * @param rolls       How many times to roll the dice in the collection
+     * @param parallelism How many threads to roll on, at least 1
+     * @return A histogram that tracks the up side sums of rolls
+     */
+    public SumHistogram histogramParallel(long rolls, int parallelism) {
+        if (rolls < 0) throw new IllegalArgumentException("Rolls must not be negative: " + rolls);
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        /* Split the rolls into a few tasks per thread so idle threads can steal work from busy ones */
+        long threshold = Math.max(1, rolls / (parallelism * 8L));
+        SumSampler directSums = samplingMode == SamplingMode.DIRECT_SUM ? getSampler() : null;
+        ParallelHistogram task = new ParallelHistogram(DiceGroup.runs(sides), sumMinimum(), sumMaximum(), rolls, threshold,
+                splitGenerator(random), directSums, entropyPool != null);
+        return invoke(task, parallelism, new HistogramEvent("parallel"), sides.length, rolls);
+    }
+
+    /**
+     * Rolls the entire collection n times on a fork-join pool with a result that only depends on the seed.
+     * The rolls are cut into fixed-size blocks and every block rolls with a generator derived from the
+     * seed and its index, so the histogram is the same bit for bit whatever the parallelism.
+     * The collection's own generator, generation strategy and sampling mode are not used, and the dice
+     * of the collection are not changed by this method
+     *
+     * @param rolls       How many times to roll the dice in the collection
+     * @param seed        The seed the whole run is derived from
+     * @param parallelism How many threads to roll on, at least 1
+     * @return A histogram that tracks the up side sums of rolls
+     */
+    public SumHistogram histogramPartitioned(long rolls, long seed, int parallelism) {
+        return histogramPartitioned(rolls, seed, 0, partitionBlocks(rolls), parallelism);
+    }
+
+    /**
+     * Rolls a range of the blocks of a partitioned run, see {@link #histogramPartitioned(long, long, int)}.
+     * A block always rolls the same sums for the same seed, so the histograms of disjoint ranges that
+     * cover every block merge into the histogram of the whole run, wherever each range was rolled
+     *
+     * @param rolls       How many times the whole run rolls the dice in the collection
+     * @param seed        The seed the whole run is derived from
+     * @param firstBlock  The first block to roll
+     * @param endBlock    The block after the last block to roll, at most {@link #partitionBlocks(long)}
+     * @param parallelism How many threads to roll on, at least 1
+     * @return A histogram that tracks the up side sums of the rolls of the blocks
+     */
+    public SumHistogram histogramPartitioned(long rolls, long seed, long firstBlock, long endBlock, int parallelism) {
+        if (rolls < 0) throw new IllegalArgumentException("Rolls must not be negative: " + rolls);
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        if (firstBlock < 0 || endBlock < firstBlock || endBlock > partitionBlocks(rolls))
+            throw new IllegalArgumentException("Blocks " + firstBlock + " to " + endBlock + " are not blocks of " + rolls + " rolls");
+
+        /* Give each thread a few tasks so idle threads can steal work from busy ones. This only changes the schedule */
+        long threshold = Math.max(1, (endBlock - firstBlock) / (parallelism * 8L));
+        PartitionedHistogram task = new PartitionedHistogram(DiceGroup.runs(sides), sumMinimum(), sumMaximum(),
+                rolls, seed, firstBlock, endBlock, threshold);
+        return invoke(task, parallelism, new HistogramEvent("partitioned"), sides.length, PartitionedHistogram.rolls(rolls, firstBlock, endBlock));
+    }
+
+    /**
+     * Gives how many blocks a partitioned run is cut into
+     *
+     * @param rolls How many times the run rolls the collection
+     * @return The number of blocks, the last of which may be partial
+     */
+    public static long partitionBlocks(long rolls) {
+        return PartitionedHistogram.blocks(rolls);
+    }
+
+    /**
+     * Runs a histogram task on a new fork-join pool and counts the run
+     *
+     * @param task        The task that rolls every roll of the run
+     * @param parallelism How many threads to roll on
+     * @param event       The event of the run
+     * @param dice        How many dice the collection has
+     * @param rolls       How many times the task rolls the collection
+     * @return The histogram of the task
+     */
+    static SumHistogram invoke(RecursiveTask<SumHistogram> task, int parallelism, HistogramEvent event, int dice, long rolls) {
+        event.start();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            SumHistogram tracker = pool.invoke(task);
+            DiceMetrics.recordHistogram(rolls);
+            event.finish(dice, rolls);
+            return tracker;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates a new random stream for the workers of a parallel run.
+     * It is split off the collection's generator when that generator can be split, otherwise it is
+     * seeded from the collection's generator so seeded collections still give reproducible streams
+     *
+     * @param random The generator of the collection
+     * @return A splittable random generator
+     */
+    static SplittableGenerator splitGenerator(RandomGenerator random) {
+        if (random instanceof SplittableGenerator splittable) return splittable.split();
+        return RandomGeneratorFactory.<SplittableGenerator>of("L64X128MixRandom").create(random.nextLong());
+    }
+
+    /**
+     * Counts exactly how many combinations of up sides add up to each possible sum, without rolling.
+     * Dividing a count by the product of all sides gives the probability of the sum
+     *
+     * @return The counts where index 0 holds the count of sumMinimum() and the last index holds the count of sumMaximum()
+     * @throws ArithmeticException If a count does not fit in a long. Use exactDistribution() for such collections
+     */
+    public long[] exactCounts() {
+        return Convolution.counts(sides);
+    }
+
+    /**
+     * Computes the exact probability of every possible sum, without rolling.
+     * Collections with many dice or many sides are convolved with an FFT.
+     * Distributions are shared through {@link DistributionCache#shared()}, so any collection with the
+     * same sides in any order reuses the result
+     *
+     * @return The distribution of the sum of all up sides
+     */
+    public SumDistribution exactDistribution() {
+        return DistributionCache.shared().exactDistribution(sides);
+    }
+
+    /**
+     * Approximates the distribution of the sum from the sides of each die, in one pass over the dice.
+     * Collections with at most {@link SumApproximation#DEFAULT_EXACT_LIMIT} possible sums get their exact
+     * distribution instead
+     *
+     * @return The approximate distribution of the sum of all up sides, with a bound of its error
+     */
+    public SumApproximation approximateDistribution() {
+        return approximateDistribution(SumApproximation.DEFAULT_EXACT_LIMIT);
+    }
+
+    /**
+     * Approximates the distribution of the sum from the sides of each die, in one pass over the dice.
+     * Collections with at most exactLimit possible sums get their exact distribution instead
+     *
+     * @param exactLimit The most possible sums for which the exact distribution is computed, 0 to always approximate
+     * @return The approximate distribution of the sum of all up sides, with a bound of its error
+     */
+    public SumApproximation approximateDistribution(long exactLimit) {
+        return new SumApproximation(sides, exactLimit);
+    }
+}
@@ -0,0 +1,55 @@
+package com.dice.collection;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the JDK Flight Recorder events of the dice engine: how many dice were rolled how many times,
+ * and how fast. The JIT removes an event entirely while no recording has it enabled, so an event
+ * that is created, started and finished around every roll costs nothing outside of a recording.
+ */
+@Category("Dice Collection")
+@StackTrace(false)
+abstract class DiceEvent extends Event {
+    @Label("Dice")
+    int dice;
+
+    @Label("Rolls")
+    long rolls;
+
+    @Label("Rolls per Second")
+    @Frequency
+    double rollsPerSecond;
+
+    /* When the event started, to compute the rate. Not recorded */
+    private transient long startNanos;
+
+    /**
+     * Starts timing the event, if a recording has it enabled
+     */
+    void start() {
+        if (!isEnabled()) return;
+        startNanos = System.nanoTime();
+        begin();
+    }
+
+    /**
+     * Stops timing the event and commits it, if it is enabled and lasted longer than its threshold
+     *
+     * @param dice  How many dice the collection has
+     * @param rolls How many times the collection was rolled
+     */
+    void finish(int dice, long rolls) {
+        if (!isEnabled()) return;
+        end();
+        if (!shouldCommit()) return;
+        long nanos = System.nanoTime() - startNanos;
+        this.dice = dice;
+        this.rolls = rolls;
+        rollsPerSecond = nanos > 0 ? rolls * 1e9 / nanos : 0;
+        commit();
+    }
+}
@@ -0,0 +1,81 @@
+package com.dice.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A group of identical dice, e.g. 500 dice with 6 sides each
+ *
+ * @param sides The sides each die of the group has
+ * @param count How many dice are in the group
+ */
+public record DiceGroup(int sides, int count) {
+
+    /**
+     * Reads groups of dice written as terms separated by commas, each either the sides of one die,
+     * e.g. "20", or a count and sides, e.g. "3d6". "3d6,1d20,8" is 3 dice with 6 sides, 1 with 20 and 1 with 8
+     *
+     * @param spec The groups of dice
+     * @return The groups in the order they are written
+     * @throws IllegalArgumentException If a term is not a positive count and positive sides
+     */
+    public static DiceGroup[] parse(String spec) {
+        if (spec == null || spec.isBlank()) throw new IllegalArgumentException("Missing dice, e.g. 3d6,1d20");
+        List<DiceGroup> groups = new ArrayList<>();
+        for (String term : spec.split(",")) {
+            term = term.trim().toLowerCase();
+            int d = term.indexOf('d');
+            int count = d < 0 ? 1 : parsePositive(term.substring(0, d), term);
+            int sides = parsePositive(d < 0 ? term : term.substring(d + 1), term);
+            groups.add(new DiceGroup(sides, count));
+        }
+        return groups.toArray(new DiceGroup[0]);
+    }
+
+    /**
+     * Groups dice by their number of sides
+     *
+     * @param sides Sides of each die, in any order
+     * @return One group per distinct number of sides, ordered from the fewest sides to the most
+     */
+    static DiceGroup[] group(int[] sides) {
+        int[] sorted = sides.clone();
+        Arrays.sort(sorted);
+        return runs(sorted);
+    }
+
+    /**
+     * Groups consecutive dice with the same sides, keeping the order of the dice. Rolling the runs one
+     * after another, each die of a run in turn, rolls the dice in their own order
+     *
+     * @param sides Sides of each die
+     * @return One group per run of identical dice, in the order of the dice
+     */
+    static DiceGroup[] runs(int[] sides) {
+        List<DiceGroup> runs = new ArrayList<>();
+        for (int i = 0; i < sides.length; ) {
+            int start = i;
+            while (i < sides.length && sides[i] == sides[start]) i++;
+            runs.add(new DiceGroup(sides[start], i - start));
+        }
+        return runs.toArray(new DiceGroup[0]);
+    }
+
+    /**
+     * Reads a positive number of a term
+     *
+     * @param number The number
+     * @param term   The term it belongs to, for the error message
+     * @return The number
+     */
+    private static int parsePositive(String number, String term) {
+        try {
+            int value = Integer.parseInt(number);
+            if (value > 0) return value;
+        } catch (NumberFormatException ignored) {
+            // Reported below like any other invalid term
+        }
+        throw new IllegalArgumentException("Invalid dice: " + term);
+    }
+}
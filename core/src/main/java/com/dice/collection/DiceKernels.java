@@ -0,0 +1,140 @@
+package com.dice.collection;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Batch kernels that roll and sum dice stored as primitive arrays.
+ * Bounded random values are made with Lemire's multiply-shift method: a 32-bit random value x
+ * becomes (x * sides) >>> 32, and the rare values that would make some sides more likely than
+ * others are rejected and drawn again.
+ * <p>
+ * Every implementation consumes random values in the same order and rejects the same values,
+ * so a seeded collection rolls the same sides whichever implementation is selected:
+ * - the random values of a whole batch are drawn first, 2 per call to nextLong
+ * - every value of the batch is mapped, rejected values are marked with 0
+ * - rejected values are drawn again one by one in index order
+ * <p>
+ * {@link #get()} selects the Vector API implementation when the jdk.incubator.vector module is
+ * available (run with --add-modules jdk.incubator.vector) and the scalar one otherwise.
+ * Setting the system property dice.kernels to "scalar" forces the scalar implementation.
+ */
+interface DiceKernels {
+
+    /**
+     * Gives the kernels selected for this JVM
+     *
+     * @return The Vector API kernels if available, otherwise the scalar kernels
+     */
+    static DiceKernels get() {
+        return Selected.KERNELS;
+    }
+
+    /**
+     * Rolls every die once
+     *
+     * @param random     The random generator
+     * @param sides      Sides of each die
+     * @param thresholds Rejection threshold of each die, see {@link #rejectThreshold(int)}
+     * @param upSides    Receives the side facing up of each die
+     * @param bits       Scratch space for random values, at least as long as sides
+     * @return The sum of all sides facing up
+     */
+    int roll(RandomGenerator random, int[] sides, int[] thresholds, int[] upSides, int[] bits);
+
+    /**
+     * Rolls one die many times and adds each roll to a different sum
+     *
+     * @param random    The random generator
+     * @param sides     Sides of the die
+     * @param threshold Rejection threshold of the die, see {@link #rejectThreshold(int)}
+     * @param sums      Sums where roll r is added to sums[r]
+     * @param count     How many rolls to add
+     * @param bits      Scratch space for random values, at least count long
+     */
+    void addRolls(RandomGenerator random, int sides, int threshold, int[] sums, int count, int[] bits);
+
+    /**
+     * Gives the threshold below which the low half of x * sides means x must be drawn again,
+     * which is 2^32 mod sides
+     *
+     * @param sides Sides of the die
+     * @return The rejection threshold
+     */
+    static int rejectThreshold(int sides) {
+        return Integer.remainderUnsigned(-sides, sides);
+    }
+
+    /**
+     * Fills a batch with 32-bit random values, 2 per call to nextLong
+     *
+     * @param random The random generator
+     * @param bits   Receives the random values
+     * @param count  How many values to draw
+     */
+    static void fillRandom(RandomGenerator random, int[] bits, int count) {
+        int i = 0;
+        for (; i + 1 < count; i += 2) {
+            long value = random.nextLong();
+            bits[i] = (int) value;
+            bits[i + 1] = (int) (value >>> 32);
+        }
+        if (i < count) bits[i] = random.nextInt();
+    }
+
+    /**
+     * Maps one 32-bit random value to a side with Lemire's method
+     *
+     * @param bits      The random value
+     * @param sides     Sides of the die
+     * @param threshold Rejection threshold of the die
+     * @return The side from 1 to sides, or 0 when the value is rejected
+     */
+    static int bounded(int bits, int sides, int threshold) {
+        long product = Integer.toUnsignedLong(bits) * sides;
+        if ((product & 0xFFFFFFFFL) < threshold) return 0;
+        return (int) (product >>> 32) + 1;
+    }
+
+    /**
+     * Draws one side again and again until a value is not rejected
+     *
+     * @param random    The random generator
+     * @param sides     Sides of the die
+     * @param threshold Rejection threshold of the die
+     * @return The side from 1 to sides
+     */
+    static int redraw(RandomGenerator random, int sides, int threshold) {
+        int side;
+        do side = bounded(random.nextInt(), sides, threshold); while (side == 0);
+        return side;
+    }
+
+    /**
+     * Holder of the selected kernels, initialized on first use
+     */
+    final class Selected {
+        /* The kernels used by every collection of this JVM */
+        static final DiceKernels KERNELS = select();
+
+        /**
+         * No instances
+         */
+        private Selected() {
+        }
+
+        /**
+         * Selects the Vector API kernels when the incubator module is present and works
+         *
+         * @return The selected kernels
+         */
+        private static DiceKernels select() {
+            if ("scalar".equalsIgnoreCase(System.getProperty("dice.kernels"))) return new ScalarDiceKernels();
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return new ScalarDiceKernels();
+            try {
+                return (DiceKernels) Class.forName("com.dice.collection.VectorDiceKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError exception) {
+                return new ScalarDiceKernels();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.dice.collection;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of counters of the work done by every collection of dice in this JVM.
+ * Counters are striped LongAdders, so threads that roll at the same time do not fight over one
+ * cache line. Counting is off unless it is turned on with {@link #setEnabled(boolean)} or by
+ * starting the JVM with -Ddice.metrics=true; while it is off, recording costs one field read.
+ * Histograms add their rolls once per run rather than once per roll.
+ * Objects of this class are not created, it provides access to:
+ * - ability to turn counting on and off
+ * - total rolls of all collections
+ * - total histogram runs of all collections
+ */
+public final class DiceMetrics {
+    /* Whether counters are updated */
+    private static volatile boolean enabled = Boolean.getBoolean("dice.metrics");
+    /* Rolls of a whole collection, made one by one, in batches or in histograms */
+    private static final LongAdder ROLLS = new LongAdder();
+    /* Histograms rolled, serial, parallel or streamed */
+    private static final LongAdder HISTOGRAM_RUNS = new LongAdder();
+
+    /**
+     * No instances, only static counters
+     */
+    private DiceMetrics() {
+    }
+
+    /**
+     * Give whether counters are updated
+     *
+     * @return True if counting is on
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns counting on or off. The counters keep their values while counting is off
+     *
+     * @param enabled True to count
+     */
+    public static void setEnabled(boolean enabled) {
+        DiceMetrics.enabled = enabled;
+    }
+
+    /**
+     * Counts rolls of a collection made outside of a histogram
+     *
+     * @param rolls How many times the collection was rolled
+     */
+    static void recordRolls(long rolls) {
+        if (enabled) ROLLS.add(rolls);
+    }
+
+    /**
+     * Counts one histogram run and its rolls
+     *
+     * @param rolls How many times the collection was rolled by the run
+     */
+    static void recordHistogram(long rolls) {
+        if (!enabled) return;
+        HISTOGRAM_RUNS.increment();
+        ROLLS.add(rolls);
+    }
+
+    /**
+     * Give the current values of the counters. Rolls counted while the snapshot is taken may be missed
+     *
+     * @return The values of the counters
+     */
+    public static Snapshot snapshot() {
+        return new Snapshot(ROLLS.sum(), HISTOGRAM_RUNS.sum());
+    }
+
+    /**
+     * Sets every counter back to 0
+     */
+    public static void reset() {
+        ROLLS.reset();
+        HISTOGRAM_RUNS.reset();
+    }
+
+    /**
+     * Values of the counters at one moment
+     *
+     * @param rolls         Rolls of a whole collection
+     * @param histogramRuns Histograms rolled
+     */
+    public record Snapshot(long rolls, long histogramRuns) {
+        /**
+         * Give a report of the counters
+         *
+         * @return The counters, one per line
+         */
+        @Override
+        public String toString() {
+            return String.format("Total rolls: %,d%nHistogram runs: %,d", rolls, histogramRuns);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.dice.collection;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Blueprint for a die.
+ * Objects created from this class has access to:
+ * - its sides
+ * - current side facing up
+ * - the random generator used to roll it
+ *
+ * @author Manh Truong Nguyen
+ */
+public class Die {
+    /* Total sides of the die object */
+    private final int sides;
+    /* Current side facing up */
+    private int upSide;
+    /* Source of randomness for every roll. Kept for the lifetime of the die so rolling allocates nothing */
+    private final RandomGenerator random;
+
+    /**
+     * Constructs a die based on a given number of sides
+     * The die gets its own default random generator
+     *
+     * @param sides The sides the die has
+     */
+    public Die(int sides) {
+        this(sides, RandomGenerator.getDefault());
+    }
+
+    /**
+     * Constructs a die based on a given number of sides and a random generator.
+     * Dice of the same collection may share one generator as long as they are rolled from one thread
+     *
+     * @param sides  The sides the die has
+     * @param random The random generator used for every roll of the die
+     */
+    public Die(int sides, RandomGenerator random) {
+        this.sides = sides;
+        this.random = random;
+        upSide = random.nextInt(1, sides + 1); // Initiate with a random side facing up
+    }
+
+    /**
+     * Constructs a die that already shows a given side, used for snapshots of a collection
+     *
+     * @param sides  The sides the die has
+     * @param upSide The side currently facing up
+     * @param random The random generator used for every roll of the die
+     */
+    Die(int sides, int upSide, RandomGenerator random) {
+        this.sides = sides;
+        this.upSide = upSide;
+        this.random = random;
+    }
+
+    /**
+     * Give access to the sides of die
+     *
+     * @return The sides of die
+     */
+    public int getSides() {
+        return sides;
+    }
+
+    /**
+     * Give access to the side of die facing up
+     *
+     * @return The value of the side facing up
+     */
+    public int getUpSide() {
+        return upSide;
+    }
+
+    /**
+     * Give access to the random generator of die
+     *
+     * @return The random generator used for rolling
+     */
+    public RandomGenerator getRandom() {
+        return random;
+    }
+
+    /**
+     * Roll the die once
+     */
+    public void roll() {
+        upSide = random.nextInt(1, sides + 1);
+    }
+
+    /**
+     * Give information of how many sides the die has and its current side facing up
+     *
+     * @return The information of die
+     */
+    @Override
+    public String toString() {
+        return "has " + sides + " sides - Current up side: " + upSide;
+    }
+}
@@ -0,0 +1,335 @@
+package com.dice.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Blueprint for a cache of sum distributions shared by every collection of dice.
+ * The sum of a collection does not depend on the order of its dice, so entries are keyed by how many
+ * dice have each number of sides: {6, 6, 10}, {10, 6, 6} and the groups 2d6 and 1d10 share one entry. The cache holds exact distributions and
+ * read-only sampled histograms, each with an estimate of its size in bytes, key included. When the total
+ * size goes over the limit, the least recently used entries are evicted.
+ * <p>
+ * Every method is safe to call from many threads. Lookups take no lock: a hit only stamps its entry with
+ * the clock, which moves on with each added entry, so recency is known to the nearest addition. Adding
+ * and evicting entries are serialized, and a distribution that is not cached yet is computed outside of
+ * the lock, so a slow computation never blocks readers.
+ * Objects created from this class provides access to:
+ * - cached exact distributions, computed on a miss
+ * - cached sampled histograms
+ * - hit, miss and eviction counters
+ */
+public final class DistributionCache {
+    /* Default limit of the shared cache */
+    private static final long DEFAULT_MAX_BYTES = 64L << 20;
+    /* The cache used by every collection of this JVM */
+    private static final DistributionCache SHARED = new DistributionCache(DEFAULT_MAX_BYTES);
+
+    /* Every cached entry */
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    /* Serializes adding and evicting entries */
+    private final Object lock = new Object();
+    /* Stamp given to entries when used, advanced each time an entry is added */
+    private final AtomicLong clock = new AtomicLong();
+    /* Limit of the estimated size of all entries */
+    private final long maxBytes;
+    /* Estimated size of all entries, keys included. Guarded by lock */
+    private long bytes;
+    /* How many lookups found an entry */
+    private final LongAdder hits = new LongAdder();
+    /* How many lookups did not find an entry */
+    private final LongAdder misses = new LongAdder();
+    /* How many entries were removed to stay under the limit */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs an empty cache
+     *
+     * @param maxBytes Limit of the estimated size of all entries
+     */
+    public DistributionCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Give access to the cache shared by every collection of this JVM
+     *
+     * @return The shared cache
+     */
+    public static DistributionCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gives the exact distribution of the sum of some dice, computing and caching it on a miss
+     *
+     * @param sides Sides of each die, in any order
+     * @return The exact distribution
+     */
+    public SumDistribution exactDistribution(int[] sides) {
+        return exactDistribution(DiceGroup.group(sides));
+    }
+
+    /**
+     * Gives the exact distribution of the sum of groups of identical dice, computing and caching it on a miss.
+     * The dice are never listed one by one, so this suits collections of millions of dice
+     *
+     * @param groups The groups of dice, in any order
+     * @return The exact distribution
+     */
+    public SumDistribution exactDistribution(DiceGroup[] groups) {
+        Key key = new Key(groups, 0);
+        Object cached = get(key);
+        if (cached != null) return (SumDistribution) cached;
+
+        int dice = 0;
+        for (DiceGroup group : groups) dice = Math.addExact(dice, group.count());
+        SumDistribution distribution = new SumDistribution(dice, Convolution.probabilities(groups));
+        return (SumDistribution) put(key, distribution, distribution.estimatedBytes());
+    }
+
+    /**
+     * Gives a histogram of rolling some dice a given number of times, if one has been cached
+     *
+     * @param sides Sides of each die, in any order
+     * @param rolls How many times the dice were rolled
+     * @return The read-only histogram, or null on a miss
+     */
+    public SumHistogram sampledHistogram(int[] sides, long rolls) {
+        return (SumHistogram) get(new Key(DiceGroup.group(sides), rolls));
+    }
+
+    /**
+     * Caches a histogram of rolling some dice a given number of times
+     *
+     * @param sides     Sides of each die, in any order
+     * @param rolls     How many times the dice were rolled, at least 1
+     * @param histogram The histogram. A read-only snapshot of it is cached
+     */
+    public void putSampledHistogram(int[] sides, long rolls, SumHistogram histogram) {
+        if (rolls <= 0) throw new IllegalArgumentException("Rolls must be positive: " + rolls);
+        SumHistogram snapshot = histogram.isReadOnly() ? histogram : histogram.snapshot();
+        put(new Key(DiceGroup.group(sides), rolls), snapshot, snapshot.estimatedBytes());
+    }
+
+    /**
+     * Looks up an entry and counts the hit or miss
+     *
+     * @param key The key of the entry
+     * @return The cached value or null
+     */
+    private Object get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        entry.touch(clock.get());
+        return entry.value;
+    }
+
+    /**
+     * Adds an entry unless another thread added one for the same key first, then evicts the least
+     * recently used entries until the cache is under its limit again
+     *
+     * @param key   The key of the entry
+     * @param value The value to cache
+     * @param size  Estimated size of the value in bytes, without the key
+     * @return The value that is cached for the key
+     */
+    private Object put(Key key, Object value, long size) {
+        synchronized (lock) {
+            Entry added = new Entry(value, size + key.estimatedBytes(), clock.getAndIncrement()); // Later lookups stamp newer
+            Entry existing = entries.putIfAbsent(key, added);
+            if (existing != null) return existing.value;
+            bytes += added.size;
+            if (bytes > maxBytes) evict(key);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the least recently used entries until the cache is under its limit. Entries used since the
+     * same addition count as equally recent. Called with the lock held
+     *
+     * @param added The key of the entry just added, never evicted even when it alone is over the limit
+     */
+    private void evict(Key added) {
+        List<Map.Entry<Key, Entry>> candidates = new ArrayList<>(entries.size());
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            if (!entry.getKey().equals(added)) candidates.add(entry);
+        }
+        candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+        for (Map.Entry<Key, Entry> candidate : candidates) {
+            if (bytes <= maxBytes) break;
+            entries.remove(candidate.getKey());
+            bytes -= candidate.getValue().size;
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes every entry. The counters are kept
+     */
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Give the number of cached entries
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Give the estimated size of all entries, keys included
+     *
+     * @return The size in bytes
+     */
+    public long estimatedBytes() {
+        synchronized (lock) {
+            return bytes;
+        }
+    }
+
+    /**
+     * Give how many lookups found an entry
+     *
+     * @return The number of hits
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Give how many lookups did not find an entry
+     *
+     * @return The number of misses
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Give how many entries were removed to stay under the limit
+     *
+     * @return The number of evictions
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Give a report of the counters
+     *
+     * @return The hits, misses, evictions, entries and size
+     */
+    @Override
+    public String toString() {
+        return "Distribution cache: " + hits() + " hits, " + misses() + " misses, " + evictions() + " evictions, "
+                + size() + " entries, " + estimatedBytes() + " bytes";
+    }
+
+    /**
+     * A cached value with its estimated size and when it was last used
+     */
+    private static final class Entry {
+        /* The distribution or histogram */
+        private final Object value;
+        /* Estimated size of the value and its key in bytes */
+        private final long size;
+        /* Clock stamp of the last lookup or of the addition */
+        private volatile long lastUsed;
+
+        /**
+         * Constructs an entry
+         *
+         * @param value The distribution or histogram
+         * @param size  Estimated size of the value and its key in bytes
+         * @param now   The clock stamp of the addition
+         */
+        Entry(Object value, long size, long now) {
+            this.value = value;
+            this.size = size;
+            lastUsed = now;
+        }
+
+        /**
+         * Marks the entry as used. Hot entries are stamped once per clock tick, not on every lookup
+         *
+         * @param now The clock stamp
+         */
+        void touch(long now) {
+            if (lastUsed != now) lastUsed = now;
+        }
+    }
+
+    /**
+     * Key of an entry: how many dice have each number of sides, and the number of rolls, 0 for exact distributions
+     */
+    private static final class Key {
+        /* Sides then count of each group, from the fewest sides to the most, one group per number of sides */
+        private final int[] groups;
+        /* How many rolls a sampled histogram was made of, 0 for an exact distribution */
+        private final long rolls;
+        /* Hash computed once since keys are looked up often */
+        private final int hash;
+
+        /**
+         * Constructs a key
+         *
+         * @param groups The groups of dice, in any order. Groups with the same sides are counted together
+         * @param rolls  How many rolls, 0 for an exact distribution
+         */
+        Key(DiceGroup[] groups, long rolls) {
+            DiceGroup[] sorted = groups.clone();
+            Arrays.sort(sorted, Comparator.comparingInt(DiceGroup::sides));
+            int[] pairs = new int[2 * sorted.length];
+            int length = 0;
+            for (DiceGroup group : sorted) {
+                if (group.count() == 0) continue;
+                if (length > 0 && pairs[length - 2] == group.sides()) {
+                    pairs[length - 1] = Math.addExact(pairs[length - 1], group.count());
+                } else {
+                    pairs[length++] = group.sides();
+                    pairs[length++] = group.count();
+                }
+            }
+            this.groups = Arrays.copyOf(pairs, length);
+            this.rolls = rolls;
+            hash = 31 * Arrays.hashCode(this.groups) + Long.hashCode(rolls);
+        }
+
+        /**
+         * Give an estimate of the memory used by the key and its map node
+         *
+         * @return The estimated size in bytes
+         */
+        long estimatedBytes() {
+            return 96 + 4L * groups.length;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && rolls == key.rolls && Arrays.equals(groups, key.groups);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.dice.collection;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Carves many unbiased die rolls out of each 64-bit random value.
+ * The pool holds a value that is uniform between 0 and a range. Rolling a die with n sides splits
+ * the value into a roll (value mod n) and a leftover (value / n) that is still uniform over a range
+ * n times smaller, so the leftover entropy is carried to the next roll instead of being thrown away.
+ * When the value falls in the incomplete last block of the range it cannot give an unbiased roll;
+ * it is then kept as a smaller uniform value and the roll is tried again (rejection sampling).
+ * The pool is refilled 32 bits at a time, 2 refills per call to nextLong, whenever the range gets
+ * below 2^31.
+ * <p>
+ * A d6 takes about 2.6 bits, so one 64-bit random value gives about 24 rolls of a d6 instead of 1.
+ */
+final class EntropyPool {
+    /* Refill when the range gets below this, so the range never overflows after shifting in 32 bits */
+    private static final long REFILL_BELOW = 1L << 31;
+
+    /* The generator the random bits come from */
+    private final RandomGenerator random;
+    /* Uniform random value between 0 and range - 1 */
+    private long value;
+    /* How many values are equally likely */
+    private long range = 1;
+    /* The high half of the last 64-bit random value, not used yet */
+    private int spareBits;
+    /* Whether spareBits holds bits that have not been used */
+    private boolean hasSpareBits;
+
+    /**
+     * Constructs an empty pool
+     *
+     * @param random The generator the random bits come from
+     */
+    EntropyPool(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Rolls a die
+     *
+     * @param sides Sides of the die, at least 1
+     * @return The side facing up, from 1 to sides
+     */
+    int roll(int sides) {
+        while (true) {
+            while (range < REFILL_BELOW) refill();
+            long blocks = range / sides; // Complete blocks of "sides" values inside the range
+            long limit = blocks * sides;
+            if (value < limit) {
+                long quotient = value / sides;
+                int side = (int) (value - quotient * sides);
+                value = quotient; // Uniform between 0 and blocks - 1
+                range = blocks;
+                return side + 1;
+            }
+            // The value is in the incomplete last block. It is still uniform inside that block
+            value -= limit;
+            range -= limit;
+        }
+    }
+
+    /**
+     * Shifts 32 new random bits into the pool
+     */
+    private void refill() {
+        int bits;
+        if (hasSpareBits) {
+            bits = spareBits;
+            hasSpareBits = false;
+        } else {
+            long next = random.nextLong();
+            bits = (int) next;
+            spareBits = (int) (next >>> 32);
+            hasSpareBits = true;
+        }
+        value = (value << 32) | Integer.toUnsignedLong(bits);
+        range <<= 32;
+    }
+}
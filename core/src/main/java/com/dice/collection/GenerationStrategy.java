@@ -0,0 +1,11 @@
+package com.dice.collection;
+
+/**
+ * How a collection of dice turns random bits into rolls
+ */
+public enum GenerationStrategy {
+    /* One 32-bit random value per die, mapped with Lemire's method on SIMD lanes when available */
+    PER_ROLL,
+    /* Many rolls carved out of each 64-bit random value, carrying leftover entropy between rolls */
+    ENTROPY_POOL
+}
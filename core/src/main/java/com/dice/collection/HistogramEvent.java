@@ -0,0 +1,26 @@
+package com.dice.collection;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of one histogram run of a collection, from the first roll to the last
+ */
+@Name("com.dice.collection.Histogram")
+@Label("Histogram")
+@Description("A collection rolled many times into a histogram")
+final class HistogramEvent extends DiceEvent {
+    @Label("Kind")
+    @Description("How the rolls were made: serial, parallel, partitioned, streamed, off-heap or concurrent")
+    String kind;
+
+    /**
+     * Constructs the event of a run
+     *
+     * @param kind How the rolls are made
+     */
+    HistogramEvent(String kind) {
+        this.kind = kind;
+    }
+}
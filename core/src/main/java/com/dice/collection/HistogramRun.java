@@ -0,0 +1,154 @@
+package com.dice.collection;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Blueprint for a long histogram run that can be watched and stopped while it rolls.
+ * The run keeps counting into one live histogram and, once per snapshot interval, publishes a
+ * read-only snapshot of it together with its progress. Snapshots share pages with the live
+ * histogram, so publishing one costs a copy of the page references instead of all counts.
+ * <p>
+ * A run is started by calling run, either directly or by submitting it to an executor. Any thread
+ * may read the latest snapshot or cancel the run. Cancellation is cooperative: the run checks it
+ * between small batches of rolls, publishes a last snapshot and returns.
+ * The collection should not be rolled by anything else while a run uses it.
+ */
+public final class HistogramRun implements Runnable {
+    /* Rolls done between checks of the clock and the cancel flag */
+    private static final int BATCH = 4096;
+
+    /* The collection to roll */
+    private final DiceCollection collection;
+    /* How many times to roll the collection */
+    private final long totalRolls;
+    /* Minimum time between 2 published snapshots, in nanoseconds */
+    private final long intervalNanos;
+    /* Called with every published snapshot, on the thread that runs the histogram */
+    private final Consumer<Snapshot> listener;
+
+    /* Set by cancel and read by the rolling thread */
+    private volatile boolean cancelled;
+    /* The last published snapshot, null until the run starts */
+    private volatile Snapshot latest;
+
+    /**
+     * Constructs a run that has not started yet
+     *
+     * @param collection       The collection to roll
+     * @param totalRolls       How many times to roll the collection
+     * @param snapshotInterval Minimum time between 2 published snapshots
+     * @param listener         Called with every published snapshot, may be null
+     */
+    HistogramRun(DiceCollection collection, long totalRolls, Duration snapshotInterval, Consumer<Snapshot> listener) {
+        if (totalRolls < 0) throw new IllegalArgumentException("Rolls must not be negative: " + totalRolls);
+        this.collection = collection;
+        this.totalRolls = totalRolls;
+        this.intervalNanos = snapshotInterval.toNanos();
+        this.listener = listener;
+    }
+
+    /**
+     * Rolls the collection until every roll is done or the run is cancelled,
+     * publishing snapshots along the way. The last snapshot is marked as finished
+     */
+    @Override
+    public void run() {
+        HistogramEvent event = new HistogramEvent("streamed");
+        event.start();
+        SumHistogram live = new SumHistogram(collection.sumMinimum(), collection.sumMaximum());
+        publish(live, 0, false);
+        long completed = 0;
+        long lastPublish = System.nanoTime();
+        while (completed < totalRolls && !cancelled) {
+            long batchEnd = Math.min(totalRolls, completed + BATCH);
+            for (; completed < batchEnd; completed++) live.add(collection.nextSum());
+
+            long now = System.nanoTime();
+            if (now - lastPublish >= intervalNanos && completed < totalRolls) {
+                publish(live, completed, false);
+                lastPublish = now;
+            }
+        }
+        publish(live, completed, true);
+        collection.finishHistogram(event, completed);
+    }
+
+    /**
+     * Publishes a snapshot of the live histogram and hands it to the listener
+     *
+     * @param live      The live histogram
+     * @param completed How many rolls are counted in it
+     * @param finished  Whether the run stops after this snapshot
+     */
+    private void publish(SumHistogram live, long completed, boolean finished) {
+        Snapshot snapshot = new Snapshot(live.snapshot(), completed, totalRolls, finished, cancelled);
+        latest = snapshot;
+        if (listener != null) listener.accept(snapshot);
+    }
+
+    /**
+     * Ask the run to stop. The run stops after its current batch of rolls
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Tell whether the run has been asked to stop
+     *
+     * @return true if cancel has been called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Tell whether the run has stopped, either because every roll is done or because it was cancelled
+     *
+     * @return true if the last snapshot has been published
+     */
+    public boolean isDone() {
+        Snapshot snapshot = latest;
+        return snapshot != null && snapshot.finished();
+    }
+
+    /**
+     * Give the last published snapshot
+     *
+     * @return The latest snapshot, null if the run has not started
+     */
+    public Snapshot latest() {
+        return latest;
+    }
+
+    /**
+     * Give how much of the run is done according to the last published snapshot
+     *
+     * @return A fraction from 0 to 1
+     */
+    public double progress() {
+        Snapshot snapshot = latest;
+        return snapshot == null ? 0 : snapshot.progress();
+    }
+
+    /**
+     * A read-only state of a run at the time it was published
+     *
+     * @param histogram      Read-only histogram of the rolls done so far
+     * @param completedRolls How many rolls are counted in the histogram
+     * @param totalRolls     How many rolls the run was asked to do
+     * @param finished       Whether this is the last snapshot of the run
+     * @param cancelled      Whether the run was cancelled before this snapshot
+     */
+    public record Snapshot(SumHistogram histogram, long completedRolls, long totalRolls, boolean finished, boolean cancelled) {
+        /**
+         * Give how much of the run is done
+         *
+         * @return A fraction from 0 to 1
+         */
+        public double progress() {
+            return totalRolls == 0 ? 1 : (double) completedRolls / totalRolls;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.dice.collection;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Utility class that draws how many dice of a group land on each face without rolling every die.
+ * The counts follow a multinomial distribution with equal face probabilities. They are drawn face
+ * by face: the number of remaining dice that land on face f is binomial with probability
+ * 1 / (faces left). The binomial sampler is exact: small means are drawn by inversion and large
+ * ones are reduced with Knuth's beta-median method, so the cost grows with log n instead of n.
+ */
+final class Multinomial {
+    /* Groups with this few dice are rolled die by die because that is cheaper */
+    private static final int DIRECT_ROLL_LIMIT = 32;
+    /* Binomials with a smaller mean than this are drawn by inversion */
+    private static final double INVERSION_MEAN_LIMIT = 16;
+
+    /**
+     * No instances, only static utility methods
+     */
+    private Multinomial() {
+    }
+
+    /**
+     * Draws how many dice of a group land on each face
+     *
+     * @param random The random generator
+     * @param sides  The sides each die has
+     * @param dice   How many dice are rolled
+     * @return The counts where index 0 holds how many dice show 1
+     */
+    static int[] faceCounts(RandomGenerator random, int sides, int dice) {
+        int[] counts = new int[sides];
+        if (dice <= DIRECT_ROLL_LIMIT) {
+            for (int i = 0; i < dice; i++) counts[random.nextInt(sides)] += 1;
+            return counts;
+        }
+        int remaining = dice;
+        for (int face = 0; face < sides - 1 && remaining > 0; face++) {
+            counts[face] = binomial(random, remaining, 1.0 / (sides - face));
+            remaining -= counts[face];
+        }
+        counts[sides - 1] += remaining;
+        return counts;
+    }
+
+    /**
+     * Draws the number of successes in n trials with probability p each
+     *
+     * @param random The random generator
+     * @param n      The number of trials
+     * @param p      The probability of success of each trial
+     * @return The number of successes
+     */
+    static int binomial(RandomGenerator random, int n, double p) {
+        if (p >= 1) return n;
+        if (p <= 0) return 0;
+        if (p > 0.5) return n - binomial(random, n, 1 - p);
+
+        int successes = 0;
+        // Knuth's method: the median order statistic of n uniforms is beta distributed.
+        // Comparing it with p tells which half of the trials every success lies in
+        while (n * p >= INVERSION_MEAN_LIMIT) {
+            int a = 1 + n / 2;
+            int b = n + 1 - a;
+            double median = beta(random, a, b);
+            if (median >= p) {
+                n = a - 1;
+                p = p / median;
+            } else {
+                successes += a;
+                n = b - 1;
+                p = (p - median) / (1 - median);
+            }
+        }
+        return successes + binomialInversion(random, n, p);
+    }
+
+    /**
+     * Draws a binomial with a small mean by walking up its cumulative distribution
+     *
+     * @param random The random generator
+     * @param n      The number of trials
+     * @param p      The probability of success of each trial
+     * @return The number of successes
+     */
+    private static int binomialInversion(RandomGenerator random, int n, double p) {
+        if (n <= 0 || p <= 0) return 0;
+        if (p >= 1) return n;
+        double ratio = p / (1 - p);
+        double probability = Math.pow(1 - p, n);
+        double u = random.nextDouble();
+        int k = 0;
+        while (u > probability && k < n) {
+            u -= probability;
+            probability *= ratio * (n - k) / (k + 1);
+            k++;
+        }
+        return k;
+    }
+
+    /**
+     * Draws a beta distributed value from 2 gamma distributed values
+     *
+     * @param random The random generator
+     * @param a      The first shape, at least 1
+     * @param b      The second shape, at least 1
+     * @return A value between 0 and 1
+     */
+    private static double beta(RandomGenerator random, double a, double b) {
+        double x = gamma(random, a);
+        double y = gamma(random, b);
+        return x / (x + y);
+    }
+
+    /**
+     * Draws a gamma distributed value with Marsaglia and Tsang's method
+     *
+     * @param random The random generator
+     * @param shape  The shape, at least 1
+     * @return A positive value
+     */
+    private static double gamma(RandomGenerator random, double shape) {
+        double d = shape - 1.0 / 3;
+        double c = 1 / Math.sqrt(9 * d);
+        while (true) {
+            double x = random.nextGaussian();
+            double v = 1 + c * x;
+            if (v <= 0) continue;
+            v = v * v * v;
+            double u = random.nextDouble();
+            if (u < 1 - 0.0331 * x * x * x * x) return d * v;
+            if (Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) return d * v;
+        }
+    }
+}
@@ -0,0 +1,810 @@
+package com.dice.collection;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.random.RandomGenerator;
+
+/**
+ * Blueprint for a collection of dice stored outside of the Java heap, for collections of tens of millions of dice.
+ * The sides and the up side of each die are kept in 2 direct buffers, each die taking 1 byte when no die has more
+ * than 255 sides, 2 bytes up to 65535 sides and 4 bytes otherwise, so 10 million d6 take 20 MB that the garbage
+ * collector never scans or copies, instead of the 160 MB of int arrays of {@link DiceCollection}.
+ * <p>
+ * Rolling and summing read and write the buffers directly, a few thousand dice at a time. The random values are
+ * drawn and rejected in the same order as {@link DiceKernels}, so a collection with the same sides and the same
+ * seeded generator rolls the same sides as a {@link DiceCollection}.
+ * <p>
+ * Everything else works on the groups of identical dice or on the runs of identical neighbouring dice, which
+ * are read from the buffers and kept until the sides change, so it never lists the dice on the heap: exact and
+ * approximate distributions, sums drawn from the exact distribution, and parallel and partitioned runs, which
+ * roll the same sums as those of a {@link DiceCollection} with the same sides in the same order. A collection
+ * built from groups has one run per group.
+ * <p>
+ * The memory is held until {@link #close()} is called, which frees it at once instead of waiting for a garbage
+ * collection. A closed collection throws IllegalStateException from every method. A collection is used by
+ * one thread at a time.
+ * Objects created from this class provides access to:
+ * - sides and current up side of each die
+ * - groups of identical dice
+ * - ability to roll all dice
+ * - ability to roll all dice n times then record those rolls
+ * - ability to write every roll of every die to a compact log file
+ * - ability to roll all dice n times on many threads then record those rolls
+ * - ability to reproduce a parallel run bit for bit from a seed on any number of threads
+ * - ability to publish the sums of n rolls to a subscriber, in batches it asks for
+ * - exact and approximate distribution of the sum without rolling
+ * - ability to draw sums straight from the exact distribution instead of rolling each die
+ */
+public final class OffHeapDiceCollection implements AutoCloseable {
+    /* How many dice are rolled per pass over the buffers. Even, so random values pair up as in the kernels */
+    private static final int CHUNK = 4096;
+
+    /* Sides of each die, width bytes per die */
+    private ByteBuffer sides;
+    /* Side currently facing up of each die, width bytes per die */
+    private ByteBuffer upSides;
+    /* Bytes stored for each die in each buffer: 1, 2 or 4 */
+    private final int width;
+    /* Number of dice */
+    private final int size;
+    /* Rejection threshold of every number of sides that fits the width, or null when the width is 4 bytes */
+    private final int[] thresholds;
+    /* The random generator shared by every die of the collection */
+    private final RandomGenerator random;
+    /* Sum of the highest sides. Updated whenever the sides change */
+    private int maxSum;
+    /* Sum of the sides currently facing up. Updated whenever the dice are rolled */
+    private int upSideSum;
+    /* Scratch space of one chunk: random values, sides and up sides */
+    private final int[] bits = new int[CHUNK];
+    private final int[] chunkSides = new int[CHUNK];
+    private final int[] chunkUpSides = new int[CHUNK];
+    /* Positions of the dice whose random value was rejected during a roll, drawn again at its end */
+    private int[] rejected = new int[16];
+    /* How histogram and the other runs produce sums */
+    private SamplingMode samplingMode = SamplingMode.ROLL_DICE;
+    /* Alias table of the exact sum distribution. Built on first use and dropped whenever the dice change */
+    private SumSampler sampler;
+    /* Groups of identical dice, from the fewest sides to the most. Built on first use and dropped whenever the dice change */
+    private DiceGroup[] groups;
+    /* Runs of identical neighbouring dice in the order of the collection. Built on first use and dropped whenever the dice change */
+    private DiceGroup[] runs;
+
+    /**
+     * Constructs the collection using a given array of sides of each die and a random generator
+     * that is shared by every die
+     *
+     * @param sides  An array of sides of each die
+     * @param random The random generator used for every roll of every die
+     * @throws IllegalArgumentException If a die has fewer than 1 side
+     */
+    public OffHeapDiceCollection(int[] sides, RandomGenerator random) {
+        this(sides.length, Arrays.stream(sides).max().orElse(1), random);
+        for (int i = 0; i < size; i++) {
+            if (sides[i] < 1) throw new IllegalArgumentException("A die has at least 1 side: " + sides[i]);
+            write(this.sides, i, sides[i]);
+            maxSum = Math.addExact(maxSum, sides[i]);
+        }
+        upSideSum = rollDice(); // Initiate every die with a random side facing up
+    }
+
+    /**
+     * Constructs the collection from groups of identical dice, e.g. 5 million dice of 6 sides and 2 million dice
+     * of 10 sides, without ever holding the sides of every die on the heap.
+     * Dice of a group are stored next to each other in the order of the groups
+     *
+     * @param groups The groups of dice
+     * @param random The random generator used for every roll of every die
+     * @throws IllegalArgumentException If a group has dice with fewer than 1 side
+     */
+    public OffHeapDiceCollection(DiceGroup[] groups, RandomGenerator random) {
+        this(Arrays.stream(groups).mapToInt(DiceGroup::count).reduce(0, Math::addExact),
+                Arrays.stream(groups).mapToInt(DiceGroup::sides).max().orElse(1), random);
+        int index = 0;
+        for (DiceGroup group : groups) {
+            if (group.sides() < 1) throw new IllegalArgumentException("A die has at least 1 side: " + group.sides());
+            for (int i = 0; i < group.count(); i++) write(sides, index++, group.sides());
+            maxSum = Math.addExact(maxSum, Math.multiplyExact(group.sides(), group.count()));
+        }
+        upSideSum = rollDice();
+    }
+
+    /**
+     * Allocates the buffers of a collection, wide enough for the die with the most sides
+     *
+     * @param size     Number of dice
+     * @param maxSides The most sides of any die
+     * @param random   The random generator used for every roll of every die
+     */
+    private OffHeapDiceCollection(int size, int maxSides, RandomGenerator random) {
+        this.size = size;
+        this.random = random;
+        width = maxSides <= 0xFF ? 1 : maxSides <= 0xFFFF ? 2 : 4;
+        if (width < 4) {
+            thresholds = new int[widest(width) + 1];
+            for (int s = 1; s < thresholds.length; s++) thresholds[s] = DiceKernels.rejectThreshold(s);
+        } else {
+            thresholds = null;
+        }
+        if ((long) size * width > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many dice for one buffer: " + size);
+        sides = ByteBuffer.allocateDirect(size * width).order(ByteOrder.nativeOrder());
+        upSides = ByteBuffer.allocateDirect(size * width).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Gives the most sides a die can have when stored in a given number of bytes
+     *
+     * @param width Bytes per die
+     * @return The most sides
+     */
+    private static int widest(int width) {
+        return width == 1 ? 0xFF : width == 2 ? 0xFFFF : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the number of dice in the collection
+     *
+     * @return The number of dice
+     */
+    public int size() {
+        checkOpen();
+        return size;
+    }
+
+    /**
+     * Get how many bytes of memory outside of the heap each die takes, counting its sides and its up side
+     *
+     * @return The bytes per die
+     */
+    public int bytesPerDie() {
+        checkOpen();
+        return 2 * width;
+    }
+
+    /**
+     * Get the sides of one die
+     *
+     * @param index The position of the die in the collection, starting from 0
+     * @return The sides of the die
+     */
+    public int getSides(int index) {
+        checkOpen();
+        return read(sides, Objects.checkIndex(index, size));
+    }
+
+    /**
+     * Get the side facing up of one die
+     *
+     * @param index The position of the die in the collection, starting from 0
+     * @return The up side of the die
+     */
+    public int getUpSide(int index) {
+        checkOpen();
+        return read(upSides, Objects.checkIndex(index, size));
+    }
+
+    /**
+     * Get the sides of each die. The array is on the heap, so this is meant for small collections
+     *
+     * @return A new array with the sides of each die in the order of the collection
+     */
+    public int[] getSides() {
+        checkOpen();
+        return readAll(sides);
+    }
+
+    /**
+     * Get the current side facing up of each die. The array is on the heap, so this is meant for small collections
+     *
+     * @return A new array with the up side of each die in the order of the collection
+     */
+    public int[] getUpSides() {
+        checkOpen();
+        return readAll(upSides);
+    }
+
+    /**
+     * Group the dice by their number of sides
+     *
+     * @return One group per distinct number of sides, ordered from the fewest sides to the most
+     */
+    public DiceGroup[] getGroups() {
+        checkOpen();
+        return groups().clone();
+    }
+
+    /**
+     * Get the groups of the current dice, building them if the dice changed since they were last built.
+     * Dice up to 65535 sides are counted in one pass over the buffer, wider dice are sorted on the heap
+     *
+     * @return The cached groups, not to be changed
+     */
+    private DiceGroup[] groups() {
+        if (groups != null) return groups;
+        if (thresholds == null) return groups = DiceGroup.group(readAll(sides));
+        int[] counts = new int[thresholds.length]; // One count per number of sides that fits the width
+        for (int start = 0; start < size; start += CHUNK) {
+            int count = Math.min(CHUNK, size - start);
+            readChunk(sides, start, chunkSides, count);
+            for (int i = 0; i < count; i++) counts[chunkSides[i]]++;
+        }
+        DiceGroup[] grouped = new DiceGroup[counts.length];
+        int length = 0;
+        for (int s = 1; s < counts.length; s++) if (counts[s] > 0) grouped[length++] = new DiceGroup(s, counts[s]);
+        return groups = Arrays.copyOf(grouped, length);
+    }
+
+    /**
+     * Get the runs of identical neighbouring dice, building them if the dice changed since they were last built
+     *
+     * @return The cached runs in the order of the collection, not to be changed
+     */
+    private DiceGroup[] runs() {
+        if (runs != null) return runs;
+        List<DiceGroup> found = new ArrayList<>();
+        int runSides = 0;
+        int runCount = 0;
+        for (int start = 0; start < size; start += CHUNK) {
+            int count = Math.min(CHUNK, size - start);
+            readChunk(sides, start, chunkSides, count);
+            for (int i = 0; i < count; i++) {
+                if (chunkSides[i] == runSides) {
+                    runCount++;
+                    continue;
+                }
+                if (runCount > 0) found.add(new DiceGroup(runSides, runCount));
+                runSides = chunkSides[i];
+                runCount = 1;
+            }
+        }
+        if (runCount > 0) found.add(new DiceGroup(runSides, runCount));
+        return runs = found.toArray(new DiceGroup[0]);
+    }
+
+    /**
+     * Change the sides of one die. The die is rolled again so it shows a valid side
+     *
+     * @param index The position of the die in the collection, starting from 0
+     * @param sides The new number of sides of the die
+     * @throws IllegalArgumentException If the die would have fewer than 1 side, or more than the width of the collection stores
+     */
+    public void setSides(int index, int sides) {
+        checkOpen();
+        Objects.checkIndex(index, size);
+        if (sides < 1 || sides > widest(width)) throw new IllegalArgumentException("Sides must be between 1 and " + widest(width) + ": " + sides);
+        int upSide = random.nextInt(1, sides + 1);
+        maxSum += sides - read(this.sides, index);
+        upSideSum += upSide - read(upSides, index);
+        write(this.sides, index, sides);
+        write(upSides, index, upSide);
+        sampler = null; // The sums follow a different distribution now
+        groups = null;
+        runs = null;
+    }
+
+    /**
+     * Get how histogram and the other runs produce sums
+     *
+     * @return The sampling mode
+     */
+    public SamplingMode getSamplingMode() {
+        checkOpen();
+        return samplingMode;
+    }
+
+    /**
+     * Set how histogram and the other runs produce sums
+     *
+     * @param samplingMode The sampling mode
+     */
+    public void setSamplingMode(SamplingMode samplingMode) {
+        checkOpen();
+        this.samplingMode = samplingMode;
+    }
+
+    /**
+     * Get the random generator shared by the dice of the collection
+     *
+     * @return The random generator
+     */
+    public RandomGenerator getRandom() {
+        checkOpen();
+        return random;
+    }
+
+    /**
+     * Sum the values of sides currently facing up
+     * The sum is kept up to date by every roll, so this does not walk the dice
+     *
+     * @return The sum value
+     */
+    public int sumUpSides() {
+        checkOpen();
+        return upSideSum;
+    }
+
+    /**
+     * Sum all the sides with value of 1
+     *
+     * @return The sum value
+     */
+    public int sumMinimum() {
+        checkOpen();
+        return size; // Every die contributes 1
+    }
+
+    /**
+     * Sum all the sides with the highest value
+     *
+     * @return The sum value
+     */
+    public int sumMaximum() {
+        checkOpen();
+        return maxSum;
+    }
+
+    /**
+     * Roll each die once
+     */
+    public void rollAll() {
+        checkOpen();
+        RollEvent event = new RollEvent();
+        event.start();
+        upSideSum = rollDice();
+        DiceMetrics.recordRolls(1);
+        event.finish(size, 1);
+    }
+
+    /**
+     * Roll each die once and record the result. The record holds every up side on the heap,
+     * so this is meant for small collections
+     *
+     * @return An immutable record of the sum and the side facing up of each die
+     */
+    public RollResult roll() {
+        rollAll();
+        return getRollResult();
+    }
+
+    /**
+     * Record the current sides facing up. The record holds every up side on the heap,
+     * so this is meant for small collections
+     *
+     * @return An immutable record of the sum and the side facing up of each die
+     */
+    public RollResult getRollResult() {
+        checkOpen();
+        return new RollResult(upSideSum, readAll(upSides));
+    }
+
+    /**
+     * Rolls the entire collection n times while tracking each roll
+     * In DIRECT_SUM mode the sums are drawn from the exact distribution and the dice are left as they are
+     *
+     * @param rolls How many times to roll the dice in the collection
+     * @return A histogram that tracks the up side sums of rolls
+     */
+    public SumHistogram histogram(long rolls) {
+        checkOpen();
+        HistogramEvent event = new HistogramEvent("off-heap");
+        event.start();
+        SumHistogram tracker = new SumHistogram(sumMinimum(), sumMaximum());
+        for (long i = 0; i < rolls; i++) tracker.add(nextSum());
+        DiceMetrics.recordHistogram(rolls);
+        event.finish(size, rolls);
+        return tracker;
+    }
+
+    /**
+     * Rolls the entire collection n times and keeps only statistics of the sums, in constant memory.
+     * In DIRECT_SUM mode the sums are drawn from the exact distribution and the dice are left as they are
+     *
+     * @param rolls How many times to roll the dice in the collection
+     * @return The statistics of the sums
+     */
+    public RollStatistics statistics(long rolls) {
+        checkOpen();
+        HistogramEvent event = new HistogramEvent("off-heap");
+        event.start();
+        RollStatistics statistics = new RollStatistics(exactDistribution());
+        for (long i = 0; i < rolls; i++) statistics.add(nextSum());
+        DiceMetrics.recordHistogram(rolls);
+        event.finish(size, rolls);
+        return statistics;
+    }
+
+    /**
+     * Rolls the entire collection n times and writes the up side of every die of every roll to a log,
+     * a few thousand dice at a time. The dice are always rolled one by one, whatever the sampling mode
+     *
+     * @param rolls How many times to roll the dice in the collection
+     * @param log   The log to write to, created for the sides of this collection
+     * @throws IOException If the log cannot be written
+     */
+    public void record(long rolls, RollLogWriter log) throws IOException {
+        checkOpen();
+        for (long i = 0; i < rolls; i++) {
+            upSideSum = rollDice();
+            for (int start = 0; start < size; start += CHUNK) {
+                int count = Math.min(CHUNK, size - start);
+                readChunk(upSides, start, chunkUpSides, count);
+                log.writeDice(chunkUpSides, count);
+            }
+            if (size == 0) log.writeDice(chunkUpSides, 0);
+        }
+        DiceMetrics.recordRolls(rolls);
+    }
+
+    /**
+     * Prepares a publisher of the sums of n rolls, in batches that the subscriber asks for.
+     * In DIRECT_SUM mode the sums are drawn from the exact distribution and the dice are left as they are.
+     * Nothing is rolled until the subscriber requests batches, and the collection should not be used by
+     * anything else while the sums are published
+     *
+     * @param rolls    How many times to roll the dice in the collection
+     * @param executor Where the rolling and the signals to the subscriber run
+     * @return The publisher, for one subscriber
+     */
+    public SumPublisher publishSums(long rolls, Executor executor) {
+        checkOpen();
+        return new SumPublisher(this::nextSum, rolls, executor);
+    }
+
+    /**
+     * Produces the sum of one roll in the current sampling mode
+     *
+     * @return The sum of all up sides
+     */
+    private int nextSum() {
+        checkOpen();
+        if (samplingMode == SamplingMode.DIRECT_SUM) return getSampler().sample(random);
+        upSideSum = rollDice();
+        return upSideSum;
+    }
+
+    /**
+     * Get the alias table of the current dice, building it if the dice changed since it was last built
+     *
+     * @return The sampler of sums
+     */
+    private SumSampler getSampler() {
+        if (sampler == null) sampler = new SumSampler(exactDistribution());
+        return sampler;
+    }
+
+    /**
+     * Rolls the entire collection n times on a fork-join pool while tracking each roll, like
+     * {@link DiceCollection#histogramParallel}. The workers read the runs of identical dice, not the buffers,
+     * and with DIRECT_SUM they draw every sum from the exact distribution. The dice of the collection are
+     * not changed by this method
+     *
+     * @param rolls       How many times to roll the dice in the collection
+     * @param parallelism How many threads to roll on, at least 1
+     * @return A histogram that tracks the up side sums of rolls
+     */
+    public SumHistogram histogramParallel(long rolls, int parallelism) {
+        checkOpen();
+        if (rolls < 0) throw new IllegalArgumentException("Rolls must not be negative: " + rolls);
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        long threshold = Math.max(1, rolls / (parallelism * 8L));
+        SumSampler directSums = samplingMode == SamplingMode.DIRECT_SUM ? getSampler() : null;
+        ParallelHistogram task = new ParallelHistogram(runs(), sumMinimum(), sumMaximum(), rolls, threshold,
+                DiceCollection.splitGenerator(random), directSums, false);
+        return DiceCollection.invoke(task, parallelism, new HistogramEvent("parallel"), size, rolls);
+    }
+
+    /**
+     * Rolls the entire collection n times on a fork-join pool with a result that only depends on the seed,
+     * see {@link DiceCollection#histogramPartitioned(long, long, int)}. The histogram is the same as that of a
+     * {@link DiceCollection} with the same sides in the same order
+     *
+     * @param rolls       How many times to roll the dice in the collection
+     * @param seed        The seed the whole run is derived from
+     * @param parallelism How many threads to roll on, at least 1
+     * @return A histogram that tracks the up side sums of rolls
+     */
+    public SumHistogram histogramPartitioned(long rolls, long seed, int parallelism) {
+        return histogramPartitioned(rolls, seed, 0, DiceCollection.partitionBlocks(rolls), parallelism);
+    }
+
+    /**
+     * Rolls a range of the blocks of a partitioned run, see {@link DiceCollection#histogramPartitioned(long, long, long, long, int)}
+     *
+     * @param rolls       How many times the whole run rolls the dice in the collection
+     * @param seed        The seed the whole run is derived from
+     * @param firstBlock  The first block to roll
+     * @param endBlock    The block after the last block to roll, at most {@link DiceCollection#partitionBlocks(long)}
+     * @param parallelism How many threads to roll on, at least 1
+     * @return A histogram that tracks the up side sums of the rolls of the blocks
+     */
+    public SumHistogram histogramPartitioned(long rolls, long seed, long firstBlock, long endBlock, int parallelism) {
+        checkOpen();
+        if (rolls < 0) throw new IllegalArgumentException("Rolls must not be negative: " + rolls);
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        if (firstBlock < 0 || endBlock < firstBlock || endBlock > DiceCollection.partitionBlocks(rolls))
+            throw new IllegalArgumentException("Blocks " + firstBlock + " to " + endBlock + " are not blocks of " + rolls + " rolls");
+        long threshold = Math.max(1, (endBlock - firstBlock) / (parallelism * 8L));
+        PartitionedHistogram task = new PartitionedHistogram(runs(), sumMinimum(), sumMaximum(),
+                rolls, seed, firstBlock, endBlock, threshold);
+        return DiceCollection.invoke(task, parallelism, new HistogramEvent("partitioned"), size, PartitionedHistogram.rolls(rolls, firstBlock, endBlock));
+    }
+
+    /**
+     * Computes the exact probability of every possible sum from the groups of identical dice, without rolling.
+     * Distributions are shared through {@link DistributionCache#shared()} with every collection of the same dice
+     *
+     * @return The distribution of the sum of all up sides
+     */
+    public SumDistribution exactDistribution() {
+        checkOpen();
+        return DistributionCache.shared().exactDistribution(groups());
+    }
+
+    /**
+     * Approximates the distribution of the sum from the groups of identical dice.
+     * Collections with at most {@link SumApproximation#DEFAULT_EXACT_LIMIT} possible sums get their exact
+     * distribution instead
+     *
+     * @return The approximate distribution of the sum of all up sides, with a bound of its error
+     */
+    public SumApproximation approximateDistribution() {
+        return approximateDistribution(SumApproximation.DEFAULT_EXACT_LIMIT);
+    }
+
+    /**
+     * Approximates the distribution of the sum from the groups of identical dice.
+     * Collections with at most exactLimit possible sums get their exact distribution instead
+     *
+     * @param exactLimit The most possible sums for which the exact distribution is computed, 0 to always approximate
+     * @return The approximate distribution of the sum of all up sides, with a bound of its error
+     */
+    public SumApproximation approximateDistribution(long exactLimit) {
+        checkOpen();
+        return new SumApproximation(groups(), exactLimit);
+    }
+
+    /**
+     * Rolls every die once, one chunk at a time. Values rejected by the bounded mapping are drawn again
+     * after the whole collection, in index order, which is the order the kernels use
+     *
+     * @return The sum of all sides facing up
+     */
+    private int rollDice() {
+        int sum = 0;
+        int rejections = 0;
+        for (int start = 0; start < size; start += CHUNK) {
+            int count = Math.min(CHUNK, size - start);
+            DiceKernels.fillRandom(random, bits, count);
+            readChunk(sides, start, chunkSides, count);
+            for (int i = 0; i < count; i++) {
+                int side = chunkSides[i];
+                int upSide = DiceKernels.bounded(bits[i], side, threshold(side));
+                if (upSide == 0) {
+                    if (rejections == rejected.length) rejected = Arrays.copyOf(rejected, rejections * 2);
+                    rejected[rejections++] = start + i;
+                }
+                chunkUpSides[i] = upSide;
+                sum += upSide;
+            }
+            writeChunk(upSides, start, chunkUpSides, count);
+        }
+        for (int r = 0; r < rejections; r++) {
+            int index = rejected[r];
+            int side = read(sides, index);
+            int upSide = DiceKernels.redraw(random, side, threshold(side));
+            write(upSides, index, upSide);
+            sum += upSide;
+        }
+        return sum;
+    }
+
+    /**
+     * Gives the rejection threshold of a number of sides, from the table when the width has one
+     *
+     * @param sides Sides of the die
+     * @return The rejection threshold
+     */
+    private int threshold(int sides) {
+        return thresholds != null ? thresholds[sides] : DiceKernels.rejectThreshold(sides);
+    }
+
+    /**
+     * Reads the value of one die from a buffer
+     *
+     * @param buffer The sides or the up sides
+     * @param index  The position of the die
+     * @return The value
+     */
+    private int read(ByteBuffer buffer, int index) {
+        return switch (width) {
+            case 1 -> buffer.get(index) & 0xFF;
+            case 2 -> buffer.getShort(index << 1) & 0xFFFF;
+            default -> buffer.getInt(index << 2);
+        };
+    }
+
+    /**
+     * Writes the value of one die to a buffer
+     *
+     * @param buffer The sides or the up sides
+     * @param index  The position of the die
+     * @param value  The value, which fits the width
+     */
+    private void write(ByteBuffer buffer, int index, int value) {
+        switch (width) {
+            case 1 -> buffer.put(index, (byte) value);
+            case 2 -> buffer.putShort(index << 1, (short) value);
+            default -> buffer.putInt(index << 2, value);
+        }
+    }
+
+    /**
+     * Reads the values of consecutive dice from a buffer
+     *
+     * @param buffer The sides or the up sides
+     * @param start  The position of the first die
+     * @param values Receives the values
+     * @param count  How many dice to read
+     */
+    private void readChunk(ByteBuffer buffer, int start, int[] values, int count) {
+        switch (width) {
+            case 1 -> {
+                for (int i = 0; i < count; i++) values[i] = buffer.get(start + i) & 0xFF;
+            }
+            case 2 -> {
+                for (int i = 0; i < count; i++) values[i] = buffer.getShort((start + i) << 1) & 0xFFFF;
+            }
+            default -> {
+                for (int i = 0; i < count; i++) values[i] = buffer.getInt((start + i) << 2);
+            }
+        }
+    }
+
+    /**
+     * Writes the values of consecutive dice to a buffer
+     *
+     * @param buffer The sides or the up sides
+     * @param start  The position of the first die
+     * @param values The values, which fit the width
+     * @param count  How many dice to write
+     */
+    private void writeChunk(ByteBuffer buffer, int start, int[] values, int count) {
+        switch (width) {
+            case 1 -> {
+                for (int i = 0; i < count; i++) buffer.put(start + i, (byte) values[i]);
+            }
+            case 2 -> {
+                for (int i = 0; i < count; i++) buffer.putShort((start + i) << 1, (short) values[i]);
+            }
+            default -> {
+                for (int i = 0; i < count; i++) buffer.putInt((start + i) << 2, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Copies the values of every die of a buffer to the heap
+     *
+     * @param buffer The sides or the up sides
+     * @return A new array with the value of each die
+     */
+    private int[] readAll(ByteBuffer buffer) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) values[i] = read(buffer, i);
+        return values;
+    }
+
+    /**
+     * Throws if the memory of the collection has been freed
+     */
+    private void checkOpen() {
+        if (sides == null) throw new IllegalStateException("The collection is closed");
+    }
+
+    /**
+     * Tells whether the memory of the collection has been freed
+     *
+     * @return True once the collection is closed
+     */
+    public boolean isClosed() {
+        return sides == null;
+    }
+
+    /**
+     * Frees the memory of the collection. Closing a closed collection does nothing
+     *
+     * @throws IllegalStateException If the JVM cannot free the memory at once, e.g. without the jdk.unsupported
+     *                               module. The collection is closed anyway and the garbage collector frees the memory later
+     */
+    @Override
+    public void close() {
+        if (sides == null) return;
+        ByteBuffer freedSides = sides;
+        ByteBuffer freedUpSides = upSides;
+        sides = null; // Every method checks this before touching the buffers
+        upSides = null;
+        sampler = null;
+        groups = null;
+        runs = null;
+        Release.free(freedSides);
+        Release.free(freedUpSides);
+    }
+
+    /**
+     * Give a short report of the collection. The dice are not listed, since there can be millions of them
+     *
+     * @return The report
+     */
+    @Override
+    public String toString() {
+        if (sides == null) return "Closed off-heap collection";
+        return "Off-heap collection of " + size + " dice, " + 2 * width + " bytes per die"
+                + "\n" + "Min sum of roll: " + sumMinimum()
+                + "\n" + "Max sum of roll: " + sumMaximum()
+                + "\n" + "Sum of current roll: " + sumUpSides();
+    }
+
+    /**
+     * Frees direct buffers at once. The JDK frees the memory of a direct buffer once the buffer is garbage
+     * collected; sun.misc.Unsafe.invokeCleaner, from the jdk.unsupported module, runs that cleanup right away.
+     * When it is not available, freeing fails with the reason instead of leaving the memory to the collector unnoticed
+     */
+    private static final class Release {
+        /* The Unsafe instance, or null when invokeCleaner cannot be used */
+        private static final Object UNSAFE;
+        /* Unsafe.invokeCleaner(ByteBuffer), or null */
+        private static final Method INVOKE_CLEANER;
+        /* Why invokeCleaner cannot be used, or null when it can */
+        private static final Throwable UNAVAILABLE;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            Throwable unavailable = null;
+            try {
+                Class<?> type = Class.forName("sun.misc.Unsafe");
+                Field field = type.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException exception) {
+                unsafe = null;
+                invokeCleaner = null;
+                unavailable = exception;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+            UNAVAILABLE = unavailable;
+        }
+
+        /**
+         * No instances
+         */
+        private Release() {
+        }
+
+        /**
+         * Frees the memory of a direct buffer that has no views. The buffer must not be used afterwards
+         *
+         * @param buffer The buffer
+         * @throws IllegalStateException If the memory cannot be freed at once
+         */
+        static void free(ByteBuffer buffer) {
+            if (INVOKE_CLEANER == null)
+                throw new IllegalStateException("Off-heap memory cannot be freed at once without sun.misc.Unsafe.invokeCleaner", UNAVAILABLE);
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException exception) {
+                throw new IllegalStateException("Off-heap memory could not be freed", exception);
+            }
+        }
+    }
+}
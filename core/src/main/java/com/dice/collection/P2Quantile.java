@@ -0,0 +1,129 @@
+package com.dice.collection;
+
+import java.util.Arrays;
+
+/**
+ * Estimates one quantile of a stream of values in constant memory with the P² algorithm of
+ * Jain and Chlamtac. Five markers track the minimum, the quantile, the maximum and two points halfway
+ * in between. Every value moves the markers it falls above by one position, and markers that drift
+ * from their desired position are adjusted with a piecewise-parabolic interpolation of their neighbours.
+ */
+final class P2Quantile {
+    /* The quantile that is estimated, between 0 and 1 */
+    private final double p;
+    /* Height of each marker, which is the estimated value at its position */
+    private final double[] heights = new double[5];
+    /* Actual position of each marker, counted from 1 */
+    private final double[] positions = {1, 2, 3, 4, 5};
+    /* Desired position of each marker */
+    private final double[] desired;
+    /* How much each desired position moves per value */
+    private final double[] increments;
+    /* How many values have been added */
+    private long count;
+
+    /**
+     * Constructs an estimator of a quantile
+     *
+     * @param p The quantile to estimate, between 0 and 1
+     */
+    P2Quantile(double p) {
+        if (!(p >= 0 && p <= 1)) throw new IllegalArgumentException("Quantile must be between 0 and 1: " + p);
+        this.p = p;
+        desired = new double[]{1, 1 + 2 * p, 1 + 4 * p, 3 + 2 * p, 5};
+        increments = new double[]{0, p / 2, p, (1 + p) / 2, 1};
+    }
+
+    /**
+     * Give the quantile that is estimated
+     *
+     * @return The quantile, between 0 and 1
+     */
+    double quantile() {
+        return p;
+    }
+
+    /**
+     * Adds a value to the stream
+     *
+     * @param x The value
+     */
+    void add(double x) {
+        // The first five values are the initial markers
+        if (count < 5) {
+            heights[(int) count++] = x;
+            if (count == 5) Arrays.sort(heights);
+            return;
+        }
+        count++;
+
+        /* The cell of the marker the value falls in, widening the outer markers if it falls outside */
+        int k;
+        if (x < heights[0]) {
+            heights[0] = x;
+            k = 0;
+        } else if (x >= heights[4]) {
+            heights[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (x >= heights[k + 1]) k++;
+        }
+        for (int i = k + 1; i < 5; i++) positions[i]++;
+        for (int i = 0; i < 5; i++) desired[i] += increments[i];
+
+        // Move each middle marker by one position if it is at least one position away from where it should be
+        for (int i = 1; i < 4; i++) {
+            double drift = desired[i] - positions[i];
+            if ((drift >= 1 && positions[i + 1] - positions[i] > 1) || (drift <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int step = drift > 0 ? 1 : -1;
+                double height = parabolic(i, step);
+                // Fall back to linear interpolation when the parabola would break the order of the markers
+                heights[i] = heights[i - 1] < height && height < heights[i + 1] ? height : linear(i, step);
+                positions[i] += step;
+            }
+        }
+    }
+
+    /**
+     * Gives the height of a marker moved one position along the parabola through it and its neighbours
+     *
+     * @param i    The marker
+     * @param step 1 to move right, -1 to move left
+     * @return The new height
+     */
+    private double parabolic(int i, int step) {
+        double left = positions[i] - positions[i - 1];
+        double right = positions[i + 1] - positions[i];
+        return heights[i] + step / (positions[i + 1] - positions[i - 1])
+                * ((left + step) * (heights[i + 1] - heights[i]) / right
+                + (right - step) * (heights[i] - heights[i - 1]) / left);
+    }
+
+    /**
+     * Gives the height of a marker moved one position along the line to its neighbour
+     *
+     * @param i    The marker
+     * @param step 1 to move right, -1 to move left
+     * @return The new height
+     */
+    private double linear(int i, int step) {
+        return heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+    }
+
+    /**
+     * Gives the estimated quantile. Until five values have been added it is the exact quantile of them
+     *
+     * @return The estimate, or NaN if no value has been added
+     */
+    double value() {
+        if (count == 0) return Double.NaN;
+        if (count < 5) {
+            double[] sorted = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(p * count) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+        }
+        return heights[2];
+    }
+}
@@ -0,0 +1,105 @@
+package com.dice.collection;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * Fork-join task that rolls a collection of dice many times and tracks the sums of the rolls.
+ * The rolls are split in halves until each task has a small enough share, and every split hands
+ * a new generator split from the parent's stream to the right half. Each leaf task counts into
+ * its own private histogram which is merged into its parent when joined, so no two threads ever
+ * write to the same counts.
+ * <p>
+ * Leaf tasks follow the sampling mode and generation strategy of the collection: with a sampler every
+ * sum is drawn from the shared alias table, which is only read, and with an entropy pool every leaf
+ * carves its rolls out of a pool of its own over its own stream.
+ */
+@SuppressWarnings("serial") // Fork/join tasks are never serialized
+class ParallelHistogram extends RecursiveTask<SumHistogram> {
+    /* Runs of identical dice in the order of the collection. Only read by the tasks */
+    private final DiceGroup[] runs;
+    /* The lowest possible sum */
+    private final int minSum;
+    /* The highest possible sum */
+    private final int maxSum;
+    /* How many rolls this task is responsible for */
+    private final long rolls;
+    /* Tasks with this many rolls or fewer are not split any further */
+    private final long threshold;
+    /* The random stream owned by this task alone */
+    private final SplittableGenerator random;
+    /* Draws sums directly when the collection samples with DIRECT_SUM, otherwise null. Only read by the tasks */
+    private final SumSampler sampler;
+    /* Whether dice are rolled out of an entropy pool, see GenerationStrategy.ENTROPY_POOL */
+    private final boolean entropyPool;
+
+    /**
+     * Constructs a task for a share of the rolls
+     *
+     * @param runs        Runs of identical dice in the order of the collection, see {@link DiceGroup#runs(int[])}
+     * @param minSum      The lowest possible sum of a roll
+     * @param maxSum      The highest possible sum of a roll
+     * @param rolls       How many times to roll all dice in this task
+     * @param threshold   The largest number of rolls that a task does without splitting
+     * @param random      The random stream owned by this task
+     * @param sampler     Draws the sums when the collection samples with DIRECT_SUM, null to roll the dice
+     * @param entropyPool Whether dice are rolled out of an entropy pool rather than one random value each
+     */
+    ParallelHistogram(DiceGroup[] runs, int minSum, int maxSum, long rolls, long threshold, SplittableGenerator random,
+                      SumSampler sampler, boolean entropyPool) {
+        this.runs = runs;
+        this.minSum = minSum;
+        this.maxSum = maxSum;
+        this.rolls = rolls;
+        this.threshold = threshold;
+        this.random = random;
+        this.sampler = sampler;
+        this.entropyPool = entropyPool;
+    }
+
+    /**
+     * Either rolls the dice directly or splits the rolls between 2 subtasks then merges their histograms
+     *
+     * @return The histogram of this task's rolls
+     */
+    @Override
+    protected SumHistogram compute() {
+        if (rolls <= threshold) return rollLocally();
+
+        long half = rolls / 2;
+        // The right half gets a new stream split off this task's stream. The left half keeps this task's stream
+        ParallelHistogram right = new ParallelHistogram(runs, minSum, maxSum, rolls - half, threshold, random.split(), sampler, entropyPool);
+        ParallelHistogram left = new ParallelHistogram(runs, minSum, maxSum, half, threshold, random, sampler, entropyPool);
+        right.fork();
+        SumHistogram tracker = left.compute();
+        tracker.merge(right.join());
+        return tracker;
+    }
+
+    /**
+     * Rolls all dice of this task's share into a private histogram
+     *
+     * @return The histogram of this task's rolls
+     */
+    private SumHistogram rollLocally() {
+        SumHistogram tracker = new SumHistogram(minSum, maxSum);
+        if (sampler != null) {
+            for (long i = 0; i < rolls; i++) tracker.add(sampler.sample(random));
+            return tracker;
+        }
+        EntropyPool pool = entropyPool ? new EntropyPool(random) : null;
+        for (long i = 0; i < rolls; i++) {
+            int upSideSum = 0;
+            for (DiceGroup run : runs) {
+                int sides = run.sides();
+                if (pool != null) {
+                    for (int die = 0; die < run.count(); die++) upSideSum += pool.roll(sides);
+                } else {
+                    for (int die = 0; die < run.count(); die++) upSideSum += random.nextInt(1, sides + 1);
+                }
+            }
+            tracker.add(upSideSum);
+        }
+        return tracker;
+    }
+}
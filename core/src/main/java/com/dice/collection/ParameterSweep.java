@@ -0,0 +1,292 @@
+package com.dice.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Blueprint for a sweep that evaluates many configurations of dice on a bounded pool of workers.
+ * The sum does not depend on the order of the dice, so every configuration is sorted and its exact
+ * distribution is built from the longest sorted prefix that is already known: {6, 6, 8} is {6, 6}
+ * convolved with one more die, and {6, 6} is reused for {6, 6, 10} and the rest. Prefixes are shared
+ * with the previous configuration of the same chunk only, so a sweep does not fill
+ * {@link DistributionCache#shared()} with configurations nobody asks for again. A sweep in the order of
+ * {@link #combinations} convolves almost every configuration with a single die.
+ * <p>
+ * Configurations are handed to the workers in chunks, and only a few chunks per worker are in flight
+ * at any time, so a sweep can read configurations from a generator of any length. Results are handed over on the thread that runs the sweep, in the
+ * order the configurations finish.
+ * <p>
+ * Each configuration rolls its own generator, seeded from the sweep's seed and its position, so a sweep
+ * with a given seed gives the same histograms whatever the parallelism and however the chunks fall.
+ * Objects created from this class provides access to:
+ * - ability to run a sweep and receive each result as soon as it is ready
+ * - every combination of a range of dice counts and sides
+ */
+public final class ParameterSweep implements AutoCloseable {
+    /* How many chunks per worker may be in flight */
+    private static final int IN_FLIGHT_PER_WORKER = 4;
+    /* Most configurations in a chunk */
+    private static final int MAX_CHUNK = 256;
+    /* A chunk is closed once the cost of convolving its configurations from scratch reaches this */
+    private static final long CHUNK_COST = 1 << 18;
+    /* Creates the generator of each configuration */
+    private static final RandomGeneratorFactory<RandomGenerator> GENERATORS = RandomGeneratorFactory.of(PartitionedHistogram.ALGORITHM);
+
+    /* The workers */
+    private final ExecutorService workers;
+    /* How many chunks may be in flight */
+    private final int maxInFlight;
+    /* How many times each configuration is rolled, 0 to only compute exact distributions */
+    private final long rolls;
+    /* Seed the generator of each configuration is derived from */
+    private final long seed;
+
+    /**
+     * Constructs a sweep with its own pool of workers and a random seed
+     *
+     * @param parallelism How many configurations are evaluated at the same time
+     * @param rolls       How many times each configuration is rolled into a histogram, 0 for none.
+     *                    Sums are drawn from the exact distribution, see {@link SamplingMode#DIRECT_SUM}
+     */
+    public ParameterSweep(int parallelism, long rolls) {
+        this(parallelism, rolls, RandomGenerator.getDefault().nextLong());
+    }
+
+    /**
+     * Constructs a sweep with its own pool of workers whose histograms can be reproduced
+     *
+     * @param parallelism How many configurations are evaluated at the same time
+     * @param rolls       How many times each configuration is rolled into a histogram, 0 for none.
+     *                    Sums are drawn from the exact distribution, see {@link SamplingMode#DIRECT_SUM}
+     * @param seed        Seed of the sweep. The configuration at position i rolls a generator derived from the seed and i
+     */
+    public ParameterSweep(int parallelism, long rolls, long seed) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        if (rolls < 0) throw new IllegalArgumentException("Rolls must not be negative: " + rolls);
+        workers = Executors.newFixedThreadPool(parallelism, (task) -> {
+            Thread thread = new Thread(task, "dice-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maxInFlight = parallelism * IN_FLIGHT_PER_WORKER;
+        this.rolls = rolls;
+        this.seed = seed;
+    }
+
+    /**
+     * Evaluates every configuration and hands over each result as soon as it is ready.
+     * Returns when every configuration has been handed over
+     *
+     * @param configurations Sides of each die of each configuration, e.g. from {@link #combinations}
+     * @param results        Receives each result on the calling thread, in the order they finish
+     * @throws IllegalArgumentException If a configuration has no die or a die with fewer than 1 side
+     */
+    public void run(Iterable<int[]> configurations, Consumer<SweepResult> results) {
+        CompletionService<List<SweepResult>> completion = new ExecutorCompletionService<>(workers);
+        Iterator<int[]> next = configurations.iterator();
+        long submitted = 0;
+        int inFlight = 0;
+        while (next.hasNext() || inFlight > 0) {
+            // Keep the workers busy without reading the whole generator ahead
+            while (inFlight < maxInFlight && next.hasNext()) {
+                // Small configurations go in chunks so handing a task to a worker does not cost more than the task
+                List<int[]> chunk = new ArrayList<>();
+                long chunkCost = 0;
+                while (next.hasNext() && chunk.size() < MAX_CHUNK && chunkCost < CHUNK_COST) {
+                    int[] sides = next.next().clone();
+                    chunkCost += validate(sides);
+                    chunk.add(sides);
+                }
+                long firstIndex = submitted;
+                submitted += chunk.size();
+                completion.submit(() -> evaluate(firstIndex, chunk));
+                inFlight++;
+            }
+            for (SweepResult result : take(completion)) results.accept(result);
+            inFlight--;
+        }
+    }
+
+    /**
+     * Waits for the next finished chunk
+     *
+     * @param completion The chunks in flight
+     * @return The results of the configurations of the chunk
+     */
+    private static List<SweepResult> take(CompletionService<List<SweepResult>> completion) {
+        try {
+            Future<List<SweepResult>> done = completion.take();
+            return done.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep was interrupted", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Configuration failed", exception.getCause());
+        }
+    }
+
+    /**
+     * Checks that a configuration can be evaluated
+     *
+     * @param sides Sides of each die
+     * @return The cost of convolving the dice one at a time
+     */
+    private static long validate(int[] sides) {
+        if (sides.length == 0) throw new IllegalArgumentException("A configuration needs at least 1 die");
+        long maxSum = 0;
+        for (int side : sides) {
+            if (side < 1) throw new IllegalArgumentException("A die needs at least 1 side: " + Arrays.toString(sides));
+            maxSum += side;
+        }
+        if (maxSum > Integer.MAX_VALUE) throw new IllegalArgumentException("The highest sum is too large: " + Arrays.toString(sides));
+        return sides.length * maxSum;
+    }
+
+    /**
+     * Evaluates a chunk of configurations on a worker
+     *
+     * @param firstIndex Position of the first configuration in the sweep
+     * @param chunk      Sides of each die of each configuration, owned by this call
+     * @return The results of the configurations in the order of the chunk
+     */
+    private List<SweepResult> evaluate(long firstIndex, List<int[]> chunk) {
+        List<SweepResult> results = new ArrayList<>(chunk.size());
+        PrefixChain chain = new PrefixChain();
+        for (int i = 0; i < chunk.size(); i++) {
+            int[] sides = chunk.get(i);
+            Arrays.sort(sides);
+            SumDistribution distribution = chain.distribution(sides);
+            SumHistogram histogram = null;
+            if (rolls > 0) {
+                // Drawn like a DIRECT_SUM collection, from the distribution at hand instead of the shared cache
+                SumSampler sampler = new SumSampler(distribution);
+                RandomGenerator random = GENERATORS.create(PartitionedHistogram.derivedSeed(seed, PartitionedHistogram.SWEEP_DOMAIN, firstIndex + i));
+                histogram = new SumHistogram(distribution.getMinimum(), distribution.getMaximum());
+                for (long roll = 0; roll < rolls; roll++) histogram.add(sampler.sample(random));
+                DiceMetrics.recordHistogram(rolls);
+            }
+            results.add(new SweepResult(firstIndex + i, sides, distribution, histogram));
+        }
+        return results;
+    }
+
+    /**
+     * Gives every configuration of a range of dice counts and sides where the order of the dice does not
+     * matter, from the fewest dice up. Configurations with the same number of dice come in lexicographic
+     * order of their sorted sides, so neighbours share their longest prefixes.
+     * The configurations are generated as they are read
+     *
+     * @param minDice  The fewest dice, at least 1
+     * @param maxDice  The most dice
+     * @param minSides The fewest sides of a die, at least 1
+     * @param maxSides The most sides of a die
+     * @return The configurations, e.g. {4}, {5}, ..., {20}, {4, 4}, {4, 5}, ... for 1 to 10 dice of 4 to 20 sides
+     */
+    public static Iterable<int[]> combinations(int minDice, int maxDice, int minSides, int maxSides) {
+        if (minDice < 1 || minSides < 1 || maxDice < minDice || maxSides < minSides)
+            throw new IllegalArgumentException("Invalid ranges of dice and sides");
+        return () -> new Iterator<>() {
+            /* The next configuration, or null when there is none left */
+            private int[] next = filled(minDice, minSides);
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public int[] next() {
+                if (next == null) throw new NoSuchElementException();
+                int[] current = next.clone();
+                advance();
+                return current;
+            }
+
+            /**
+             * Moves to the next sorted configuration: the last die that can still grow grows by one side
+             * and every die after it takes the same sides
+             */
+            private void advance() {
+                int die = next.length - 1;
+                while (die >= 0 && next[die] == maxSides) die--;
+                if (die >= 0) {
+                    Arrays.fill(next, die, next.length, next[die] + 1);
+                    return;
+                }
+                next = next.length < maxDice ? filled(next.length + 1, minSides) : null;
+            }
+        };
+    }
+
+    /**
+     * Gives dice that all have the same sides
+     *
+     * @param dice  How many dice
+     * @param sides Sides of each die
+     * @return The sides of each die
+     */
+    private static int[] filled(int dice, int sides) {
+        int[] filled = new int[dice];
+        Arrays.fill(filled, sides);
+        return filled;
+    }
+
+    /**
+     * Stops the workers. A sweep in progress on another thread fails
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * The distributions of every prefix of the previous configuration of a chunk. Neighbouring sorted
+     * configurations share long prefixes, so most configurations only convolve their last die.
+     * Nothing is looked up in or put into the shared cache
+     */
+    private static final class PrefixChain {
+        /* Sides of the previous configuration, sorted */
+        private int[] sides = new int[0];
+        /* Probabilities of the sums of the first k dice of the previous configuration at index k, null when unknown */
+        private double[][] prefixes = {{1}};
+
+        /**
+         * Gives the exact distribution of a configuration and remembers its prefixes for the next one
+         *
+         * @param sorted Sides of each die, sorted
+         * @return The exact distribution
+         */
+        SumDistribution distribution(int[] sorted) {
+            double[][] next = new double[sorted.length + 1][];
+            next[0] = prefixes[0];
+            int known = 0;
+            while (known < sorted.length && known < sides.length && sides[known] == sorted[known] && prefixes[known + 1] != null) {
+                next[known + 1] = prefixes[known + 1];
+                known++;
+            }
+
+            if (known == 0 && (long) sorted.length * Convolution.range(sorted) > Convolution.FFT_THRESHOLD) {
+                // Nothing to extend and enough dice for the FFT to be cheaper than convolving them one by one
+                next[sorted.length] = Convolution.probabilitiesFft(sorted);
+            } else {
+                for (int die = known; die < sorted.length; die++) next[die + 1] = Convolution.extend(next[die], sorted[die]);
+            }
+            sides = sorted;
+            prefixes = next;
+            return new SumDistribution(sorted.length, next[sorted.length]);
+        }
+    }
+}
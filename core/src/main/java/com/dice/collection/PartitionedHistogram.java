@@ -0,0 +1,171 @@
+package com.dice.collection;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Fork-join task that rolls a collection of dice many times with a result that does not depend on how
+ * the work is scheduled. The rolls are cut into blocks of {@value #BLOCK_ROLLS} rolls, and block k always
+ * rolls with its own generator seeded from the run's seed and k. Which thread rolls a block, and in what
+ * order, cannot change its rolls, and adding up the counts of the blocks gives the same histogram in any
+ * order, so a seed gives the same histogram bit for bit on 1 thread or 64.
+ * <p>
+ * The block size, the seed mixing and the generator algorithm are part of that promise: changing any of
+ * them changes every histogram of every seed.
+ */
+@SuppressWarnings("serial") // Fork/join tasks are never serialized
+class PartitionedHistogram extends RecursiveTask<SumHistogram> {
+    /* How many rolls each block makes. Only the last block of a run may make fewer */
+    static final int BLOCK_ROLLS = 1 << 14;
+    /* Algorithm of the generator of each block */
+    static final String ALGORITHM = "L64X128MixRandom";
+    /* Domain of the generators of the configurations of a parameter sweep, "SWEEP" */
+    static final long SWEEP_DOMAIN = 0x5357454550L;
+    /* Domain of the generators of the streams of a concurrent collection, "STREAM" */
+    static final long STREAM_DOMAIN = 0x53545245414DL;
+    /* Factory of the generators of the blocks */
+    private static final RandomGeneratorFactory<RandomGenerator> GENERATORS = RandomGeneratorFactory.of(ALGORITHM);
+
+    /* Runs of identical dice in the order of the collection. Only read by the tasks */
+    private final DiceGroup[] runs;
+    /* The lowest possible sum */
+    private final int minSum;
+    /* The highest possible sum */
+    private final int maxSum;
+    /* How many rolls the whole run makes */
+    private final long rolls;
+    /* Seed of the whole run */
+    private final long seed;
+    /* The first block of this task */
+    private final long firstBlock;
+    /* The block after the last block of this task */
+    private final long endBlock;
+    /* Tasks with this many blocks or fewer are not split any further */
+    private final long threshold;
+
+    /**
+     * Constructs a task for a range of blocks
+     *
+     * @param runs       Runs of identical dice in the order of the collection, see {@link DiceGroup#runs(int[])}
+     * @param minSum     The lowest possible sum of a roll
+     * @param maxSum     The highest possible sum of a roll
+     * @param rolls      How many rolls the whole run makes
+     * @param seed       Seed of the whole run
+     * @param firstBlock The first block of this task
+     * @param endBlock   The block after the last block of this task
+     * @param threshold  The largest number of blocks that a task rolls without splitting
+     */
+    PartitionedHistogram(DiceGroup[] runs, int minSum, int maxSum, long rolls, long seed, long firstBlock, long endBlock, long threshold) {
+        this.runs = runs;
+        this.minSum = minSum;
+        this.maxSum = maxSum;
+        this.rolls = rolls;
+        this.seed = seed;
+        this.firstBlock = firstBlock;
+        this.endBlock = endBlock;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Gives the number of blocks of a run
+     *
+     * @param rolls How many rolls the run makes
+     * @return The number of blocks, the last of which may be partial
+     */
+    static long blocks(long rolls) {
+        return (rolls + BLOCK_ROLLS - 1) / BLOCK_ROLLS;
+    }
+
+    /**
+     * Gives how many rolls a range of blocks of a run makes
+     *
+     * @param rolls      How many rolls the run makes
+     * @param firstBlock The first block
+     * @param endBlock   The block after the last block
+     * @return The number of rolls of the blocks
+     */
+    static long rolls(long rolls, long firstBlock, long endBlock) {
+        return Math.max(0, Math.min(rolls, endBlock * BLOCK_ROLLS) - firstBlock * BLOCK_ROLLS);
+    }
+
+    /**
+     * Either rolls the blocks directly or splits them between 2 subtasks then merges their histograms
+     *
+     * @return The histogram of this task's blocks
+     */
+    @Override
+    protected SumHistogram compute() {
+        if (endBlock - firstBlock <= threshold) return rollLocally();
+
+        long middle = firstBlock + (endBlock - firstBlock) / 2;
+        PartitionedHistogram right = new PartitionedHistogram(runs, minSum, maxSum, rolls, seed, middle, endBlock, threshold);
+        PartitionedHistogram left = new PartitionedHistogram(runs, minSum, maxSum, rolls, seed, firstBlock, middle, threshold);
+        right.fork();
+        SumHistogram tracker = left.compute();
+        tracker.merge(right.join());
+        return tracker;
+    }
+
+    /**
+     * Rolls every block of this task into a private histogram, die by die across each block
+     *
+     * @return The histogram of this task's blocks
+     */
+    private SumHistogram rollLocally() {
+        SumHistogram tracker = new SumHistogram(minSum, maxSum);
+        DiceKernels kernels = DiceKernels.get();
+        int[] sums = new int[BLOCK_ROLLS];
+        int[] bits = new int[BLOCK_ROLLS];
+        int[] thresholds = new int[runs.length];
+        for (int i = 0; i < runs.length; i++) thresholds[i] = DiceKernels.rejectThreshold(runs[i].sides());
+        for (long block = firstBlock; block < endBlock; block++) {
+            int count = (int) Math.min(BLOCK_ROLLS, rolls - block * BLOCK_ROLLS);
+            RandomGenerator random = GENERATORS.create(blockSeed(seed, block));
+            Arrays.fill(sums, 0, count, 0);
+            for (int i = 0; i < runs.length; i++)
+                for (int die = 0; die < runs[i].count(); die++) kernels.addRolls(random, runs[i].sides(), thresholds[i], sums, count, bits);
+            for (int r = 0; r < count; r++) tracker.add(sums[r]);
+        }
+        return tracker;
+    }
+
+    /**
+     * Gives the seed of a block. The run's seed is mixed before the block is added and the sum is mixed
+     * again, so no block of one seed starts the same stream as another block of a nearby seed, and
+     * neighbouring blocks give unrelated generators
+     *
+     * @param seed  Seed of the run
+     * @param block Index of the block
+     * @return The seed of the block's generator
+     */
+    static long blockSeed(long seed, long block) {
+        return mix(mix(seed) + (block + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Gives the seed of the generator at an index of some other use of a run's seed. Each use has its own
+     * domain, so the same seed never gives the generator of block k to anything but block k
+     *
+     * @param seed   Seed of the run
+     * @param domain Constant of the use, e.g. {@link #SWEEP_DOMAIN}
+     * @param index  Index of the generator within the use
+     * @return The seed of the generator
+     */
+    static long derivedSeed(long seed, long domain, long index) {
+        return mix(blockSeed(seed, index) ^ domain);
+    }
+
+    /**
+     * Scrambles the bits of a value with the SplitMix64 finalizer
+     *
+     * @param z The value
+     * @return The scrambled value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,18 @@
+package com.dice.collection;
+
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of one roll of every die of a collection.
+ * Rolls are far too frequent to record all the time, so the event is disabled unless a recording
+ * settings file enables com.dice.collection.Roll
+ */
+@Name("com.dice.collection.Roll")
+@Label("Roll")
+@Description("One roll of every die of a collection")
+@Enabled(false)
+final class RollEvent extends DiceEvent {
+}
@@ -0,0 +1,146 @@
+package com.dice.collection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Layout of a roll log file, shared by {@link RollLogWriter} and {@link RollLogReader}.
+ * All numbers are little-endian. The header holds:
+ * - int magic "DLOG" and int format version
+ * - long number of rolls recorded
+ * - int size of each segment in bytes
+ * - int number of dice, then int sides of each die
+ * and is padded to a multiple of 8 bytes. Fixed-size segments follow it. Every roll stores
+ * (up side - 1) of each die in as many bits as (sides - 1) needs, packed from the lowest bit of
+ * little-endian longs. A roll never crosses the end of a segment, so each segment can be mapped and
+ * decoded on its own and the file can be larger than one mapping.
+ */
+final class RollLog {
+    /* "DLOG" read as a little-endian int */
+    static final int MAGIC = 0x474F4C44;
+    /* Version of the layout described above */
+    static final int VERSION = 1;
+    /* Offset of the roll count in the header, rewritten when the writer closes */
+    static final int ROLLS_OFFSET = 8;
+    /* Size of the header before the sides */
+    private static final int FIXED_HEADER = 24;
+    /* Default size of a segment */
+    static final int DEFAULT_SEGMENT_BYTES = 1 << 24;
+
+    /* Sides of each die */
+    final int[] sides;
+    /* Bits stored for each die */
+    final int[] widths;
+    /* Bits stored for each roll */
+    final long bitsPerRoll;
+    /* Size of each segment */
+    final int segmentBytes;
+    /* How many rolls fit in a segment */
+    final long rollsPerSegment;
+    /* Size of the header, which is where the first segment starts */
+    final long headerBytes;
+
+    /**
+     * Computes the layout of a log of given dice
+     *
+     * @param sides        Sides of each die
+     * @param segmentBytes Size of each segment, a positive multiple of 8
+     */
+    RollLog(int[] sides, int segmentBytes) {
+        if (segmentBytes <= 0 || segmentBytes % Long.BYTES != 0)
+            throw new IllegalArgumentException("Segment size must be a positive multiple of 8: " + segmentBytes);
+        this.sides = sides.clone();
+        this.segmentBytes = segmentBytes;
+        widths = new int[sides.length];
+        long bits = 0;
+        for (int i = 0; i < sides.length; i++) {
+            if (sides[i] < 1) throw new IllegalArgumentException("Die " + i + " has no side");
+            widths[i] = Integer.SIZE - Integer.numberOfLeadingZeros(sides[i] - 1);
+            bits += widths[i];
+        }
+        bitsPerRoll = bits;
+        // A collection of 1-sided dice stores no bit at all, so any number of its rolls fits a segment
+        rollsPerSegment = bits == 0 ? Long.MAX_VALUE : segmentBytes * 8L / bits;
+        if (rollsPerSegment == 0)
+            throw new IllegalArgumentException("One roll takes " + bits + " bits, more than a segment of " + segmentBytes + " bytes");
+        headerBytes = (FIXED_HEADER + 4L * sides.length + 7) & ~7L;
+    }
+
+    /**
+     * Gives the offset in the file of a segment
+     *
+     * @param segment Index of the segment
+     * @return The offset of its first byte
+     */
+    long segmentOffset(long segment) {
+        return headerBytes + segment * segmentBytes;
+    }
+
+    /**
+     * Writes the header at the start of a file
+     *
+     * @param channel The file
+     * @param rolls   How many rolls are recorded
+     * @throws IOException If the file cannot be written
+     */
+    void writeHeader(FileChannel channel, long rolls) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate((int) headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(rolls).putInt(segmentBytes).putInt(sides.length);
+        for (int side : sides) header.putInt(side);
+        header.clear();
+        while (header.hasRemaining()) channel.write(header, header.position());
+    }
+
+    /**
+     * Reads the header at the start of a file
+     *
+     * @param channel The file
+     * @return The layout and the number of rolls recorded
+     * @throws IOException If the file cannot be read or is not a roll log
+     */
+    static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer fixed = readFully(channel, 0, FIXED_HEADER);
+        if (fixed.getInt() != MAGIC) throw new IOException("Not a roll log");
+        int version = fixed.getInt();
+        if (version != VERSION) throw new IOException("Unsupported roll log version " + version);
+        long rolls = fixed.getLong();
+        int segmentBytes = fixed.getInt();
+        int dice = fixed.getInt();
+        if (dice < 0 || FIXED_HEADER + 4L * dice > channel.size()) throw new IOException("Corrupt roll log header");
+        ByteBuffer sideBytes = readFully(channel, FIXED_HEADER, 4 * dice);
+        int[] sides = new int[dice];
+        for (int i = 0; i < dice; i++) sides[i] = sideBytes.getInt();
+        try {
+            return new Header(new RollLog(sides, segmentBytes), rolls);
+        } catch (IllegalArgumentException exception) {
+            throw new IOException("Corrupt roll log header", exception);
+        }
+    }
+
+    /**
+     * Reads bytes from a file until the buffer is full
+     *
+     * @param channel  The file
+     * @param position Where to start reading
+     * @param length   How many bytes to read
+     * @return A little-endian buffer ready to be read
+     * @throws IOException If the file ends first
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Roll log is truncated");
+        return buffer.flip();
+    }
+
+    /**
+     * The header of an existing log
+     *
+     * @param layout The layout of the log
+     * @param rolls  How many rolls are recorded
+     */
+    record Header(RollLog layout, long rolls) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.dice.collection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Blueprint for a reader of a log written by {@link RollLogWriter}.
+ * Segments are mapped read-only and the rolls are unpacked straight from the mapping, so nothing is
+ * copied into the heap except the up sides of the roll being replayed. A packed value that is not a side of
+ * its die can only come from a corrupt file, so it stops the replay with an IOException.
+ * Objects created from this class provides access to:
+ * - sides of the dice and number of rolls in the log
+ * - ability to replay every roll in order
+ * - ability to rebuild the histogram of the sums
+ */
+public final class RollLogReader implements Closeable {
+    /* The file being read */
+    private final FileChannel channel;
+    /* Layout of the file */
+    private final RollLog layout;
+    /* How many rolls the log holds */
+    private final long rolls;
+
+    /**
+     * Opens a log
+     *
+     * @param path Where the log is
+     * @throws IOException If the file cannot be read, is not a roll log, or is shorter than its header says
+     */
+    public RollLogReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            RollLog.Header header = RollLog.readHeader(channel);
+            layout = header.layout();
+            rolls = header.rolls();
+            if (rolls < 0 || rolls > 0 && endOfRoll(rolls - 1) > channel.size())
+                throw new IOException("Roll log is truncated");
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Get the sides of each die
+     *
+     * @return A new array with the sides of each die in the order of the log
+     */
+    public int[] getSides() {
+        return layout.sides.clone();
+    }
+
+    /**
+     * Give the number of rolls in the log
+     *
+     * @return The number of rolls
+     */
+    public long getRolls() {
+        return rolls;
+    }
+
+    /**
+     * Replays every roll in the order it was recorded
+     *
+     * @param consumer Receives the up sides of each roll. The same array is filled again for the next roll,
+     *                 so it has to be copied to be kept
+     * @throws IOException If a segment cannot be mapped or holds a side a die does not have
+     */
+    public void replay(Consumer<int[]> consumer) throws IOException {
+        decode((upSides, sum) -> consumer.accept(upSides));
+    }
+
+    /**
+     * Counts the sum of every roll in the log
+     *
+     * @return A histogram of the sums, the same as the one of the rolls when they were recorded
+     * @throws IOException If a segment cannot be mapped or holds a side a die does not have
+     */
+    public SumHistogram histogram() throws IOException {
+        int maximum = 0;
+        for (int side : layout.sides) maximum += side;
+        SumHistogram tracker = new SumHistogram(layout.sides.length, maximum);
+        decode((upSides, sum) -> tracker.add(sum));
+        return tracker;
+    }
+
+    /**
+     * Unpacks every roll, one segment at a time
+     *
+     * @param sink Receives the up sides and the sum of each roll
+     * @throws IOException If a segment cannot be mapped or holds a side a die does not have
+     */
+    private void decode(RollSink sink) throws IOException {
+        int[] sides = layout.sides;
+        int[] widths = layout.widths;
+        int[] upSides = new int[widths.length];
+        for (long first = 0, index = 0; first < rolls; first += layout.rollsPerSegment, index++) {
+            long count = Math.min(layout.rollsPerSegment, rolls - first);
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, layout.segmentOffset(index), segmentLength(count));
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+
+            /* Bits read but not yet unpacked, from the lowest bit */
+            long available = 0;
+            /* How many bits of available are left */
+            int availableBits = 0;
+            for (long roll = 0; roll < count; roll++) {
+                int sum = 0;
+                for (int i = 0; i < widths.length; i++) {
+                    int width = widths[i];
+                    long value;
+                    if (availableBits >= width) {
+                        value = available & ((1L << width) - 1);
+                        available >>>= width;
+                        availableBits -= width;
+                    } else {
+                        // The value continues in the next long
+                        long next = segment.getLong();
+                        value = (available | next << availableBits) & ((1L << width) - 1);
+                        available = next >>> (width - availableBits);
+                        availableBits = Long.SIZE - (width - availableBits);
+                    }
+                    // The bits of a die can hold values past its sides, which only corrupt data packs
+                    if (value >= sides[i])
+                        throw new IOException("Corrupt roll log: roll " + (first + roll) + " has " + (value + 1) + " up on die " + i + " of " + sides[i] + " sides");
+                    upSides[i] = (int) value + 1;
+                    sum += upSides[i];
+                }
+                sink.accept(upSides, sum);
+            }
+        }
+    }
+
+    /**
+     * Gives the bytes that rolls at the start of a segment take
+     *
+     * @param count How many rolls
+     * @return The length in bytes, rounded up to whole longs
+     */
+    private long segmentLength(long count) {
+        return (count * layout.bitsPerRoll + Long.SIZE - 1) / Long.SIZE * Long.BYTES;
+    }
+
+    /**
+     * Gives the offset just past the last long a roll is stored in
+     *
+     * @param roll Index of the roll
+     * @return The offset in the file
+     */
+    private long endOfRoll(long roll) {
+        long segment = roll / layout.rollsPerSegment;
+        return layout.segmentOffset(segment) + segmentLength(roll % layout.rollsPerSegment + 1);
+    }
+
+    /**
+     * Closes the file
+     *
+     * @throws IOException If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Receives each unpacked roll
+     */
+    @FunctionalInterface
+    private interface RollSink {
+        /**
+         * Receives one roll
+         *
+         * @param upSides The up side of each die
+         * @param sum     The sum of the up sides
+         */
+        void accept(int[] upSides, int sum);
+    }
+}
@@ -0,0 +1,190 @@
+package com.dice.collection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Blueprint for a recorder of every individual roll of a collection of dice.
+ * Each die takes as many bits as its highest up side needs, so a roll of ten d6 takes 30 bits instead
+ * of the 40 bytes of an int array. Packed rolls go straight into a memory-mapped segment of the file,
+ * one long at a time, and the next segment is mapped when one is full, so recording never goes through
+ * a stream and a log can hold far more than one mapping. The layout is described in {@link RollLog}.
+ * A writer is used by one thread at a time.
+ * Objects created from this class provides access to:
+ * - ability to record a roll
+ * - number of rolls recorded so far
+ */
+public final class RollLogWriter implements Closeable {
+    /* The file being written */
+    private final FileChannel channel;
+    /* Layout of the file */
+    private final RollLog layout;
+    /* Bits stored for each die, copied out of the layout for the packing loop */
+    private final int[] widths;
+    /* The mapping of the segment being written */
+    private MappedByteBuffer segment;
+    /* Index of the segment being written */
+    private long segmentIndex;
+    /* How many rolls the current segment holds */
+    private long segmentRolls;
+    /* Bits packed but not yet written, from the lowest bit */
+    private long pending;
+    /* How many bits of pending are used */
+    private int pendingBits;
+    /* How many rolls have been recorded */
+    private long rolls;
+    /* Position in the roll being written of the next die, 0 between rolls */
+    private int nextDie;
+    /* Whether the writer has been closed */
+    private boolean closed;
+
+    /**
+     * Creates a log for given dice, replacing any file at the path
+     *
+     * @param path  Where to write the log
+     * @param sides Sides of each die, in the order their up sides will be written
+     * @throws IOException If the file cannot be created
+     */
+    public RollLogWriter(Path path, int[] sides) throws IOException {
+        this(path, sides, RollLog.DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Creates a log for given dice, replacing any file at the path.
+     * The file grows one segment at a time, so the last segment is padded up to its full size
+     *
+     * @param path         Where to write the log
+     * @param sides        Sides of each die, in the order their up sides will be written
+     * @param segmentBytes Size of each mapped segment, a positive multiple of 8
+     * @throws IOException If the file cannot be created
+     */
+    public RollLogWriter(Path path, int[] sides, int segmentBytes) throws IOException {
+        layout = new RollLog(sides, segmentBytes);
+        widths = layout.widths;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            layout.writeHeader(channel, 0);
+            segment = map(0);
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Records one roll
+     *
+     * @param upSides The up side of each die, between 1 and its sides
+     * @throws IOException If the next segment cannot be mapped
+     */
+    public void write(int[] upSides) throws IOException {
+        if (nextDie != 0) throw new IllegalStateException("A roll is partly written");
+        if (upSides.length != widths.length)
+            throw new IllegalArgumentException("Expected " + widths.length + " up sides, got " + upSides.length);
+        writeDice(upSides, upSides.length);
+    }
+
+    /**
+     * Records the up sides of the next dice of a roll, for collections too large to hold a whole roll
+     * in one array. The roll is recorded once its last die is written
+     *
+     * @param upSides The up side of each of the next dice, between 1 and its sides
+     * @param count   How many dice of upSides to write
+     * @throws IOException If the next segment cannot be mapped
+     */
+    void writeDice(int[] upSides, int count) throws IOException {
+        if (closed) throw new IOException("Roll log is closed");
+        if (count > widths.length - nextDie)
+            throw new IllegalArgumentException("Only " + (widths.length - nextDie) + " dice are left in the roll, got " + count);
+        if (nextDie == 0 && segmentRolls == layout.rollsPerSegment) nextSegment();
+        long packed = pending;
+        int bits = pendingBits;
+        for (int i = 0; i < count; i++) {
+            long value = upSides[i] - 1;
+            int width = widths[nextDie + i];
+            packed |= value << bits;
+            bits += width;
+            // The long is full: write it and keep the bits of the value that did not fit
+            if (bits >= Long.SIZE) {
+                segment.putLong(packed);
+                bits -= Long.SIZE;
+                packed = bits == 0 ? 0 : value >>> (width - bits);
+            }
+        }
+        pending = packed;
+        pendingBits = bits;
+        nextDie += count;
+        if (nextDie == widths.length) {
+            nextDie = 0;
+            segmentRolls++;
+            rolls++;
+        }
+    }
+
+    /**
+     * Give the number of rolls recorded so far
+     *
+     * @return The number of rolls
+     */
+    public long getRolls() {
+        return rolls;
+    }
+
+    /**
+     * Writes the bits of the current segment that do not fill a long yet, then maps the next segment
+     *
+     * @throws IOException If the next segment cannot be mapped
+     */
+    private void nextSegment() throws IOException {
+        flushPending();
+        segment = map(++segmentIndex);
+        segmentRolls = 0;
+    }
+
+    /**
+     * Writes the bits that do not fill a long yet
+     */
+    private void flushPending() {
+        if (pendingBits > 0) segment.putLong(pending);
+        pending = 0;
+        pendingBits = 0;
+    }
+
+    /**
+     * Maps a segment for writing, which grows the file to hold it
+     *
+     * @param index Index of the segment
+     * @return The little-endian mapping
+     * @throws IOException If the segment cannot be mapped
+     */
+    private MappedByteBuffer map(long index) throws IOException {
+        MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, layout.segmentOffset(index), layout.segmentBytes);
+        mapping.order(ByteOrder.LITTLE_ENDIAN);
+        return mapping;
+    }
+
+    /**
+     * Writes the remaining bits and the number of rolls, then flushes the log to the storage device
+     *
+     * @throws IOException If the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flushPending();
+            segment.force();
+            layout.writeHeader(channel, rolls);
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dice.collection;
+
+import java.util.Arrays;
+
+/**
+ * An immutable record of one roll of a collection of dice: the sum and the side facing up of each die.
+ * The sum is recorded when the roll is made, so reading it never walks the dice again
+ *
+ * @param sum     The sum of all sides facing up
+ * @param upSides The side facing up of each die in the order of the collection
+ */
+public record RollResult(int sum, int[] upSides) {
+
+    /**
+     * Constructs the record from a copy of the up sides, so later changes to the caller's array do not change it
+     *
+     * @param sum     The sum of all sides facing up
+     * @param upSides The side facing up of each die in the order of the collection
+     */
+    public RollResult {
+        upSides = upSides.clone();
+    }
+
+    /**
+     * Give the number of dice of the roll
+     *
+     * @return The number of dice
+     */
+    public int size() {
+        return upSides.length;
+    }
+
+    /**
+     * Give the side facing up of one die
+     *
+     * @param index The position of the die in the collection, starting from 0
+     * @return The side facing up
+     */
+    public int upSide(int index) {
+        return upSides[index];
+    }
+
+    /**
+     * Give a copy of the side facing up of each die, so the record cannot be changed through it
+     *
+     * @return A new array with the side facing up of each die
+     */
+    @Override
+    public int[] upSides() {
+        return upSides.clone();
+    }
+
+    /**
+     * Tell whether another roll has the same sum and the same side facing up on each die
+     *
+     * @param other The object to compare with
+     * @return true when both rolls are equal
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RollResult roll && sum == roll.sum && Arrays.equals(upSides, roll.upSides);
+    }
+
+    /**
+     * Give a hash code from the sum and the content of the up sides
+     *
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Integer.hashCode(sum) + Arrays.hashCode(upSides);
+    }
+
+    /**
+     * Give the sum and the side facing up of each die
+     *
+     * @return e.g. RollResult[sum=7, upSides=[3, 4]]
+     */
+    @Override
+    public String toString() {
+        return "RollResult[sum=" + sum + ", upSides=" + Arrays.toString(upSides) + "]";
+    }
+}
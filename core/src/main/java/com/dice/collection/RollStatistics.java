@@ -0,0 +1,324 @@
+package com.dice.collection;
+
+import java.util.Arrays;
+
+/**
+ * Blueprint for statistics of the sums of many rolls, updated one sum at a time in constant memory.
+ * Moments are accumulated with the online updates of Welford and Terriberry, quantiles are estimated
+ * with the P² algorithm, and sums are counted in at most {@value #MAX_BINS} bins of similar probability
+ * so the rolls can be tested against the exact distribution of the dice without being stored.
+ * Objects created from this class provides access to:
+ * - count, mean, variance, standard deviation and skewness of the sums
+ * - lowest and highest sum
+ * - estimated quantiles
+ * - a chi-square goodness-of-fit test against the exact distribution
+ */
+public final class RollStatistics {
+    /* Quantiles tracked when none are given */
+    private static final double[] DEFAULT_QUANTILES = {0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99};
+    /* Highest number of bins the sums are counted in */
+    private static final int MAX_BINS = 128;
+    /* The chi-square test is only valid when every bin expects at least this many sums */
+    private static final double MIN_EXPECTED = 5;
+
+    /* The lowest and highest possible sum */
+    private final int minimumSum, maximumSum;
+    /* Highest sum of each bin, ascending */
+    private final int[] binUpper;
+    /* Exact probability of each bin */
+    private final double[] binProbability;
+    /* How many sums fell in each bin */
+    private final long[] binCounts;
+    /* Estimators of the tracked quantiles */
+    private final P2Quantile[] quantiles;
+
+    /* How many sums have been added */
+    private long count;
+    /* Running mean of the sums */
+    private double mean;
+    /* Running sums of the squared and cubed deviations from the mean */
+    private double m2, m3;
+    /* The lowest and highest sum added so far */
+    private int lowest, highest;
+
+    /**
+     * Constructs empty statistics that track the default quantiles: 1%, 5%, 25%, 50%, 75%, 95% and 99%
+     *
+     * @param distribution The exact distribution the sums are tested against
+     */
+    public RollStatistics(SumDistribution distribution) {
+        this(distribution, DEFAULT_QUANTILES);
+    }
+
+    /**
+     * Constructs empty statistics
+     *
+     * @param distribution The exact distribution the sums are tested against
+     * @param quantiles    The quantiles to estimate, each between 0 and 1
+     */
+    public RollStatistics(SumDistribution distribution, double... quantiles) {
+        minimumSum = distribution.getMinimum();
+        maximumSum = distribution.getMaximum();
+        lowest = maximumSum + 1;
+        highest = minimumSum - 1;
+
+        this.quantiles = new P2Quantile[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) this.quantiles[i] = new P2Quantile(quantiles[i]);
+
+        // Close a bin once it holds about 1 / MAX_BINS of the probability, so the tails share bins
+        double[] probabilities = distribution.getProbabilities();
+        int[] upper = new int[MAX_BINS + 1];
+        double[] probability = new double[MAX_BINS + 1];
+        int bins = 0;
+        double open = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            open += probabilities[i];
+            if (open >= 1.0 / MAX_BINS || i == probabilities.length - 1) {
+                upper[bins] = minimumSum + i;
+                probability[bins++] = open;
+                open = 0;
+            }
+        }
+        binUpper = Arrays.copyOf(upper, bins);
+        binProbability = Arrays.copyOf(probability, bins);
+        binCounts = new long[bins];
+    }
+
+    /**
+     * Adds the sum of one roll
+     *
+     * @param sum The sum of all up sides
+     */
+    public void add(int sum) {
+        if (sum < minimumSum || sum > maximumSum)
+            throw new IllegalArgumentException("Sum " + sum + " is out of range " + minimumSum + ".." + maximumSum);
+
+        // Update the third moment before the second since it uses the previous one
+        double previous = count++;
+        double delta = sum - mean;
+        double deltaN = delta / count;
+        double term = delta * deltaN * previous;
+        mean += deltaN;
+        m3 += term * deltaN * (count - 2) - 3 * deltaN * m2;
+        m2 += term;
+
+        if (sum < lowest) lowest = sum;
+        if (sum > highest) highest = sum;
+        for (P2Quantile quantile : quantiles) quantile.add(sum);
+
+        int bin = Arrays.binarySearch(binUpper, sum);
+        binCounts[bin >= 0 ? bin : -bin - 1]++;
+    }
+
+    /**
+     * Give how many sums have been added
+     *
+     * @return The number of sums
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Give the mean of the sums
+     *
+     * @return The mean, or NaN if no sum has been added
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Give the sample variance of the sums
+     *
+     * @return The variance, or NaN if fewer than 2 sums have been added
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * Give the sample standard deviation of the sums
+     *
+     * @return The standard deviation, or NaN if fewer than 2 sums have been added
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Give the skewness of the sums. The sum of fair dice is symmetric, so it should be close to 0
+     *
+     * @return The skewness, or NaN if the sums do not vary yet
+     */
+    public double getSkewness() {
+        return m2 == 0 ? Double.NaN : Math.sqrt(count) * m3 / Math.pow(m2, 1.5);
+    }
+
+    /**
+     * Give the lowest sum added so far
+     *
+     * @return The lowest sum, or the highest possible sum + 1 if no sum has been added
+     */
+    public int getMinimum() {
+        return lowest;
+    }
+
+    /**
+     * Give the highest sum added so far
+     *
+     * @return The highest sum, or the lowest possible sum - 1 if no sum has been added
+     */
+    public int getMaximum() {
+        return highest;
+    }
+
+    /**
+     * Give the estimate of a tracked quantile
+     *
+     * @param p The quantile, one of the quantiles given when constructing the statistics
+     * @return The estimated sum at that quantile, or NaN if no sum has been added
+     */
+    public double quantile(double p) {
+        for (P2Quantile quantile : quantiles)
+            if (quantile.quantile() == p) return quantile.value();
+        throw new IllegalArgumentException("Quantile " + p + " is not tracked");
+    }
+
+    /**
+     * Give the quantiles that are tracked
+     *
+     * @return A new array with the quantiles in the order they were given
+     */
+    public double[] getQuantiles() {
+        double[] tracked = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) tracked[i] = quantiles[i].quantile();
+        return tracked;
+    }
+
+    /**
+     * Tests the sums against the exact distribution with Pearson's chi-square test.
+     * Neighbouring bins are merged until each expects at least {@value #MIN_EXPECTED} sums,
+     * so few rolls give a test with few degrees of freedom rather than an invalid one
+     *
+     * @return The statistic, degrees of freedom and p-value of the test
+     */
+    public ChiSquareTest chiSquareTest() {
+        double[] expectedCells = new double[binCounts.length];
+        long[] observedCells = new long[binCounts.length];
+        int cells = 0;
+        double expected = 0;
+        long observed = 0;
+        for (int bin = 0; bin < binCounts.length; bin++) {
+            expected += binProbability[bin] * count;
+            observed += binCounts[bin];
+            if (expected < MIN_EXPECTED) continue;
+            expectedCells[cells] = expected;
+            observedCells[cells++] = observed;
+            expected = 0;
+            observed = 0;
+        }
+        // What is left of the upper tail expects too few sums on its own, so it joins the last cell
+        if (cells == 0) return new ChiSquareTest(0, 0, 1);
+        expectedCells[cells - 1] += expected;
+        observedCells[cells - 1] += observed;
+
+        double statistic = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            double difference = observedCells[cell] - expectedCells[cell];
+            statistic += difference * difference / expectedCells[cell];
+        }
+        int degreesOfFreedom = cells - 1;
+        if (degreesOfFreedom < 1) return new ChiSquareTest(0, 0, 1);
+        return new ChiSquareTest(statistic, degreesOfFreedom, upperRegularizedGamma(degreesOfFreedom / 2.0, statistic / 2));
+    }
+
+    /**
+     * Gives the regularized upper incomplete gamma function Q(a, x), which is the chance that a
+     * chi-square variable with 2a degrees of freedom exceeds 2x.
+     * The series converges quickly below a + 1 and the continued fraction above it
+     *
+     * @param a The shape, positive
+     * @param x The point, not negative
+     * @return Q(a, x) between 0 and 1
+     */
+    static double upperRegularizedGamma(double a, double x) {
+        if (x <= 0) return 1;
+        double logPrefix = a * Math.log(x) - x - logGamma(a);
+        if (x < a + 1) {
+            double term = 1 / a, sum = term;
+            for (double n = a + 1; Math.abs(term) > Math.abs(sum) * 1e-15; n++) {
+                term *= x / n;
+                sum += term;
+            }
+            return Math.max(0, 1 - sum * Math.exp(logPrefix));
+        }
+        // Modified Lentz evaluation of the continued fraction
+        final double tiny = 1e-300;
+        double b = x + 1 - a, c = 1 / tiny, d = 1 / b, fraction = d;
+        for (int i = 1; i < 10_000; i++) {
+            double an = -i * (i - a);
+            b += 2;
+            d = an * d + b;
+            if (Math.abs(d) < tiny) d = tiny;
+            c = b + an / c;
+            if (Math.abs(c) < tiny) c = tiny;
+            d = 1 / d;
+            double delta = d * c;
+            fraction *= delta;
+            if (Math.abs(delta - 1) < 1e-15) break;
+        }
+        return Math.exp(logPrefix) * fraction;
+    }
+
+    /**
+     * Gives the natural logarithm of the gamma function with the Lanczos approximation
+     *
+     * @param x The point, at least 0.5
+     * @return ln Γ(x)
+     */
+    private static double logGamma(double x) {
+        final double[] coefficients = {0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+                771.32342877765313, -176.61502916214059, 12.507343278686905,
+                -0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7};
+        x -= 1;
+        double series = coefficients[0];
+        for (int i = 1; i < coefficients.length; i++) series += coefficients[i] / (x + i);
+        double t = x + 7.5;
+        return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(series);
+    }
+
+    /**
+     * Give a report of the statistics
+     *
+     * @return Count, mean, standard deviation, skewness, range, quantiles and the chi-square test
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("Rolls: ").append(count);
+        report.append("\nMean: ").append(String.format("%.4f", getMean()));
+        report.append("\nStandard deviation: ").append(String.format("%.4f", getStandardDeviation()));
+        report.append("\nSkewness: ").append(String.format("%.4f", getSkewness()));
+        report.append("\nLowest sum: ").append(lowest).append(", highest sum: ").append(highest);
+        for (P2Quantile quantile : quantiles)
+            report.append(String.format("%nQuantile %s: %.2f", quantile.quantile(), quantile.value()));
+        report.append("\n").append(chiSquareTest());
+        return report.toString();
+    }
+
+    /**
+     * The result of a chi-square goodness-of-fit test. A small p-value, e.g. below 0.001, means the
+     * sums are unlikely to come from fair dice
+     *
+     * @param statistic        Pearson's chi-square statistic
+     * @param degreesOfFreedom Number of cells minus 1
+     * @param pValue           Chance of a statistic at least this large if the dice are fair
+     */
+    public record ChiSquareTest(double statistic, int degreesOfFreedom, double pValue) {
+        @Override
+        public String toString() {
+            return String.format("Chi-square: %.2f with %d degrees of freedom, p-value %.4f", statistic, degreesOfFreedom, pValue);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.dice.collection;
+
+/**
+ * How a collection of dice produces the sums of many rolls
+ */
+public enum SamplingMode {
+    /* Roll every die and add up the sides facing up */
+    ROLL_DICE,
+    /* Draw the sum straight from the exact distribution of the collection, without rolling any die */
+    DIRECT_SUM
+}
@@ -0,0 +1,53 @@
+package com.dice.collection;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Plain loop implementation of the dice kernels, used when the Vector API is not available
+ */
+final class ScalarDiceKernels implements DiceKernels {
+
+    /**
+     * Rolls every die once
+     *
+     * @param random     The random generator
+     * @param sides      Sides of each die
+     * @param thresholds Rejection threshold of each die
+     * @param upSides    Receives the side facing up of each die
+     * @param bits       Scratch space for random values, at least as long as sides
+     * @return The sum of all sides facing up
+     */
+    @Override
+    public int roll(RandomGenerator random, int[] sides, int[] thresholds, int[] upSides, int[] bits) {
+        int n = sides.length;
+        DiceKernels.fillRandom(random, bits, n);
+        for (int i = 0; i < n; i++) upSides[i] = DiceKernels.bounded(bits[i], sides[i], thresholds[i]);
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            if (upSides[i] == 0) upSides[i] = DiceKernels.redraw(random, sides[i], thresholds[i]);
+            sum += upSides[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Rolls one die many times and adds each roll to a different sum
+     *
+     * @param random    The random generator
+     * @param sides     Sides of the die
+     * @param threshold Rejection threshold of the die
+     * @param sums      Sums where roll r is added to sums[r]
+     * @param count     How many rolls to add
+     * @param bits      Scratch space for random values, at least count long
+     */
+    @Override
+    public void addRolls(RandomGenerator random, int sides, int threshold, int[] sums, int count, int[] bits) {
+        DiceKernels.fillRandom(random, bits, count);
+        for (int r = 0; r < count; r++) bits[r] = DiceKernels.bounded(bits[r], sides, threshold);
+        for (int r = 0; r < count; r++) {
+            int side = bits[r];
+            if (side == 0) side = DiceKernels.redraw(random, sides, threshold);
+            sums[r] += side;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.dice.collection;
+
+/**
+ * The approximate probability distribution of the sum of a collection of dice, for collections too large
+ * to convolve. A die with n sides has mean (n + 1) / 2, variance (n^2 - 1) / 12, no skew and fourth
+ * cumulant -(n^2 - 1)(n^2 + 1) / 120; the cumulants of the sum are the sums of those of the dice, so the
+ * approximation costs one pass over the sides and nothing per possible sum.
+ * <p>
+ * Probabilities come from the Edgeworth expansion of the sum around the normal distribution. The sum of
+ * dice is symmetric, so the skewness term is 0 and the first correction is the kurtosis term: the density
+ * is multiplied by 1 + k / 24 He4(z) and the cumulative probability is lowered by k / 24 He3(z) times the
+ * normal density, where k is the excess kurtosis and He the Hermite polynomials. Cumulative probabilities
+ * are taken half a sum above each sum, since the sum only takes whole values.
+ * <p>
+ * {@link #errorBound()} bounds the error of every cumulative probability. It adds the Berry-Esseen bound
+ * 0.56 * sum(E|X - mean|^3) / sd^3 of the normal approximation (Shevtsova's constant for dice that are not
+ * identical), the most the half-sum shift can move the normal curve, 0.2 / sd, and the largest size of the
+ * kurtosis term, 0.551 * |k| / 24. The true error is usually far smaller.
+ * <p>
+ * When the collection has few enough possible sums, the exact distribution is computed instead, and every
+ * probability is exact with an error bound of 0.
+ * Objects created from this class are immutable and provide access to:
+ * - the lowest and highest possible sum
+ * - the mean, variance and excess kurtosis of the sum
+ * - the probability of each possible sum
+ * - the cumulative probability up to each sum, with a bound of its error
+ */
+public final class SumApproximation {
+    /* Default of the most possible sums for which the exact distribution is computed instead */
+    public static final int DEFAULT_EXACT_LIMIT = 1 << 12;
+    /* The Berry-Esseen constant for sums of independent variables that are not identically distributed */
+    private static final double BERRY_ESSEEN = 0.56;
+    /* The largest value of |He3(z)| times the normal density */
+    private static final double MAX_HE3_DENSITY = 0.551;
+    /* 1 / sqrt(2 pi), the normal density at 0 */
+    private static final double INV_SQRT_2PI = 0.3989422804014327;
+
+    /* The lowest possible sum */
+    private final int minimum;
+    /* The highest possible sum */
+    private final int maximum;
+    /* Mean of the sum */
+    private final double mean;
+    /* Variance of the sum */
+    private final double variance;
+    /* Standard deviation of the sum */
+    private final double standardDeviation;
+    /* Fourth cumulant divided by the variance squared */
+    private final double excessKurtosis;
+    /* Bound of the error of every cumulative probability */
+    private final double errorBound;
+    /* The exact distribution when the collection is small enough, otherwise null */
+    private final SumDistribution exact;
+
+    /**
+     * Computes the approximation of the sum of given dice, or the exact distribution
+     * when they have at most exactLimit possible sums
+     *
+     * @param sides      Sides of each die
+     * @param exactLimit The most possible sums for which the exact distribution is computed
+     */
+    SumApproximation(int[] sides, long exactLimit) {
+        this(DiceGroup.group(sides), exactLimit);
+    }
+
+    /**
+     * Computes the approximation of the sum of groups of identical dice, or the exact distribution
+     * when they have at most exactLimit possible sums. Each group costs the same whatever its count
+     *
+     * @param groups     The groups of dice
+     * @param exactLimit The most possible sums for which the exact distribution is computed
+     */
+    SumApproximation(DiceGroup[] groups, long exactLimit) {
+        long dice = 0;
+        long maxSum = 0;
+        double sumMean = 0;
+        double sumVariance = 0;
+        double fourthCumulant = 0;
+        double absoluteThirdMoments = 0;
+        for (DiceGroup group : groups) {
+            int n = group.sides();
+            long count = group.count();
+            double squareMinusOne = (double) n * n - 1;
+            dice += count;
+            maxSum += n * count;
+            sumMean += count * (n + 1) / 2.0;
+            sumVariance += count * squareMinusOne / 12;
+            fourthCumulant -= count * squareMinusOne * (squareMinusOne + 2) / 120;
+            absoluteThirdMoments += count * absoluteThirdMoment(n);
+        }
+        minimum = Math.toIntExact(dice);
+        maximum = Math.toIntExact(maxSum);
+        mean = sumMean;
+        variance = sumVariance;
+        standardDeviation = Math.sqrt(sumVariance);
+        if (variance == 0 || (long) maximum - minimum + 1 <= exactLimit) {
+            exact = DistributionCache.shared().exactDistribution(groups);
+            excessKurtosis = variance == 0 ? 0 : fourthCumulant / (variance * variance);
+            errorBound = 0;
+            return;
+        }
+        exact = null;
+        excessKurtosis = fourthCumulant / (variance * variance);
+        errorBound = Math.min(1, BERRY_ESSEEN * absoluteThirdMoments / (variance * standardDeviation)
+                + INV_SQRT_2PI / (2 * standardDeviation)
+                + MAX_HE3_DENSITY * Math.abs(excessKurtosis) / 24);
+    }
+
+    /**
+     * Gives E|X - mean|^3 of one die. The distances to the mean are 0 to m for n = 2m + 1 sides
+     * and 1/2, 3/2 up to (2p - 1)/2 for n = 2p sides, each taken twice but 0
+     *
+     * @param n Sides of the die
+     * @return The third absolute central moment
+     */
+    private static double absoluteThirdMoment(int n) {
+        if ((n & 1) == 1) {
+            double m = (n - 1) / 2.0;
+            double sumOfCubes = m * (m + 1) / 2; // 1^3 + ... + m^3 is the square of 1 + ... + m
+            return 2 * sumOfCubes * sumOfCubes / n;
+        }
+        double p = n / 2.0;
+        return p * p * (2 * p * p - 1) / (4 * n); // 1^3 + 3^3 + ... + (2p - 1)^3 is p^2 (2p^2 - 1)
+    }
+
+    /**
+     * Tell whether the probabilities are exact, because the collection has few enough possible sums
+     *
+     * @return true when the exact distribution was computed
+     */
+    public boolean isExact() {
+        return exact != null;
+    }
+
+    /**
+     * Give access to the exact distribution when it was computed
+     *
+     * @return The exact distribution, or null when the probabilities are approximated
+     */
+    public SumDistribution getExactDistribution() {
+        return exact;
+    }
+
+    /**
+     * Give access to the lowest possible sum
+     *
+     * @return The lowest possible sum
+     */
+    public int getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Give access to the highest possible sum
+     *
+     * @return The highest possible sum
+     */
+    public int getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Give the mean of the sum, which is exact
+     *
+     * @return The mean
+     */
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * Give the variance of the sum, which is exact
+     *
+     * @return The variance
+     */
+    public double variance() {
+        return variance;
+    }
+
+    /**
+     * Give the standard deviation of the sum, which is exact
+     *
+     * @return The standard deviation
+     */
+    public double standardDeviation() {
+        return standardDeviation;
+    }
+
+    /**
+     * Give the excess kurtosis of the sum, which is exact. It is negative for dice and goes to 0 as dice are added
+     *
+     * @return The excess kurtosis
+     */
+    public double excessKurtosis() {
+        return excessKurtosis;
+    }
+
+    /**
+     * Give the bound of the error of every cumulative probability
+     *
+     * @return The largest possible difference between a cumulative probability and the true one, 0 when exact
+     */
+    public double errorBound() {
+        return errorBound;
+    }
+
+    /**
+     * Give the probability of rolling a given sum
+     *
+     * @param sum The sum of all up sides
+     * @return The probability of the sum, 0 when the sum is impossible
+     */
+    public double probability(int sum) {
+        if (exact != null) return exact.probability(sum);
+        if (sum < minimum || sum > maximum) return 0;
+        double z = (sum - mean) / standardDeviation;
+        double z2 = z * z;
+        double he4 = z2 * z2 - 6 * z2 + 3;
+        return Math.max(0, density(z) / standardDeviation * (1 + excessKurtosis / 24 * he4));
+    }
+
+    /**
+     * Give the probability of rolling a sum lower than or equal to a given sum
+     *
+     * @param sum The sum of all up sides
+     * @return The cumulative probability of the sum, within errorBound() of the true one
+     */
+    public double cumulativeProbability(int sum) {
+        if (exact != null) return exact.cumulativeProbability(sum);
+        if (sum < minimum) return 0;
+        if (sum >= maximum) return 1;
+        double z = (sum + 0.5 - mean) / standardDeviation;
+        double he3 = z * z * z - 3 * z;
+        double cumulative = normalCdf(z) - density(z) * excessKurtosis / 24 * he3;
+        return Math.min(1, Math.max(0, cumulative));
+    }
+
+    /**
+     * Gives the standard normal density
+     *
+     * @param z The point
+     * @return The density at z
+     */
+    private static double density(double z) {
+        return INV_SQRT_2PI * Math.exp(-z * z / 2);
+    }
+
+    /**
+     * Gives the standard normal cumulative probability through the incomplete gamma function:
+     * P(Z > |z|) is half of Q(1/2, z^2 / 2)
+     *
+     * @param z The point
+     * @return The probability of a standard normal value lower than or equal to z
+     */
+    private static double normalCdf(double z) {
+        double tail = RollStatistics.upperRegularizedGamma(0.5, z * z / 2) / 2;
+        return z < 0 ? tail : 1 - tail;
+    }
+}
@@ -0,0 +1,99 @@
+package com.dice.collection;
+
+/**
+ * The exact probability distribution of the sum of a collection of dice.
+ * Objects created from this class are immutable and provide access to:
+ * - the lowest and highest possible sum
+ * - the probability of each possible sum
+ * - the cumulative probability up to each sum
+ */
+public final class SumDistribution {
+    /* The lowest possible sum, which is the sum stored at index 0 */
+    private final int minimum;
+    /* The probability of each sum from minimum to maximum */
+    private final double[] probabilities;
+
+    /**
+     * Constructs a distribution from the probabilities of consecutive sums
+     *
+     * @param minimum       The lowest possible sum
+     * @param probabilities The probability of each sum starting from the lowest. The array is owned by the distribution
+     */
+    SumDistribution(int minimum, double[] probabilities) {
+        this.minimum = minimum;
+        this.probabilities = probabilities;
+    }
+
+    /**
+     * Give access to the lowest possible sum
+     *
+     * @return The lowest possible sum
+     */
+    public int getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Give access to the highest possible sum
+     *
+     * @return The highest possible sum
+     */
+    public int getMaximum() {
+        return minimum + probabilities.length - 1;
+    }
+
+    /**
+     * Give the probability of rolling a given sum
+     *
+     * @param sum The sum of all up sides
+     * @return The probability of the sum, 0 when the sum is impossible
+     */
+    public double probability(int sum) {
+        if (sum < minimum || sum > getMaximum()) return 0;
+        return probabilities[sum - minimum];
+    }
+
+    /**
+     * Give the probability of rolling a sum lower than or equal to a given sum
+     *
+     * @param sum The sum of all up sides
+     * @return The cumulative probability of the sum
+     */
+    public double cumulativeProbability(int sum) {
+        if (sum < minimum) return 0;
+        if (sum >= getMaximum()) return 1;
+        double cumulative = 0;
+        for (int i = 0; i <= sum - minimum; i++) cumulative += probabilities[i];
+        return Math.min(1, cumulative);
+    }
+
+    /**
+     * Give a copy of the probabilities of every possible sum
+     *
+     * @return The probabilities where index 0 holds the probability of the lowest sum
+     */
+    public double[] getProbabilities() {
+        return probabilities.clone();
+    }
+
+    /**
+     * Give the expected counts of each sum when the collection is rolled n times
+     *
+     * @param rolls How many times the collection is rolled
+     * @return The expected counts where index 0 holds the expected count of the lowest sum
+     */
+    public double[] expectedCounts(long rolls) {
+        double[] expected = new double[probabilities.length];
+        for (int i = 0; i < expected.length; i++) expected[i] = probabilities[i] * rolls;
+        return expected;
+    }
+
+    /**
+     * Give an estimate of the memory used by the distribution
+     *
+     * @return The estimated size in bytes
+     */
+    long estimatedBytes() {
+        return 64 + 8L * probabilities.length;
+    }
+}
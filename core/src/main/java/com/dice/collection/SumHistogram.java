@@ -0,0 +1,363 @@
+package com.dice.collection;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Blueprint for a histogram of the sums of rolling a collection of dice.
+ * Only the sums from the lowest to the highest possible sum are tracked, and every count is a long
+ * so runs of more than 2^31 rolls do not overflow.
+ * <p>
+ * The counts are stored in pages of {@value #PAGE_SIZE} sums that are only allocated once a sum of
+ * the page is counted. Rolls of many dice land in a narrow band around the mean, so a collection of
+ * a thousand dice with a thousand sides allocates the few pages of that band instead of a million counts.
+ * <p>
+ * Pages also make snapshots cheap: a snapshot shares the pages of the histogram it was taken from,
+ * and the histogram copies a shared page only when it counts into it again. A snapshot is read-only.
+ * Objects created from this class provides access to:
+ * - count of each sum
+ * - total count of all sums
+ * - lowest and highest sum that has been counted
+ * - ability to count sums and merge other histograms
+ * - read-only snapshots that share pages with the histogram
+ * - a compact binary form to save histograms and merge them later
+ */
+public final class SumHistogram {
+    /* "DHST", the first bytes of the binary form */
+    private static final int MAGIC = 0x44485354;
+    /* Version of the binary form */
+    private static final int VERSION = 1;
+    /* How many sums share one page of counts. A power of 2 so the page of a sum is found with a shift */
+    static final int PAGE_SIZE = 1024;
+    /* log2 of PAGE_SIZE */
+    private static final int PAGE_SHIFT = 10;
+
+    /* The lowest possible sum, which is stored at index 0 of the first page */
+    private final int minimum;
+    /* The highest possible sum */
+    private final int maximum;
+    /* Pages of counts. A page stays null until one of its sums is counted */
+    private final long[][] pages;
+    /* Whether a page is shared with a snapshot and has to be copied before it is written */
+    private final boolean[] shared;
+    /* Whether this histogram is a read-only snapshot */
+    private final boolean readOnly;
+    /* Total count of all sums */
+    private long total;
+
+    /**
+     * Constructs an empty histogram for sums between 2 bounds
+     *
+     * @param minimum The lowest possible sum
+     * @param maximum The highest possible sum
+     */
+    public SumHistogram(int minimum, int maximum) {
+        if (maximum < minimum)
+            throw new IllegalArgumentException("Maximum " + maximum + " is lower than minimum " + minimum);
+        this.minimum = minimum;
+        this.maximum = maximum;
+        long range = (long) maximum - minimum + 1;
+        pages = new long[(int) ((range + PAGE_SIZE - 1) >>> PAGE_SHIFT)][];
+        shared = new boolean[pages.length];
+        readOnly = false;
+    }
+
+    /**
+     * Constructs a read-only snapshot that shares every page of a histogram
+     *
+     * @param source The histogram to take the snapshot of
+     */
+    private SumHistogram(SumHistogram source) {
+        minimum = source.minimum;
+        maximum = source.maximum;
+        pages = source.pages.clone(); // Copies the references to the pages, not the counts
+        shared = new boolean[pages.length];
+        Arrays.fill(shared, true);
+        readOnly = true;
+        total = source.total;
+    }
+
+    /**
+     * Give access to the lowest possible sum
+     *
+     * @return The lowest possible sum
+     */
+    public int getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Give access to the highest possible sum
+     *
+     * @return The highest possible sum
+     */
+    public int getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Count one roll of a given sum
+     *
+     * @param sum The sum of the roll
+     */
+    public void add(int sum) {
+        add(sum, 1);
+    }
+
+    /**
+     * Count many rolls of a given sum
+     *
+     * @param sum   The sum of the rolls
+     * @param count How many rolls to count
+     */
+    public void add(int sum, long count) {
+        if (sum < minimum || sum > maximum)
+            throw new IllegalArgumentException("Sum " + sum + " is outside of " + minimum + " to " + maximum);
+        int index = sum - minimum;
+        int pageIndex = index >>> PAGE_SHIFT;
+        long[] page = pages[pageIndex];
+        if (page == null || shared[pageIndex]) page = writablePage(pageIndex);
+        page[index & (PAGE_SIZE - 1)] += count;
+        total += count;
+    }
+
+    /**
+     * Gives a page that can be written: a missing page is allocated and a page shared with
+     * a snapshot is copied first so the snapshot keeps its counts
+     *
+     * @param pageIndex The index of the page
+     * @return The page owned by this histogram alone
+     */
+    private long[] writablePage(int pageIndex) {
+        if (readOnly) throw new UnsupportedOperationException("A snapshot of a histogram is read-only");
+        long[] page = pages[pageIndex];
+        page = page == null ? new long[PAGE_SIZE] : page.clone();
+        pages[pageIndex] = page;
+        shared[pageIndex] = false;
+        return page;
+    }
+
+    /**
+     * Takes a read-only snapshot of the current counts.
+     * No counts are copied: the snapshot shares the pages, and this histogram copies a page
+     * the next time it counts into it
+     *
+     * @return The snapshot
+     */
+    public SumHistogram snapshot() {
+        Arrays.fill(shared, true);
+        return new SumHistogram(this);
+    }
+
+    /**
+     * Tell whether this histogram is a read-only snapshot
+     *
+     * @return true if the histogram cannot be changed
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Add every count of another histogram to this one
+     *
+     * @param other The histogram to merge. It must not have counted sums outside of this histogram's bounds
+     * @throws IllegalArgumentException If the other histogram has counted sums outside of this histogram's bounds.
+     *                                  Nothing is merged then
+     */
+    public void merge(SumHistogram other) {
+        if (other.minimum == minimum && other.maximum == maximum) {
+            // Same bounds, so pages line up and can be added page by page
+            for (int p = 0; p < pages.length; p++) {
+                long[] otherPage = other.pages[p];
+                if (otherPage == null) continue;
+                long[] page = pages[p];
+                if (page == null || shared[p]) page = writablePage(p);
+                for (int i = 0; i < PAGE_SIZE; i++) page[i] += otherPage[i];
+            }
+            total += other.total;
+            return;
+        }
+        int lowest = other.lowestSum(), highest = other.highestSum();
+        if (lowest <= highest && (lowest < minimum || highest > maximum))
+            throw new IllegalArgumentException("Sums " + lowest + " to " + highest + " are outside of " + minimum + " to " + maximum);
+        for (int sum = lowest; sum <= highest; sum++) {
+            long count = other.count(sum);
+            if (count > 0) add(sum, count);
+        }
+    }
+
+    /**
+     * Give the count of a given sum
+     *
+     * @param sum The sum
+     * @return How many rolls had that sum, 0 for sums outside of the bounds
+     */
+    public long count(int sum) {
+        if (sum < minimum || sum > maximum) return 0;
+        int index = sum - minimum;
+        long[] page = pages[index >>> PAGE_SHIFT];
+        return page == null ? 0 : page[index & (PAGE_SIZE - 1)];
+    }
+
+    /**
+     * Give the total count of all sums, which is the number of rolls counted
+     *
+     * @return The total count
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Give the lowest sum that has been counted at least once
+     *
+     * @return The lowest counted sum, or the highest possible sum + 1 if nothing has been counted
+     */
+    public int lowestSum() {
+        for (int p = 0; p < pages.length; p++) {
+            if (pages[p] == null) continue;
+            for (int i = 0; i < PAGE_SIZE; i++)
+                if (pages[p][i] > 0) return minimum + (p << PAGE_SHIFT) + i;
+        }
+        return maximum + 1;
+    }
+
+    /**
+     * Give the highest sum that has been counted at least once
+     *
+     * @return The highest counted sum, or the lowest possible sum - 1 if nothing has been counted
+     */
+    public int highestSum() {
+        for (int p = pages.length - 1; p >= 0; p--) {
+            if (pages[p] == null) continue;
+            for (int i = PAGE_SIZE - 1; i >= 0; i--)
+                if (pages[p][i] > 0) return minimum + (p << PAGE_SHIFT) + i;
+        }
+        return minimum - 1;
+    }
+
+    /**
+     * Give the highest count of any sum
+     *
+     * @return The highest count, 0 if nothing has been counted
+     */
+    public long highestCount() {
+        long highest = 0;
+        for (long[] page : pages) {
+            if (page == null) continue;
+            for (long count : page) highest = Math.max(highest, count);
+        }
+        return highest;
+    }
+
+    /**
+     * Give the counts of every possible sum in one array
+     *
+     * @return The counts where index 0 holds the count of the lowest possible sum
+     */
+    public long[] toArray() {
+        long[] counts = new long[maximum - minimum + 1];
+        for (int p = 0; p < pages.length; p++) {
+            if (pages[p] == null) continue;
+            int start = p << PAGE_SHIFT;
+            System.arraycopy(pages[p], 0, counts, start, Math.min(PAGE_SIZE, counts.length - start));
+        }
+        return counts;
+    }
+
+    /**
+     * Writes the histogram in a compact binary form: a header with the bounds, the total and the lowest
+     * and highest counted sum, then the count of every sum in between as a variable-length number, so
+     * an empty sum takes one byte and most counts take 2 to 4. The stream is not closed
+     *
+     * @param out Where to write the histogram
+     * @throws IOException If the stream cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(minimum);
+        data.writeInt(maximum);
+        data.writeLong(total);
+        if (total == 0) return;
+        int lowest = lowestSum(), highest = highestSum();
+        data.writeInt(lowest);
+        data.writeInt(highest);
+        for (int sum = lowest; sum <= highest; sum++) {
+            // 7 bits per byte from the lowest, the high bit tells that more bytes follow
+            long count = count(sum);
+            while ((count & ~0x7FL) != 0) {
+                data.writeByte((int) (count & 0x7F) | 0x80);
+                count >>>= 7;
+            }
+            data.writeByte((int) count);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a histogram written by {@link #writeTo(OutputStream)}. Only the bytes of the histogram are
+     * read, so several histograms can be read one after the other from one stream
+     *
+     * @param in Where to read the histogram
+     * @return A new histogram with the counts that were written
+     * @throws IOException If the stream ends early or does not hold a histogram
+     */
+    public static SumHistogram readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("Not a histogram");
+        int version = data.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unsupported histogram version " + version);
+        int minimum = data.readInt(), maximum = data.readInt();
+        long total = data.readLong();
+        if (maximum < minimum || total < 0) throw new IOException("Corrupt histogram header");
+        SumHistogram histogram = new SumHistogram(minimum, maximum);
+        if (total == 0) return histogram;
+        int lowest = data.readInt(), highest = data.readInt();
+        if (lowest < minimum || highest > maximum || highest < lowest) throw new IOException("Corrupt histogram header");
+        for (int sum = lowest; sum <= highest; sum++) {
+            long count = 0;
+            for (int shift = 0; ; shift += 7) {
+                int next = data.read();
+                if (next < 0) throw new EOFException("Histogram is truncated");
+                if (shift > 63 || shift == 63 && next > 1) throw new IOException("Corrupt histogram count");
+                count |= (long) (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) break;
+            }
+            if (count > 0) histogram.add(sum, count);
+        }
+        if (histogram.total != total) throw new IOException("Histogram counts do not add up to its total");
+        return histogram;
+    }
+
+    /**
+     * Give an estimate of the memory used by the histogram
+     *
+     * @return The estimated size in bytes
+     */
+    long estimatedBytes() {
+        long bytes = 64 + 9L * pages.length; // Page references and shared flags
+        for (long[] page : pages) if (page != null) bytes += 16 + 8L * PAGE_SIZE;
+        return bytes;
+    }
+
+    /**
+     * Give a report of the count of every sum that has been counted
+     *
+     * @return One line per counted sum
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        for (int sum = lowestSum(); sum <= highestSum(); sum++)
+            report.append(sum).append(": ").append(count(sum)).append("\n");
+        return report.toString();
+    }
+}
@@ -0,0 +1,329 @@
+package com.dice.collection;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Blueprint for a publisher of the sums of many rolls of a collection, in batches.
+ * Each batch is one item of demand: nothing is rolled until the subscriber requests it, and only the batch
+ * being delivered is held, so a slow subscriber never makes sums pile up. The size of the batches follows
+ * the subscriber: it doubles, up to {@link #MAX_BATCH} sums, while the subscriber has asked for more
+ * batches than the one being delivered, and halves, down to {@link #MIN_BATCH}, when the subscriber has
+ * to ask again after each batch. A subscriber that requests Long.MAX_VALUE gets the largest batches and
+ * the least overhead per sum, one that requests one batch at a time gets small batches soon.
+ * <p>
+ * Sums are made in the sampling mode of the collection, on a thread of the executor, and every signal to
+ * the subscriber comes from that thread one after another, as Flow requires. A publisher has one
+ * subscriber, since the collection should not be rolled by anything else while the sums are published;
+ * a second subscriber gets an IllegalStateException. The rolling task gives its thread back to the
+ * executor every {@link #BATCHES_PER_TURN} batches, so a subscriber with unbounded demand shares the
+ * executor with other work. When rolling fails, or the subscriber throws, the subscriber gets the failure
+ * through onError and nothing else.
+ */
+public final class SumPublisher implements Flow.Publisher<SumPublisher.Batch> {
+    /* The fewest sums of a batch, except the last one */
+    public static final int MIN_BATCH = 64;
+    /* The most sums of a batch */
+    public static final int MAX_BATCH = 1 << 16;
+    /* Sums of the first batch */
+    private static final int FIRST_BATCH = 1024;
+    /* Batches delivered before the rolling task is submitted again */
+    private static final int BATCHES_PER_TURN = 16;
+
+    /* Rolls the collection once and gives the sum, e.g. DiceCollection::nextSum */
+    private final IntSupplier collection;
+    /* How many sums to publish */
+    private final long totalRolls;
+    /* Where the rolling and the signals run */
+    private final Executor executor;
+    /* Whether the one subscriber has subscribed */
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Constructs a publisher that has not rolled yet
+     *
+     * @param collection Rolls the collection once and gives the sum, in its sampling mode
+     * @param totalRolls How many sums to publish
+     * @param executor   Where the rolling and the signals run
+     */
+    SumPublisher(IntSupplier collection, long totalRolls, Executor executor) {
+        if (totalRolls < 0) throw new IllegalArgumentException("Rolls must not be negative: " + totalRolls);
+        this.collection = collection;
+        this.totalRolls = totalRolls;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Subscribes the one subscriber of the publisher. onSubscribe is called on a thread of the executor
+     *
+     * @param subscriber The subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Batch> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("A sum publisher has one subscriber"));
+            return;
+        }
+        new Subscription(subscriber).signal();
+    }
+
+    /**
+     * Sums of consecutive rolls. A batch is immutable: it keeps its own array of sums, which is read through
+     * {@link #sum(int)} without copying
+     */
+    public static final class Batch {
+        /* Index of the roll of the first sum, starting from 0 */
+        private final long firstRoll;
+        /* The sum of each roll. Owned by the batch */
+        private final int[] sums;
+
+        /**
+         * Constructs a batch from a copy of the sums, so later changes to the caller's array do not change it
+         *
+         * @param firstRoll Index of the roll of the first sum, starting from 0
+         * @param sums      The sum of each roll
+         */
+        public Batch(long firstRoll, int[] sums) {
+            this(sums.clone(), firstRoll);
+        }
+
+        /**
+         * Constructs a batch that takes the array of sums as it is, for arrays nobody else holds
+         *
+         * @param sums      The sum of each roll, owned by the batch from here on
+         * @param firstRoll Index of the roll of the first sum, starting from 0
+         */
+        private Batch(int[] sums, long firstRoll) {
+            this.firstRoll = firstRoll;
+            this.sums = sums;
+        }
+
+        /**
+         * Give the index of the roll of the first sum
+         *
+         * @return The index, starting from 0
+         */
+        public long firstRoll() {
+            return firstRoll;
+        }
+
+        /**
+         * Give how many sums the batch has
+         *
+         * @return The number of sums
+         */
+        public int size() {
+            return sums.length;
+        }
+
+        /**
+         * Give the sum of one roll of the batch
+         *
+         * @param index The position of the roll in the batch, starting from 0
+         * @return The sum
+         */
+        public int sum(int index) {
+            return sums[index];
+        }
+
+        /**
+         * Give a copy of the sums, so the batch cannot be changed through it. Every call copies up to
+         * {@link #MAX_BATCH} ints, so loops over the sums should use {@link #size()} and {@link #sum(int)}
+         *
+         * @return A new array with the sum of each roll
+         */
+        public int[] sums() {
+            return sums.clone();
+        }
+
+        /**
+         * Tell whether another batch starts at the same roll and has the same sums
+         *
+         * @param other The object to compare with
+         * @return true when both batches are equal
+         */
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Batch batch && firstRoll == batch.firstRoll && Arrays.equals(sums, batch.sums);
+        }
+
+        /**
+         * Give a hash code from the first roll and the content of the sums
+         *
+         * @return The hash code
+         */
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(firstRoll) + Arrays.hashCode(sums);
+        }
+
+        /**
+         * Give the first roll and the sums
+         *
+         * @return e.g. Batch[firstRoll=0, sums=[7, 9, 4]]
+         */
+        @Override
+        public String toString() {
+            return "Batch[firstRoll=" + firstRoll + ", sums=" + Arrays.toString(sums) + "]";
+        }
+    }
+
+    /**
+     * The subscription of the one subscriber. Whatever thread requests or cancels, the subscriber is only
+     * signalled by the drain task, and a work counter makes sure one drain task runs at a time
+     */
+    private final class Subscription implements Flow.Subscription {
+        /* The subscriber */
+        private final Flow.Subscriber<? super Batch> subscriber;
+        /* Batches requested and not delivered yet, Long.MAX_VALUE for unbounded */
+        private final AtomicLong demand = new AtomicLong();
+        /* Signals not handled yet by the drain task. The task runs while this is not 0 */
+        private final AtomicInteger work = new AtomicInteger();
+        /* Set by cancel, and once the subscriber has been sent onComplete or onError */
+        private volatile boolean cancelled;
+        /* A request that broke the rules, to be sent to the subscriber by the drain task */
+        private volatile IllegalArgumentException badRequest;
+        /* Whether onSubscribe has been called. Only used by the drain task */
+        private boolean started;
+        /* How many sums have been published. Only used by the drain task */
+        private long completed;
+        /* Sums of the next batch. Only used by the drain task */
+        private int batchSize = FIRST_BATCH;
+
+        /**
+         * Constructs the subscription of a subscriber
+         *
+         * @param subscriber The subscriber
+         */
+        Subscription(Flow.Subscriber<? super Batch> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Asks for more batches
+         *
+         * @param n How many batches, which must be positive
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("Demand must be positive: " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            signal();
+        }
+
+        /**
+         * Stops the publishing. A batch being delivered is still delivered
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Makes sure the drain task runs after this call
+         */
+        void signal() {
+            if (work.getAndIncrement() != 0) return; // The running task will see the new state
+            submit();
+        }
+
+        /**
+         * Submits the drain task, or fails the subscription if the executor refuses it
+         */
+        private void submit() {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException exception) {
+                cancelled = true;
+                if (!started) {
+                    started = true;
+                    subscriber.onSubscribe(this);
+                }
+                subscriber.onError(exception);
+            }
+        }
+
+        /**
+         * Rolls and delivers batches while there is demand, then completes or fails the subscriber when
+         * it is time. Only one drain task runs at a time
+         */
+        private void drain() {
+            try {
+                if (!started) {
+                    started = true;
+                    subscriber.onSubscribe(this);
+                }
+                int missed = 1;
+                int delivered = 0;
+                while (true) {
+                    while (!cancelled) {
+                        if (badRequest != null) {
+                            cancelled = true;
+                            subscriber.onError(badRequest);
+                            return;
+                        }
+                        if (completed == totalRolls) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        long requested = demand.get();
+                        if (requested == 0) break;
+                        if (delivered == BATCHES_PER_TURN) {
+                            submit(); // Go on later, without giving up the work counter
+                            return;
+                        }
+                        Batch batch = rollBatch();
+                        long left = requested == Long.MAX_VALUE ? requested : demand.decrementAndGet();
+                        batchSize = left > 0 ? Math.min(MAX_BATCH, batchSize * 2) : Math.max(MIN_BATCH, batchSize / 2);
+                        subscriber.onNext(batch);
+                        delivered++;
+                    }
+                    missed = work.addAndGet(-missed);
+                    if (missed == 0) return;
+                }
+            } catch (Throwable failure) {
+                // Rolling or the subscriber failed: end the subscription with the failure instead of
+                // leaving the work counter taken and the subscriber waiting forever
+                if (cancelled) return; // Already ended, nothing more may be signalled
+                cancelled = true;
+                subscriber.onError(failure);
+            }
+        }
+
+        /**
+         * Rolls the collection for the next batch
+         *
+         * @return The batch
+         */
+        private Batch rollBatch() {
+            int count = (int) Math.min(batchSize, totalRolls - completed);
+            int[] sums = new int[count];
+            for (int i = 0; i < count; i++) sums[i] = collection.getAsInt();
+            Batch batch = new Batch(sums, completed); // Nobody else holds the array, so the batch takes it
+            completed += count;
+            DiceMetrics.recordRolls(count);
+            return batch;
+        }
+    }
+}
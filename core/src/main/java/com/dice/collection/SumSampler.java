@@ -0,0 +1,69 @@
+package com.dice.collection;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws sums of a collection of dice directly from their exact distribution, without rolling any die.
+ * The distribution is turned into a Walker alias table once (built with Vose's method), then every
+ * draw costs one column pick and one comparison no matter how many dice the collection has.
+ */
+final class SumSampler {
+    /* The lowest possible sum, which belongs to column 0 */
+    private final int minimum;
+    /* Probability of keeping the column's own sum instead of taking its alias */
+    private final double[] keep;
+    /* The sum offset taken when the column's own sum is not kept */
+    private final int[] alias;
+
+    /**
+     * Builds the alias table of a distribution
+     *
+     * @param distribution The exact distribution of the sum
+     */
+    SumSampler(SumDistribution distribution) {
+        minimum = distribution.getMinimum();
+        double[] probabilities = distribution.getProbabilities();
+        int n = probabilities.length;
+        keep = new double[n];
+        alias = new int[n];
+
+        /* Scale the probabilities so the average column holds exactly 1 */
+        double total = 0;
+        for (double probability : probabilities) total += probability;
+        double[] scaled = new double[n];
+        for (int i = 0; i < n; i++) scaled[i] = probabilities[i] * n / total;
+
+        /* Columns below 1 are topped up from columns above 1 */
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (scaled[i] < 1) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            keep[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) small[smallCount++] = more;
+            else large[largeCount++] = more;
+        }
+        // Whatever is left is 1 up to rounding errors
+        while (largeCount > 0) keep[large[--largeCount]] = 1;
+        while (smallCount > 0) keep[small[--smallCount]] = 1;
+    }
+
+    /**
+     * Draws one sum
+     *
+     * @param random The random generator
+     * @return A sum drawn from the distribution
+     */
+    int sample(RandomGenerator random) {
+        int column = random.nextInt(keep.length);
+        return minimum + (random.nextDouble() < keep[column] ? column : alias[column]);
+    }
+}
@@ -0,0 +1,70 @@
+package com.dice.collection;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The outcome of one configuration of a {@link ParameterSweep}
+ *
+ * @param index        Position of the configuration in the sweep, starting from 0
+ * @param sides        Sides of each die of the configuration, sorted from fewest to most sides
+ * @param distribution The exact distribution of the sum
+ * @param histogram    The histogram of the sampled rolls, or null when the sweep samples no rolls
+ */
+public record SweepResult(long index, int[] sides, SumDistribution distribution, SumHistogram histogram) {
+
+    /**
+     * Constructs the record from a copy of the sides, so later changes to the caller's array do not change it
+     *
+     * @param index        Position of the configuration in the sweep, starting from 0
+     * @param sides        Sides of each die of the configuration, sorted from fewest to most sides
+     * @param distribution The exact distribution of the sum
+     * @param histogram    The histogram of the sampled rolls, or null when the sweep samples no rolls
+     */
+    public SweepResult {
+        sides = sides.clone();
+    }
+
+    /**
+     * Give a copy of the sides of each die, so the record cannot be changed through it
+     *
+     * @return A new array with the sides of each die
+     */
+    @Override
+    public int[] sides() {
+        return sides.clone();
+    }
+
+    /**
+     * Tell whether another result is for the same position and sides, with the same distribution and histogram
+     *
+     * @param other The object to compare with
+     * @return true when both results are equal
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SweepResult result && index == result.index && Arrays.equals(sides, result.sides)
+                && Objects.equals(distribution, result.distribution) && Objects.equals(histogram, result.histogram);
+    }
+
+    /**
+     * Give a hash code from the position, the content of the sides, the distribution and the histogram
+     *
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, Arrays.hashCode(sides), distribution, histogram);
+    }
+
+    /**
+     * Give the position, the sides, the distribution and the histogram
+     *
+     * @return e.g. SweepResult[index=3, sides=[4, 6], distribution=..., histogram=null]
+     */
+    @Override
+    public String toString() {
+        return "SweepResult[index=" + index + ", sides=" + Arrays.toString(sides) + ", distribution=" + distribution
+                + ", histogram=" + histogram + "]";
+    }
+}
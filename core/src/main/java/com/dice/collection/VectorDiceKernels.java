@@ -0,0 +1,119 @@
+package com.dice.collection;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * SIMD implementation of the dice kernels on the incubating Vector API.
+ * Lemire's method needs the full 64-bit product of a 32-bit random value and the sides, so every
+ * step widens a vector of ints into a vector of longs with the same number of lanes, multiplies,
+ * and narrows the high halves back to ints. Rejected lanes are marked with 0 and drawn again
+ * afterwards exactly like the scalar kernels do.
+ * <p>
+ * This class is only loaded by {@link DiceKernels#get()} after checking that the
+ * jdk.incubator.vector module is present.
+ */
+final class VectorDiceKernels implements DiceKernels {
+    /* Widest long vector of this CPU */
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    /* Int vector with as many lanes as LONGS, so it widens into exactly one long vector */
+    private static final VectorSpecies<Integer> NARROW_INTS = VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+    /* Mask of the low 32 bits of a long */
+    private static final long LOW_HALF = 0xFFFFFFFFL;
+
+    /**
+     * Rolls every die once
+     *
+     * @param random     The random generator
+     * @param sides      Sides of each die
+     * @param thresholds Rejection threshold of each die
+     * @param upSides    Receives the side facing up of each die
+     * @param bits       Scratch space for random values, at least as long as sides
+     * @return The sum of all sides facing up
+     */
+    @Override
+    public int roll(RandomGenerator random, int[] sides, int[] thresholds, int[] upSides, int[] bits) {
+        int n = sides.length;
+        DiceKernels.fillRandom(random, bits, n);
+        int i = 0;
+        for (int bound = NARROW_INTS.loopBound(n); i < bound; i += NARROW_INTS.length()) {
+            LongVector x = widen(IntVector.fromArray(NARROW_INTS, bits, i));
+            LongVector s = widen(IntVector.fromArray(NARROW_INTS, sides, i));
+            LongVector t = widen(IntVector.fromArray(NARROW_INTS, thresholds, i));
+            narrow(bounded(x, s, t)).intoArray(upSides, i);
+        }
+        for (; i < n; i++) upSides[i] = DiceKernels.bounded(bits[i], sides[i], thresholds[i]);
+        int sum = 0;
+        for (i = 0; i < n; i++) {
+            if (upSides[i] == 0) upSides[i] = DiceKernels.redraw(random, sides[i], thresholds[i]);
+            sum += upSides[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Rolls one die many times and adds each roll to a different sum
+     *
+     * @param random    The random generator
+     * @param sides     Sides of the die
+     * @param threshold Rejection threshold of the die
+     * @param sums      Sums where roll r is added to sums[r]
+     * @param count     How many rolls to add
+     * @param bits      Scratch space for random values, at least count long
+     */
+    @Override
+    public void addRolls(RandomGenerator random, int sides, int threshold, int[] sums, int count, int[] bits) {
+        DiceKernels.fillRandom(random, bits, count);
+        LongVector s = LongVector.broadcast(LONGS, sides);
+        LongVector t = LongVector.broadcast(LONGS, threshold);
+        int r = 0;
+        for (int bound = NARROW_INTS.loopBound(count); r < bound; r += NARROW_INTS.length())
+            narrow(bounded(widen(IntVector.fromArray(NARROW_INTS, bits, r)), s, t)).intoArray(bits, r);
+        for (; r < count; r++) bits[r] = DiceKernels.bounded(bits[r], sides, threshold);
+        for (r = 0; r < count; r++) {
+            int side = bits[r];
+            if (side == 0) side = DiceKernels.redraw(random, sides, threshold);
+            sums[r] += side;
+        }
+    }
+
+    /**
+     * Maps random values to sides with Lemire's method, lane by lane
+     *
+     * @param x 32-bit random values in the low halves of the lanes
+     * @param s Sides of each lane
+     * @param t Rejection threshold of each lane
+     * @return Sides from 1 to s, or 0 in lanes whose value is rejected
+     */
+    private static LongVector bounded(LongVector x, LongVector s, LongVector t) {
+        LongVector product = x.mul(s);
+        VectorMask<Long> rejected = product.and(LOW_HALF).compare(VectorOperators.LT, t);
+        return product.lanewise(VectorOperators.LSHR, 32).add(1).blend(0, rejected);
+    }
+
+    /**
+     * Widens unsigned ints into longs
+     *
+     * @param ints The ints
+     * @return The longs, one lane per int
+     */
+    private static LongVector widen(IntVector ints) {
+        return (LongVector) ints.convertShape(VectorOperators.ZERO_EXTEND_I2L, LONGS, 0);
+    }
+
+    /**
+     * Narrows longs that fit in an int back to ints
+     *
+     * @param longs The longs
+     * @return The ints, one lane per long
+     */
+    private static IntVector narrow(LongVector longs) {
+        return (IntVector) longs.convertShape(VectorOperators.L2I, NARROW_INTS, 0);
+    }
+}
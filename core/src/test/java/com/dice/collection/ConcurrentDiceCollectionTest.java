@@ -0,0 +1,148 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that concurrent rolls are each published exactly once as whole rolls, in increasing versions,
+ * and that many threads share a few rollers
+ */
+class ConcurrentDiceCollectionTest {
+    /* Sides of the collection of every test */
+    private static final int[] SIDES = {4, 6, 6, 8, 10, 12, 20, 100};
+    /* Threads that roll at the same time */
+    private static final int THREADS = 8;
+    /* Rolls made by each thread */
+    private static final int ROLLS = 5000;
+
+    @Test
+    void everyRollIsPublishedOnce() throws Exception {
+        ConcurrentDiceCollection collection = new ConcurrentDiceCollection(SIDES, 11);
+        assertEquals(0, collection.current().version());
+        run(THREADS, () -> {
+            for (int i = 0; i < ROLLS; i++) assertWhole(collection.roll());
+        });
+        assertEquals((long) THREADS * ROLLS, collection.current().version());
+        assertWhole(collection.getRollResult());
+
+        collection.histogram(0);
+        assertEquals((long) THREADS * ROLLS, collection.current().version(), "A histogram of no rolls published a roll");
+        collection.histogram(10);
+        assertEquals((long) THREADS * ROLLS + 1, collection.current().version());
+    }
+
+    @Test
+    void readersSeeWholeRollsInIncreasingVersions() throws Exception {
+        ConcurrentDiceCollection collection = new ConcurrentDiceCollection(SIDES, 12);
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        run(THREADS, new Runnable() {
+            /* Which thread is next, the even ones roll and the odd ones read */
+            private int next;
+
+            @Override
+            public void run() {
+                boolean reader;
+                synchronized (this) {
+                    reader = next++ % 2 == 1;
+                }
+                long version = -1;
+                for (int i = 0; i < ROLLS; i++) {
+                    if (!reader) {
+                        collection.histogram(3);
+                        continue;
+                    }
+                    ConcurrentDiceCollection.Snapshot snapshot = collection.current();
+                    if (snapshot.version() < version) failures.add(snapshot.version() + " after " + version);
+                    version = snapshot.version();
+                    if (!isWhole(snapshot.result())) failures.add("Torn roll " + snapshot.result());
+                }
+            }
+        });
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+        assertEquals(THREADS / 2L * ROLLS, collection.current().version());
+    }
+
+    @Test
+    void virtualThreadsShareRollers() throws Exception {
+        ConcurrentDiceCollection collection = new ConcurrentDiceCollection(SIDES, 13);
+        int tasks = 10_000;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<RollResult>> rolls = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) rolls.add(executor.submit(collection::roll));
+            for (Future<RollResult> roll : rolls) assertWhole(roll.get());
+        }
+        assertEquals(tasks, collection.current().version());
+        assertTrue(collection.streams() < tasks / 10, collection.streams() + " rollers for " + tasks + " threads");
+    }
+
+    @Test
+    void streamsDoNotRepeatPartitionedBlocks() {
+        for (long k = 0; k < 1000; k++) {
+            long stream = PartitionedHistogram.derivedSeed(42, PartitionedHistogram.STREAM_DOMAIN, k);
+            assertNotEquals(PartitionedHistogram.blockSeed(42, k), stream);
+            assertNotEquals(PartitionedHistogram.derivedSeed(42, PartitionedHistogram.SWEEP_DOMAIN, k), stream);
+        }
+    }
+
+    /**
+     * Runs a task on several threads started at the same time and waits for all of them
+     *
+     * @param threads How many threads
+     * @param task    The task each thread runs
+     * @throws Exception If a task failed
+     */
+    private static void run(int threads, Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                running.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : running) future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks that a roll is one whole roll of the collection
+     *
+     * @param result The roll
+     */
+    private static void assertWhole(RollResult result) {
+        assertTrue(isWhole(result), () -> "Torn roll " + result);
+    }
+
+    /**
+     * Tells whether every die of a roll shows one of its sides and the sum is the sum of the up sides
+     *
+     * @param result The roll
+     * @return true when the roll is whole
+     */
+    private static boolean isWhole(RollResult result) {
+        if (result.size() != SIDES.length) return false;
+        int sum = 0;
+        for (int i = 0; i < SIDES.length; i++) {
+            if (result.upSide(i) < 1 || result.upSide(i) > SIDES[i]) return false;
+            sum += result.upSide(i);
+        }
+        return sum == result.sum();
+    }
+}
@@ -0,0 +1,123 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the exact distributions against counting every combination of up sides, and the FFT method
+ * against convolving one die at a time on both sides of {@link Convolution#FFT_THRESHOLD}
+ */
+class ConvolutionTest {
+    /* Largest difference allowed between the probabilities of the direct and the FFT method */
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    void countsMatchEveryCombination() {
+        for (int[] sides : new int[][]{{6, 6, 10}, {2, 3, 4, 5}, {1, 7}, {20}, {4, 4, 4, 4, 4}}) {
+            long[] expected = enumerate(sides);
+            assertArrayEquals(expected, Convolution.counts(sides), Arrays.toString(sides));
+
+            long combinations = 1;
+            for (int side : sides) combinations *= side;
+            double[] probabilities = Convolution.probabilities(sides);
+            assertEquals(expected.length, probabilities.length);
+            for (int i = 0; i < expected.length; i++)
+                assertEquals((double) expected[i] / combinations, probabilities[i], 1e-15, Arrays.toString(sides) + " sum " + (i + sides.length));
+        }
+    }
+
+    @Test
+    void directAndFftAgreeBelowTheThreshold() {
+        int[] sides = {6, 6, 10, 20, 100, 3};
+        assertTrue(sides.length * (long) Convolution.range(sides) <= Convolution.FFT_THRESHOLD);
+        assertClose(Convolution.probabilitiesDirect(sides), Convolution.probabilitiesFft(sides));
+    }
+
+    @Test
+    void directAndFftAgreeAboveTheThreshold() {
+        int[] sides = new int[150];
+        for (int i = 0; i < sides.length; i++) sides[i] = i % 3 == 0 ? 6 : i % 3 == 1 ? 10 : 20;
+        assertTrue(sides.length * (long) Convolution.range(sides) > Convolution.FFT_THRESHOLD);
+        double[] direct = Convolution.probabilitiesDirect(sides);
+        assertClose(direct, Convolution.probabilitiesFft(sides));
+        assertClose(direct, Convolution.probabilities(sides));
+    }
+
+    @Test
+    void groupsGiveTheProbabilitiesOfTheirDice() {
+        DiceGroup[] groups = DiceGroup.parse("40d6,30d10,20d20");
+        int[] sides = new int[90];
+        Arrays.fill(sides, 0, 40, 6);
+        Arrays.fill(sides, 40, 70, 10);
+        Arrays.fill(sides, 70, 90, 20);
+        assertEquals(Convolution.range(sides), Convolution.range(groups));
+        assertClose(Convolution.probabilitiesDirect(sides), Convolution.probabilities(groups));
+        assertClose(Convolution.probabilitiesDirect(sides), Convolution.probabilitiesFft(groups));
+    }
+
+    @Test
+    void probabilitiesAddUpToOne() {
+        for (String dice : new String[]{"1d1", "3d6", "2d6,1d10", "100d20", "1000d6", "5d1000,1d2"}) {
+            DiceGroup[] groups = DiceGroup.parse(dice);
+            double total = 0;
+            for (double probability : Convolution.probabilities(groups)) {
+                assertTrue(probability >= -TOLERANCE, dice + " has a negative probability");
+                total += probability;
+            }
+            assertEquals(1, total, 1e-9, dice);
+        }
+    }
+
+    @Test
+    void distributionGivesProbabilitiesBySum() {
+        SumDistribution distribution = DistributionCache.shared().exactDistribution(new int[]{6, 6, 10});
+        assertEquals(3, distribution.getMinimum());
+        assertEquals(22, distribution.getMaximum());
+        assertEquals(0, distribution.probability(2));
+        assertEquals(0, distribution.probability(23));
+        assertEquals(1.0 / 360, distribution.probability(3), 1e-15);
+        assertEquals(35.0 / 360, distribution.probability(12), 1e-15);
+        assertEquals(0, distribution.cumulativeProbability(2));
+        assertEquals(1, distribution.cumulativeProbability(22));
+        assertEquals(0.5, distribution.cumulativeProbability(12), 1e-12, "The sums are symmetric around 12.5");
+        double[] expected = distribution.expectedCounts(360);
+        assertEquals(35, expected[12 - 3], 1e-9);
+    }
+
+    /**
+     * Counts the ways to roll each sum by going through every combination of up sides
+     *
+     * @param sides Sides of each die
+     * @return The number of combinations for each sum, starting from the lowest sum
+     */
+    private static long[] enumerate(int[] sides) {
+        long[] counts = new long[Convolution.range(sides)];
+        int[] upSides = new int[sides.length];
+        Arrays.fill(upSides, 1);
+        while (true) {
+            int sum = 0;
+            for (int upSide : upSides) sum += upSide;
+            counts[sum - sides.length]++;
+            int die = 0;
+            while (die < sides.length && upSides[die] == sides[die]) upSides[die++] = 1;
+            if (die == sides.length) return counts;
+            upSides[die]++;
+        }
+    }
+
+    /**
+     * Checks that two distributions have the same sums and probabilities within the tolerance
+     *
+     * @param expected The reference probabilities
+     * @param actual   The probabilities to check
+     */
+    private static void assertClose(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) assertEquals(expected[i], actual[i], TOLERANCE, "Index " + i);
+    }
+}
@@ -0,0 +1,111 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that changing the sides of a die either changes the whole collection or nothing at all,
+ * that sums drawn from the exact distribution follow the dice as they change, and that parallel
+ * histograms follow the sampling mode and generation strategy of the collection
+ */
+class DiceCollectionTest {
+    /* Rolls of each sampled histogram */
+    private static final int ROLLS = 60_000;
+    /* Tests fail below this p-value */
+    private static final double SIGNIFICANCE = 0.001;
+
+    @Test
+    void rejectedSidesLeaveTheCollectionUnchanged() {
+        DiceCollection collection = new DiceCollection(new int[]{6, 6, 10}, "L64X128MixRandom", 1);
+        int[] sides = collection.getSides();
+        int[] upSides = collection.getUpSides();
+        int maximum = collection.sumMaximum();
+        int sum = collection.sumUpSides();
+        double[] probabilities = collection.exactDistribution().getProbabilities();
+
+        assertThrows(IllegalArgumentException.class, () -> collection.setSides(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> collection.setSides(1, -4));
+        assertThrows(ArithmeticException.class, () -> collection.setSides(1, Integer.MAX_VALUE));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> collection.setSides(3, 6));
+
+        assertArrayEquals(sides, collection.getSides());
+        assertArrayEquals(upSides, collection.getUpSides());
+        assertEquals(maximum, collection.sumMaximum());
+        assertEquals(sum, collection.sumUpSides());
+        assertArrayEquals(probabilities, collection.exactDistribution().getProbabilities());
+    }
+
+    @Test
+    void acceptedSidesUpdateTheSums() {
+        DiceCollection collection = new DiceCollection(new int[]{6, 6, 10}, "L64X128MixRandom", 1);
+        collection.setSides(0, 20);
+        assertEquals(36, collection.sumMaximum());
+        int sum = 0;
+        for (int upSide : collection.getUpSides()) sum += upSide;
+        assertEquals(sum, collection.sumUpSides());
+        assertTrue(collection.getUpSides()[0] <= 20);
+    }
+
+    @Test
+    void directSumsFollowTheNewSides() {
+        DiceCollection collection = new DiceCollection(new int[]{6, 6}, "L64X128MixRandom", 2);
+        collection.setSamplingMode(SamplingMode.DIRECT_SUM);
+        collection.histogram(1000); // Builds the alias table of 2d6
+        collection.setSides(1, 20);
+
+        SumHistogram histogram = collection.histogram(ROLLS);
+        SumDistribution distribution = collection.exactDistribution();
+        assertEquals(2, histogram.getMinimum());
+        assertEquals(26, histogram.getMaximum());
+        assertTrue(histogram.highestSum() > 12, "Sums still come from 2d6");
+        assertTrue(fitPValue(histogram, distribution) > SIGNIFICANCE, "Sums do not follow 1d6 + 1d20");
+    }
+
+    @Test
+    void parallelHistogramsFollowTheModeAndStrategy() {
+        DiceCollection collection = new DiceCollection(new int[]{6, 6, 20}, "L64X128MixRandom", 3);
+        SumDistribution distribution = collection.exactDistribution();
+        int[] upSides = collection.getUpSides();
+        for (SamplingMode mode : SamplingMode.values()) {
+            for (GenerationStrategy strategy : GenerationStrategy.values()) {
+                collection.setSamplingMode(mode);
+                collection.setGenerationStrategy(strategy);
+                SumHistogram histogram = collection.histogramParallel(ROLLS, 3);
+                assertEquals(ROLLS, histogram.total());
+                assertTrue(fitPValue(histogram, distribution) > SIGNIFICANCE, "Sums of " + mode + " and " + strategy + " do not fit");
+            }
+        }
+        assertArrayEquals(upSides, collection.getUpSides(), "Parallel histograms should not roll the dice");
+    }
+
+    @Test
+    void parallelismMustBePositive() {
+        DiceCollection collection = new DiceCollection(new int[]{6, 6}, "L64X128MixRandom", 4);
+        assertThrows(IllegalArgumentException.class, () -> collection.histogramParallel(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> collection.histogramPartitioned(10, 1, -1));
+        assertThrows(IllegalArgumentException.class, () -> collection.histogramPartitioned(10, 1, 0, 1, 0));
+    }
+
+    /**
+     * Gives the p-value of the chi-square test that the sums of a histogram follow a distribution
+     *
+     * @param histogram    The sampled sums
+     * @param distribution The exact distribution they should follow
+     * @return The p-value
+     */
+    private static double fitPValue(SumHistogram histogram, SumDistribution distribution) {
+        double statistic = 0;
+        int cells = 0;
+        for (int sum = distribution.getMinimum(); sum <= distribution.getMaximum(); sum++) {
+            double expected = distribution.probability(sum) * histogram.total();
+            double difference = histogram.count(sum) - expected;
+            statistic += difference * difference / expected;
+            cells++;
+        }
+        return RollStatistics.upperRegularizedGamma((cells - 1) / 2.0, statistic / 2);
+    }
+}
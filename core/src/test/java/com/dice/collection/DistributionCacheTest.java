@@ -0,0 +1,84 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the cache shares entries between orders of the same dice, counts its keys in its size and
+ * evicts the entries that were used least recently
+ */
+class DistributionCacheTest {
+    @Test
+    void sameDiceShareOneEntry() {
+        DistributionCache cache = new DistributionCache(1L << 20);
+        SumDistribution distribution = cache.exactDistribution(new int[]{6, 6, 10});
+        assertSame(distribution, cache.exactDistribution(new int[]{10, 6, 6}));
+        assertSame(distribution, cache.exactDistribution(DiceGroup.parse("1d10,1d6,1d6")));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.misses());
+        assertEquals(2, cache.hits());
+    }
+
+    @Test
+    void sizeCountsTheKey() {
+        DistributionCache cache = new DistributionCache(1L << 20);
+        SumDistribution distribution = cache.exactDistribution(new int[]{6, 8, 10});
+        assertTrue(cache.estimatedBytes() > distribution.estimatedBytes());
+        DistributionCache wider = new DistributionCache(1L << 20);
+        SumDistribution same = wider.exactDistribution(DiceGroup.parse("1d2,1d4,1d6,1d8,1d10"));
+        assertTrue(wider.estimatedBytes() - same.estimatedBytes() > cache.estimatedBytes() - distribution.estimatedBytes(),
+                "A key of more groups should weigh more");
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        int[] first = {4}, second = {6}, third = {8};
+        long limit = bytes(first) + bytes(second) + bytes(third) - 1;
+        DistributionCache cache = new DistributionCache(limit);
+        cache.exactDistribution(first);
+        cache.exactDistribution(second);
+        cache.exactDistribution(first); // Now second is the least recently used
+        cache.exactDistribution(third);
+
+        assertEquals(1, cache.evictions());
+        assertEquals(2, cache.size());
+        assertTrue(cache.estimatedBytes() <= limit);
+        long misses = cache.misses();
+        cache.exactDistribution(first);
+        cache.exactDistribution(third);
+        assertEquals(misses, cache.misses(), "Recently used entries should have been kept");
+        cache.exactDistribution(second);
+        assertEquals(misses + 1, cache.misses());
+    }
+
+    @Test
+    void keepsAnEntryLargerThanTheLimit() {
+        DistributionCache cache = new DistributionCache(1);
+        cache.exactDistribution(new int[]{6});
+        cache.exactDistribution(new int[]{20});
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.evictions());
+        assertNull(cache.sampledHistogram(new int[]{6}, 1));
+        SumHistogram histogram = new DiceCollection(new int[]{20}, "L64X128MixRandom", 1).histogram(100);
+        cache.putSampledHistogram(new int[]{20}, 100, histogram);
+        assertNotNull(cache.sampledHistogram(new int[]{20}, 100));
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Gives the size of the entry of an exact distribution, key included
+     *
+     * @param sides Sides of each die
+     * @return The estimated size in bytes
+     */
+    private static long bytes(int[] sides) {
+        DistributionCache cache = new DistributionCache(Long.MAX_VALUE);
+        cache.exactDistribution(sides);
+        return cache.estimatedBytes();
+    }
+}
@@ -0,0 +1,88 @@
+package com.dice.collection;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the ENTROPY_POOL generation strategy rolls every face as often as PER_ROLL does:
+ * each strategy must pass a chi-square test of uniform faces, and the face counts of the two must
+ * pass a chi-square test of homogeneity. The generators are seeded, so the tests always see the same rolls
+ */
+class EntropyPoolTest {
+    /* Dice rolled together in each collection */
+    private static final int DICE = 8;
+    /* Rolls of the collection per test */
+    private static final int ROLLS = 50_000;
+    /* Tests fail below this p-value */
+    private static final double SIGNIFICANCE = 0.001;
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 6, 7, 10, 12, 20, 100, 1000})
+    void everyFaceIsEquallyLikely(int sides) {
+        long[] pooled = faceCounts(sides, GenerationStrategy.ENTROPY_POOL);
+        long[] perRoll = faceCounts(sides, GenerationStrategy.PER_ROLL);
+        assertTrue(uniformPValue(pooled) > SIGNIFICANCE, "ENTROPY_POOL faces of a d" + sides + " are not uniform");
+        assertTrue(uniformPValue(perRoll) > SIGNIFICANCE, "PER_ROLL faces of a d" + sides + " are not uniform");
+        assertTrue(homogeneityPValue(pooled, perRoll) > SIGNIFICANCE, "ENTROPY_POOL and PER_ROLL faces of a d" + sides + " differ");
+    }
+
+    /**
+     * Rolls a seeded collection of identical dice and counts how often each face comes up
+     *
+     * @param sides    Sides of each die
+     * @param strategy How random bits are turned into rolls
+     * @return The counts where index 0 holds how often 1 came up
+     */
+    private static long[] faceCounts(int sides, GenerationStrategy strategy) {
+        DiceCollection collection = new DiceCollection(new DiceGroup[]{new DiceGroup(sides, DICE)}, DiceCollection.createGenerator("L64X128MixRandom", sides));
+        collection.setGenerationStrategy(strategy);
+        long[] counts = new long[sides];
+        for (int roll = 0; roll < ROLLS; roll++) {
+            collection.rollAll();
+            for (int upSide : collection.getUpSides()) counts[upSide - 1]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Gives the p-value of the chi-square test that every face is equally likely
+     *
+     * @param counts How often each face came up
+     * @return The p-value
+     */
+    private static double uniformPValue(long[] counts) {
+        long total = 0;
+        for (long count : counts) total += count;
+        double expected = (double) total / counts.length;
+        double statistic = 0;
+        for (long count : counts) statistic += (count - expected) * (count - expected) / expected;
+        return RollStatistics.upperRegularizedGamma((counts.length - 1) / 2.0, statistic / 2);
+    }
+
+    /**
+     * Gives the p-value of the chi-square test that two sets of face counts come from the same distribution
+     *
+     * @param first  How often each face came up with one strategy
+     * @param second How often each face came up with the other strategy
+     * @return The p-value
+     */
+    private static double homogeneityPValue(long[] first, long[] second) {
+        long firstTotal = 0, secondTotal = 0;
+        for (int face = 0; face < first.length; face++) {
+            firstTotal += first[face];
+            secondTotal += second[face];
+        }
+        double total = firstTotal + secondTotal;
+        double statistic = 0;
+        for (int face = 0; face < first.length; face++) {
+            double faceTotal = first[face] + second[face];
+            double firstExpected = faceTotal * firstTotal / total;
+            double secondExpected = faceTotal * secondTotal / total;
+            statistic += (first[face] - firstExpected) * (first[face] - firstExpected) / firstExpected;
+            statistic += (second[face] - secondExpected) * (second[face] - secondExpected) / secondExpected;
+        }
+        return RollStatistics.upperRegularizedGamma((first.length - 1) / 2.0, statistic / 2);
+    }
+}
@@ -0,0 +1,156 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a collection stored outside of the heap picks the narrowest width for its dice and behaves
+ * like a {@link DiceCollection} with the same sides and the same seeded generator
+ */
+class OffHeapDiceCollectionTest {
+    /* Algorithm of every generator of the tests */
+    private static final String ALGORITHM = "L64X128MixRandom";
+    /* More dice than one chunk of the off-heap collection, so rolls cross chunk boundaries */
+    private static final int DICE = 10_000;
+
+    @Test
+    void widthFitsTheDieWithTheMostSides() {
+        assertEquals(2, bytesPerDie(255));
+        assertEquals(4, bytesPerDie(256));
+        assertEquals(4, bytesPerDie(65535));
+        assertEquals(8, bytesPerDie(65536));
+    }
+
+    @Test
+    void rollsTheSameSidesAsTheHeapCollection() {
+        for (int maxSides : new int[]{6, 255, 1000, 65535, 100_000}) {
+            int[] sides = mixedSides(DICE, maxSides);
+            DiceCollection heap = new DiceCollection(sides, ALGORITHM, maxSides);
+            try (OffHeapDiceCollection offHeap = new OffHeapDiceCollection(sides, DiceCollection.createGenerator(ALGORITHM, maxSides))) {
+                assertArrayEquals(sides, offHeap.getSides());
+                assertEquals(heap.sumMaximum(), offHeap.sumMaximum());
+                for (int roll = 0; roll < 5; roll++) {
+                    assertArrayEquals(heap.getUpSides(), offHeap.getUpSides(), "Dice of up to " + maxSides + " sides");
+                    assertEquals(heap.sumUpSides(), offHeap.sumUpSides());
+                    heap.rollAll();
+                    offHeap.rollAll();
+                }
+                assertArrayEquals(heap.getGroups(), offHeap.getGroups());
+            }
+        }
+    }
+
+    @Test
+    void partitionedRunsMatchTheHeapCollection() {
+        int[] sides = mixedSides(300, 20);
+        DiceCollection heap = new DiceCollection(sides, ALGORITHM, 1);
+        try (OffHeapDiceCollection offHeap = new OffHeapDiceCollection(sides, DiceCollection.createGenerator(ALGORITHM, 1))) {
+            long rolls = 3L * PartitionedHistogram.BLOCK_ROLLS + 7;
+            assertArrayEquals(heap.histogramPartitioned(rolls, 9, 1).toArray(), offHeap.histogramPartitioned(rolls, 9, 4).toArray());
+            SumHistogram parallel = offHeap.histogramParallel(10_000, 4);
+            assertEquals(10_000, parallel.total());
+            assertEquals(offHeap.sumMinimum(), parallel.getMinimum());
+            assertEquals(offHeap.sumMaximum(), parallel.getMaximum());
+            offHeap.setSamplingMode(SamplingMode.DIRECT_SUM);
+            assertEquals(10_000, offHeap.histogramParallel(10_000, 4).total());
+            assertThrows(IllegalArgumentException.class, () -> offHeap.histogramParallel(10, 0));
+            assertThrows(IllegalArgumentException.class, () -> offHeap.histogramPartitioned(10, 1, 0));
+        }
+    }
+
+    @Test
+    void groupsGiveTheDistributionsAndDirectSumsOfTheHeapCollection() {
+        DiceGroup[] groups = DiceGroup.parse("300d6,200d10,1d20");
+        DiceCollection heap = new DiceCollection(groups, DiceCollection.createGenerator(ALGORITHM, 5));
+        try (OffHeapDiceCollection offHeap = new OffHeapDiceCollection(groups, DiceCollection.createGenerator(ALGORITHM, 5))) {
+            assertSame(heap.exactDistribution(), offHeap.exactDistribution(), "Both should share one cache entry");
+            SumApproximation heapApproximation = heap.approximateDistribution(0);
+            SumApproximation offHeapApproximation = offHeap.approximateDistribution(0);
+            assertEquals(heapApproximation.mean(), offHeapApproximation.mean(), 1e-9);
+            assertEquals(heapApproximation.variance(), offHeapApproximation.variance(), 1e-6);
+            assertEquals(heapApproximation.errorBound(), offHeapApproximation.errorBound(), 1e-12);
+
+            heap.setSamplingMode(SamplingMode.DIRECT_SUM);
+            offHeap.setSamplingMode(SamplingMode.DIRECT_SUM);
+            assertArrayEquals(heap.histogram(5000).toArray(), offHeap.histogram(5000).toArray());
+            assertArrayEquals(heap.getUpSides(), offHeap.getUpSides(), "Drawing sums should not roll the dice");
+        }
+    }
+
+    @Test
+    void changedSidesChangeTheDistribution() {
+        try (OffHeapDiceCollection offHeap = new OffHeapDiceCollection(new int[]{6, 6}, RandomGenerator.getDefault())) {
+            offHeap.setSamplingMode(SamplingMode.DIRECT_SUM);
+            offHeap.histogram(10);
+            offHeap.setSides(1, 20);
+            assertEquals(26, offHeap.exactDistribution().getMaximum());
+            assertEquals(26, offHeap.histogram(10).getMaximum());
+            assertArrayEquals(new DiceGroup[]{new DiceGroup(6, 1), new DiceGroup(20, 1)}, offHeap.getGroups());
+            assertThrows(IllegalArgumentException.class, () -> offHeap.setSides(0, 256), "Wider than 1 byte per die");
+        }
+    }
+
+    @Test
+    void logsTheSameRollsAsTheHeapCollection(@TempDir Path directory) throws IOException {
+        int[] sides = mixedSides(DICE, 1000);
+        Path heapLog = directory.resolve("heap.dlog");
+        Path offHeapLog = directory.resolve("off-heap.dlog");
+        DiceCollection heap = new DiceCollection(sides, ALGORITHM, 3);
+        try (RollLogWriter log = new RollLogWriter(heapLog, sides)) {
+            heap.record(4, log);
+        }
+        try (OffHeapDiceCollection offHeap = new OffHeapDiceCollection(sides, DiceCollection.createGenerator(ALGORITHM, 3));
+             RollLogWriter log = new RollLogWriter(offHeapLog, sides)) {
+            offHeap.record(4, log);
+        }
+        assertEquals(-1, Files.mismatch(heapLog, offHeapLog));
+    }
+
+    @Test
+    void closedCollectionRejectsEveryCall() {
+        OffHeapDiceCollection offHeap = new OffHeapDiceCollection(new int[]{6, 6}, RandomGenerator.getDefault());
+        offHeap.close();
+        assertTrue(offHeap.isClosed());
+        assertThrows(IllegalStateException.class, offHeap::rollAll);
+        assertThrows(IllegalStateException.class, offHeap::exactDistribution);
+        assertThrows(IllegalStateException.class, () -> offHeap.histogram(1));
+        offHeap.close(); // Closing twice does nothing
+    }
+
+    /**
+     * Gives how many bytes each die takes in a collection whose widest die has given sides
+     *
+     * @param maxSides Sides of the widest die
+     * @return The bytes per die
+     */
+    private static int bytesPerDie(int maxSides) {
+        try (OffHeapDiceCollection offHeap = new OffHeapDiceCollection(new int[]{2, maxSides, 3}, RandomGenerator.getDefault())) {
+            return offHeap.bytesPerDie();
+        }
+    }
+
+    /**
+     * Gives dice with sides that change from die to die, the widest having maxSides sides
+     *
+     * @param dice     How many dice
+     * @param maxSides Sides of the widest die
+     * @return The sides of each die
+     */
+    private static int[] mixedSides(int dice, int maxSides) {
+        int[] sides = new int[dice];
+        for (int i = 0; i < dice; i++) sides[i] = 1 + (int) ((i * 2654435761L) % maxSides);
+        sides[dice / 2] = maxSides;
+        return sides;
+    }
+}
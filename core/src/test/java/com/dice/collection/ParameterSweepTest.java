@@ -0,0 +1,138 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the order and coverage of the combinations, that distributions built from shared prefixes are the
+ * distributions of their dice, and that a seed gives the same histograms on any parallelism
+ */
+class ParameterSweepTest {
+    /* Largest difference allowed between the probabilities of a prefix chain and of a fresh convolution */
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    void combinationsComeSortedAndCoverEveryMultiset() {
+        List<int[]> configurations = new ArrayList<>();
+        for (int[] sides : ParameterSweep.combinations(1, 4, 2, 6)) configurations.add(sides);
+
+        Set<String> expected = new HashSet<>();
+        for (int dice = 1; dice <= 4; dice++) addMultisets(expected, new int[dice], 0, 2, 6);
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < configurations.size(); i++) {
+            int[] sides = configurations.get(i);
+            for (int die = 1; die < sides.length; die++) assertTrue(sides[die - 1] <= sides[die], "Not sorted: " + Arrays.toString(sides));
+            assertTrue(seen.add(Arrays.toString(sides)), "Repeated: " + Arrays.toString(sides));
+            if (i > 0) {
+                int[] previous = configurations.get(i - 1);
+                assertTrue(previous.length < sides.length || previous.length == sides.length && Arrays.compare(previous, sides) < 0,
+                        Arrays.toString(previous) + " came before " + Arrays.toString(sides));
+            }
+        }
+        assertEquals(expected, seen);
+        assertArrayEquals(new int[]{2}, configurations.get(0));
+        assertArrayEquals(new int[]{6, 6, 6, 6}, configurations.get(configurations.size() - 1));
+    }
+
+    @Test
+    void prefixChainsGiveTheDistributionOfTheirDice() {
+        List<int[]> configurations = new ArrayList<>();
+        for (int[] sides : ParameterSweep.combinations(1, 5, 1, 8)) configurations.add(sides);
+        int[] manyDice = new int[300]; // Above the FFT threshold with nothing to extend
+        Arrays.fill(manyDice, 0, 150, 6);
+        Arrays.fill(manyDice, 150, 300, 20);
+        configurations.add(manyDice);
+        configurations.add(new int[]{20, 6, 6, 10}); // Unsorted, shares no prefix with the previous one
+
+        Map<Long, SweepResult> results = new HashMap<>();
+        try (ParameterSweep sweep = new ParameterSweep(3, 0, 1)) {
+            sweep.run(configurations, result -> results.put(result.index(), result));
+        }
+        assertEquals(configurations.size(), results.size());
+        for (int i = 0; i < configurations.size(); i++) {
+            SweepResult result = results.get((long) i);
+            int[] sorted = configurations.get(i).clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(sorted, result.sides());
+            assertNull(result.histogram());
+            double[] expected = Convolution.probabilities(sorted);
+            double[] actual = result.distribution().getProbabilities();
+            assertEquals(expected.length, actual.length);
+            for (int k = 0; k < expected.length; k++)
+                assertEquals(expected[k], actual[k], TOLERANCE, Arrays.toString(sorted) + " index " + k);
+        }
+    }
+
+    @Test
+    void sameSeedGivesSameHistogramsOnAnyParallelism() {
+        Map<Long, long[]> serial = histograms(1, 7);
+        Map<Long, long[]> parallel = histograms(4, 7);
+        assertEquals(serial.keySet(), parallel.keySet());
+        parallel.forEach((index, counts) -> assertArrayEquals(serial.get(index), counts, "Configuration " + index));
+        Map<Long, long[]> other = histograms(4, 8);
+        assertTrue(serial.keySet().stream().anyMatch(index -> !Arrays.equals(serial.get(index), other.get(index))),
+                "Another seed gave the same histograms");
+    }
+
+    @Test
+    void resultsKeepTheirOwnSides() {
+        int[] sides = {4, 6};
+        SweepResult result = new SweepResult(3, sides, null, null);
+        sides[0] = 20;
+        assertArrayEquals(new int[]{4, 6}, result.sides());
+        result.sides()[1] = 20;
+        assertArrayEquals(new int[]{4, 6}, result.sides());
+        assertEquals(new SweepResult(3, new int[]{4, 6}, null, null), result);
+        assertEquals(new SweepResult(3, new int[]{4, 6}, null, null).hashCode(), result.hashCode());
+        assertNotEquals(new SweepResult(4, new int[]{4, 6}, null, null), result);
+        assertEquals("SweepResult[index=3, sides=[4, 6], distribution=null, histogram=null]", result.toString());
+    }
+
+    /**
+     * Sweeps some configurations with a seed and gives the counts of each histogram
+     *
+     * @param parallelism How many configurations are evaluated at the same time
+     * @param seed        Seed of the sweep
+     * @return The counts of each configuration's histogram by its position
+     */
+    private static Map<Long, long[]> histograms(int parallelism, long seed) {
+        Map<Long, long[]> histograms = new HashMap<>();
+        try (ParameterSweep sweep = new ParameterSweep(parallelism, 500, seed)) {
+            sweep.run(ParameterSweep.combinations(1, 3, 4, 12), result -> histograms.put(result.index(), result.histogram().toArray()));
+        }
+        return histograms;
+    }
+
+    /**
+     * Adds every sorted configuration of a number of dice to a set
+     *
+     * @param multisets Receives each configuration as text
+     * @param sides     The configuration being filled
+     * @param die       The next die to fill
+     * @param minSides  The fewest sides the next die may have
+     * @param maxSides  The most sides of a die
+     */
+    private static void addMultisets(Set<String> multisets, int[] sides, int die, int minSides, int maxSides) {
+        if (die == sides.length) {
+            multisets.add(Arrays.toString(sides));
+            return;
+        }
+        for (int side = minSides; side <= maxSides; side++) {
+            sides[die] = side;
+            addMultisets(multisets, sides, die + 1, side, maxSides);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the promise of partitioned histograms: a seed gives the same histogram bit for bit whatever the
+ * parallelism, and rolling the blocks of a run in separate ranges and merging them gives the whole run
+ */
+class PartitionedHistogramTest {
+    /* Several whole blocks and a last block that is only partly rolled */
+    private static final long ROLLS = 10L * PartitionedHistogram.BLOCK_ROLLS + 123;
+    /* Seed of every run */
+    private static final long SEED = 42;
+
+    @Test
+    void sameSeedGivesSameHistogramOnAnyParallelism() {
+        DiceCollection collection = collection();
+        SumHistogram serial = collection.histogramPartitioned(ROLLS, SEED, 1);
+        assertEquals(ROLLS, serial.total());
+        for (int parallelism : new int[]{2, 3, 8, 64}) {
+            SumHistogram parallel = collection.histogramPartitioned(ROLLS, SEED, parallelism);
+            assertEquals(serial.total(), parallel.total());
+            assertArrayEquals(serial.toArray(), parallel.toArray(), "Parallelism " + parallelism + " changed the histogram");
+        }
+    }
+
+    @Test
+    void mergedBlockRangesGiveTheWholeRun() {
+        DiceCollection collection = collection();
+        long blocks = DiceCollection.partitionBlocks(ROLLS);
+        SumHistogram whole = collection.histogramPartitioned(ROLLS, SEED, 2);
+        for (long[] cuts : new long[][]{{0, 1, blocks}, {0, 4, 5, 9, blocks}, {0, blocks - 1, blocks}}) {
+            SumHistogram merged = new SumHistogram(collection.sumMinimum(), collection.sumMaximum());
+            for (int i = 0; i + 1 < cuts.length; i++)
+                merged.merge(collection.histogramPartitioned(ROLLS, SEED, cuts[i], cuts[i + 1], 1));
+            assertEquals(whole.total(), merged.total());
+            assertArrayEquals(whole.toArray(), merged.toArray(), "Merging ranges changed the histogram");
+        }
+    }
+
+    @Test
+    void differentSeedsGiveDifferentHistograms() {
+        DiceCollection collection = collection();
+        SumHistogram first = collection.histogramPartitioned(ROLLS, SEED, 1);
+        SumHistogram second = collection.histogramPartitioned(ROLLS, SEED + 1, 1);
+        assertFalse(Arrays.equals(first.toArray(), second.toArray()));
+    }
+
+    @Test
+    void nearbySeedsShareNoBlockSeeds() {
+        Set<Long> seeds = new HashSet<>();
+        long golden = 0x9E3779B97F4A7C15L;
+        for (long seed : new long[]{0, 1, 2, golden, 2 * golden, -golden})
+            for (long block = 0; block < 1000; block++)
+                assertTrue(seeds.add(PartitionedHistogram.blockSeed(seed, block)), "Seed " + seed + " block " + block + " repeats a stream");
+    }
+
+    /**
+     * Gives a collection with dice of different sides. Its own generator is not used by partitioned runs
+     *
+     * @return The collection
+     */
+    private static DiceCollection collection() {
+        return new DiceCollection(DiceGroup.parse("3d6,1d20,2d7"), DiceCollection.createGenerator("L64X128MixRandom", 0));
+    }
+}
@@ -0,0 +1,139 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a log gives back every roll it recorded across segments and dice of mixed widths, and that
+ * a truncated or corrupt log is rejected instead of replayed
+ */
+class RollLogTest {
+    /* Dice of 0, 1, 3 and 10 bits: 28 bits per roll, so rolls end at every offset of a long */
+    private static final int[] SIDES = {2, 6, 1000, 6, 2, 1000, 1};
+    /* Small segments so a few rolls fill one, 18 rolls of 28 bits each */
+    private static final int SEGMENT_BYTES = 64;
+
+    @Test
+    void replaysEveryRollAcrossSegments(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("mixed.dlog");
+        List<int[]> written = write(path, 250, 1);
+        try (RollLogReader reader = new RollLogReader(path)) {
+            assertArrayEquals(SIDES, reader.getSides());
+            assertEquals(written.size(), reader.getRolls());
+            List<int[]> replayed = new ArrayList<>();
+            reader.replay(upSides -> replayed.add(upSides.clone()));
+            assertEquals(written.size(), replayed.size());
+            for (int i = 0; i < written.size(); i++) assertArrayEquals(written.get(i), replayed.get(i), "Roll " + i);
+
+            SumHistogram expected = new SumHistogram(SIDES.length, 2017);
+            for (int[] upSides : written) {
+                int sum = 0;
+                for (int upSide : upSides) sum += upSide;
+                expected.add(sum);
+            }
+            assertArrayEquals(expected.toArray(), reader.histogram().toArray());
+        }
+    }
+
+    @Test
+    void rollsWrittenDieByDieReplayTheSame(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("dice.dlog");
+        int[] roll = {2, 5, 1000, 1, 1, 999, 1};
+        try (RollLogWriter writer = new RollLogWriter(path, SIDES, SEGMENT_BYTES)) {
+            for (int i = 0; i < 40; i++) {
+                writer.writeDice(new int[]{roll[0], roll[1], roll[2]}, 3);
+                writer.writeDice(new int[]{roll[3]}, 1);
+                writer.writeDice(new int[]{roll[4], roll[5], roll[6]}, 3);
+            }
+            assertEquals(40, writer.getRolls());
+        }
+        try (RollLogReader reader = new RollLogReader(path)) {
+            List<int[]> replayed = new ArrayList<>();
+            reader.replay(upSides -> replayed.add(upSides.clone()));
+            assertEquals(40, replayed.size());
+            for (int[] upSides : replayed) assertArrayEquals(roll, upSides);
+        }
+    }
+
+    @Test
+    void valuesOutsideTheSidesAreRejected(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("corrupt.dlog");
+        write(path, 30, 2);
+        long firstSegment = new RollLog(SIDES, SEGMENT_BYTES).segmentOffset(0);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // The low 4 bits are the d2 and the d6 of the first roll: 1 + 7 is up on the d6
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0x0F}), firstSegment);
+        }
+        try (RollLogReader reader = new RollLogReader(path)) {
+            assertThrows(IOException.class, () -> reader.replay(upSides -> {
+            }));
+            assertThrows(IOException.class, reader::histogram);
+        }
+    }
+
+    @Test
+    void truncatedLogIsRejected(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("truncated.dlog");
+        write(path, 100, 3);
+        long secondSegment = new RollLog(SIDES, SEGMENT_BYTES).segmentOffset(1);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(secondSegment + 8);
+        }
+        assertThrows(IOException.class, () -> new RollLogReader(path));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(10);
+        }
+        assertThrows(IOException.class, () -> new RollLogReader(path));
+    }
+
+    @Test
+    void corruptHeaderIsRejected(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("header.dlog");
+        write(path, 5, 4);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[4]), 24); // The first die now has no side
+        }
+        assertThrows(IOException.class, () -> new RollLogReader(path));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'N', 'O', 'P', 'E'}), 0);
+        }
+        assertThrows(IOException.class, () -> new RollLogReader(path));
+    }
+
+    /**
+     * Writes random rolls of the test dice to a log
+     *
+     * @param path  Where to write the log
+     * @param rolls How many rolls
+     * @param seed  Seed of the up sides
+     * @return The up sides of each roll in the order they were written
+     * @throws IOException If the log cannot be written
+     */
+    private static List<int[]> write(Path path, int rolls, long seed) throws IOException {
+        RandomGenerator random = DiceCollection.createGenerator("L64X128MixRandom", seed);
+        List<int[]> written = new ArrayList<>();
+        try (RollLogWriter writer = new RollLogWriter(path, SIDES, SEGMENT_BYTES)) {
+            for (int roll = 0; roll < rolls; roll++) {
+                int[] upSides = new int[SIDES.length];
+                // Every fourth roll has the highest sides, so all the bits of each die are used
+                for (int i = 0; i < SIDES.length; i++) upSides[i] = roll % 4 == 0 ? SIDES[i] : random.nextInt(1, SIDES[i] + 1);
+                writer.write(upSides);
+                written.add(upSides);
+            }
+        }
+        return written;
+    }
+}
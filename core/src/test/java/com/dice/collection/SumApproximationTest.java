@@ -0,0 +1,108 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the approximation against the exact distribution: it is exact below its limit, its moments are
+ * those of the dice, and every cumulative probability is within its error bound
+ */
+class SumApproximationTest {
+    @Test
+    void fallsBackToExactBelowTheLimit() {
+        DiceGroup[] groups = DiceGroup.parse("3d6,1d10");
+        int sums = 3 * 5 + 9 + 1;
+        SumApproximation exact = new SumApproximation(groups, sums);
+        assertTrue(exact.isExact());
+        assertEquals(0, exact.errorBound());
+        SumDistribution distribution = DistributionCache.shared().exactDistribution(groups);
+        assertSame(distribution, exact.getExactDistribution());
+        for (int sum = exact.getMinimum() - 1; sum <= exact.getMaximum() + 1; sum++) {
+            assertEquals(distribution.probability(sum), exact.probability(sum), "Sum " + sum);
+            assertEquals(distribution.cumulativeProbability(sum), exact.cumulativeProbability(sum), "Sum " + sum);
+        }
+
+        SumApproximation approximated = new SumApproximation(groups, sums - 1);
+        assertFalse(approximated.isExact());
+        assertNull(approximated.getExactDistribution());
+        assertTrue(approximated.errorBound() > 0);
+        assertTrue(new SumApproximation(new int[]{1, 1, 1}, 0).isExact(), "A sum that cannot vary is always exact");
+    }
+
+    @Test
+    void staysWithinTheErrorBoundOfTheExactDistribution() {
+        for (String dice : new String[]{"200d20", "150d6,50d12,10d100"}) {
+            DiceGroup[] groups = DiceGroup.parse(dice);
+            SumApproximation approximation = new SumApproximation(groups, 0);
+            SumDistribution exact = DistributionCache.shared().exactDistribution(groups);
+            assertFalse(approximation.isExact());
+
+            double largestError = 0;
+            double total = 0;
+            for (int sum = exact.getMinimum(); sum <= exact.getMaximum(); sum++) {
+                double error = Math.abs(approximation.cumulativeProbability(sum) - exact.cumulativeProbability(sum));
+                assertTrue(error <= approximation.errorBound(), dice + " sum " + sum + " is off by " + error);
+                largestError = Math.max(largestError, error);
+                total += approximation.probability(sum);
+            }
+            assertTrue(largestError < approximation.errorBound() / 10, dice + " is off by " + largestError);
+            assertEquals(1, total, 1e-3, dice);
+            assertEquals(0, approximation.cumulativeProbability(exact.getMinimum() - 1));
+            assertEquals(1, approximation.cumulativeProbability(exact.getMaximum()));
+        }
+    }
+
+    @Test
+    void momentsMatchTheClosedForms() {
+        DiceGroup[] groups = DiceGroup.parse("2d6,3d10,1d20,4d3");
+        SumApproximation approximation = new SumApproximation(groups, 0);
+        double mean = 0, variance = 0;
+        for (DiceGroup group : groups) {
+            int n = group.sides();
+            mean += group.count() * (n + 1) / 2.0;
+            variance += group.count() * ((double) n * n - 1) / 12;
+        }
+        assertEquals(mean, approximation.mean(), 1e-12);
+        assertEquals(variance, approximation.variance(), 1e-12);
+        assertEquals(Math.sqrt(variance), approximation.standardDeviation(), 1e-12);
+
+        // The same moments from the exact probabilities
+        SumDistribution exact = DistributionCache.shared().exactDistribution(groups);
+        double exactMean = 0;
+        for (int sum = exact.getMinimum(); sum <= exact.getMaximum(); sum++) exactMean += sum * exact.probability(sum);
+        double second = 0, third = 0, fourth = 0;
+        for (int sum = exact.getMinimum(); sum <= exact.getMaximum(); sum++) {
+            double distance = sum - exactMean;
+            second += distance * distance * exact.probability(sum);
+            fourth += distance * distance * distance * distance * exact.probability(sum);
+            third += distance * distance * distance * exact.probability(sum);
+        }
+        assertEquals(exactMean, approximation.mean(), 1e-9);
+        assertEquals(second, approximation.variance(), 1e-9);
+        assertEquals(0, third, 1e-6, "Sums of dice are symmetric");
+        assertEquals((fourth - 3 * second * second) / (second * second), approximation.excessKurtosis(), 1e-9);
+        assertTrue(approximation.excessKurtosis() < 0);
+    }
+
+    @Test
+    void errorBoundFollowsTheThirdMomentsOfTheDice() {
+        DiceGroup[] groups = DiceGroup.parse("40d6,30d7,20d20");
+        SumApproximation approximation = new SumApproximation(groups, 0);
+        double absoluteThirdMoments = 0;
+        for (DiceGroup group : groups) {
+            int n = group.sides();
+            double dieMean = (n + 1) / 2.0, moment = 0;
+            for (int side = 1; side <= n; side++) moment += Math.pow(Math.abs(side - dieMean), 3) / n;
+            absoluteThirdMoments += group.count() * moment;
+        }
+        double sd = approximation.standardDeviation();
+        double expected = 0.56 * absoluteThirdMoments / (sd * sd * sd) + 0.3989422804014327 / (2 * sd)
+                + 0.551 * Math.abs(approximation.excessKurtosis()) / 24;
+        assertEquals(expected, approximation.errorBound(), 1e-12);
+    }
+}
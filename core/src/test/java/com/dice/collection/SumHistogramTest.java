@@ -0,0 +1,177 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks merging histograms with the same or different bounds, and that the binary form gives back every
+ * count while rejecting truncated or corrupt input
+ */
+class SumHistogramTest {
+    /* Counts that take from 1 to 9 bytes in the binary form */
+    private static final long[] LARGE_COUNTS = {1, 127, 128, 16_383, 16_384, 1L << 35, 1L << 56, Long.MAX_VALUE / 4};
+
+    @Test
+    void mergeWithSameBoundsAddsEveryCount() {
+        SumHistogram histogram = new SumHistogram(3, 3000);
+        histogram.add(3, 2);
+        SumHistogram snapshot = histogram.snapshot();
+        SumHistogram other = new SumHistogram(3, 3000);
+        other.add(3, 5);
+        other.add(2999, 7);
+        histogram.merge(other);
+        assertEquals(7, histogram.count(3));
+        assertEquals(7, histogram.count(2999));
+        assertEquals(14, histogram.total());
+        assertEquals(2, snapshot.count(3), "Merging changed a snapshot");
+        assertEquals(2, snapshot.total());
+    }
+
+    @Test
+    void mergeWithDifferentBoundsAddsCountsInside() {
+        SumHistogram histogram = new SumHistogram(10, 5000);
+        SumHistogram narrower = new SumHistogram(100, 200);
+        narrower.add(100, 4);
+        narrower.add(200, 6);
+        SumHistogram wider = new SumHistogram(0, 9000);
+        wider.add(10, 1);
+        wider.add(5000, 2);
+        histogram.merge(narrower);
+        histogram.merge(wider);
+        assertEquals(4, histogram.count(100));
+        assertEquals(6, histogram.count(200));
+        assertEquals(1, histogram.count(10));
+        assertEquals(2, histogram.count(5000));
+        assertEquals(13, histogram.total());
+    }
+
+    @Test
+    void mergeRejectsCountsBeyondTheMaximumOfTheSamePages() {
+        // Same minimum and page count, but the other histogram goes 3 sums further: counts there have no
+        // place in this histogram even though the pages line up
+        SumHistogram histogram = new SumHistogram(10, 1030);
+        histogram.add(20, 3);
+        SumHistogram other = new SumHistogram(10, 1033);
+        other.add(20, 1);
+        other.add(1033, 5);
+        assertThrows(IllegalArgumentException.class, () -> histogram.merge(other));
+        assertEquals(3, histogram.count(20), "A rejected merge changed the counts");
+        assertEquals(3, histogram.total());
+        assertEquals(histogram.total(), Arrays.stream(histogram.toArray()).sum());
+
+        SumHistogram below = new SumHistogram(0, 1030);
+        below.add(5, 1);
+        assertThrows(IllegalArgumentException.class, () -> histogram.merge(below));
+        assertEquals(3, histogram.total());
+    }
+
+    @Test
+    void binaryFormKeepsSparsePagesAndLargeCounts() throws IOException {
+        SumHistogram histogram = new SumHistogram(-50, 200_000);
+        int sum = -50;
+        for (long count : LARGE_COUNTS) {
+            histogram.add(sum, count);
+            sum += 3 * SumHistogram.PAGE_SIZE + 17; // Leaves whole pages empty in between
+        }
+        histogram.add(200_000, 9);
+        SumHistogram empty = new SumHistogram(1, 6);
+        SumHistogram single = new SumHistogram(7, 7);
+        single.add(7, 1L << 40);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        histogram.writeTo(out);
+        empty.writeTo(out);
+        single.snapshot().writeTo(out);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertSameCounts(histogram, SumHistogram.readFrom(in));
+        assertSameCounts(empty, SumHistogram.readFrom(in));
+        assertSameCounts(single, SumHistogram.readFrom(in));
+        assertEquals(0, in.available(), "Reading went past the last histogram");
+    }
+
+    @Test
+    void truncatedInputIsRejected() throws IOException {
+        SumHistogram histogram = new SumHistogram(0, 5000);
+        histogram.add(10, 300);
+        histogram.add(4000, Long.MAX_VALUE / 8);
+        byte[] bytes = bytes(histogram);
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IOException.class, () -> SumHistogram.readFrom(new ByteArrayInputStream(truncated)), "Length " + length);
+        }
+    }
+
+    @Test
+    void corruptInputIsRejected() throws IOException {
+        SumHistogram histogram = new SumHistogram(5, 50);
+        histogram.add(10, 3);
+        histogram.add(40, 200);
+        byte[] bytes = bytes(histogram);
+
+        assertCorrupt(bytes, buffer -> buffer.putInt(0, 0x12345678)); // Magic
+        assertCorrupt(bytes, buffer -> buffer.put(4, (byte) 2)); // Version
+        assertCorrupt(bytes, buffer -> buffer.putInt(9, 4)); // Maximum below minimum
+        assertCorrupt(bytes, buffer -> buffer.putLong(13, -1)); // Negative total
+        assertCorrupt(bytes, buffer -> buffer.putLong(13, 204)); // Total that the counts do not add up to
+        assertCorrupt(bytes, buffer -> buffer.putInt(21, 4)); // Lowest sum below the minimum
+        assertCorrupt(bytes, buffer -> buffer.putInt(25, 51)); // Highest sum above the maximum
+        assertCorrupt(bytes, buffer -> {
+            buffer.putInt(21, 40); // Highest sum below the lowest
+            buffer.putInt(25, 10);
+        });
+
+        ByteArrayOutputStream overlong = new ByteArrayOutputStream();
+        overlong.write(bytes, 0, 29);
+        for (int i = 0; i < 10; i++) overlong.write(0xFF); // More than 64 bits in one count
+        overlong.write(0x01);
+        assertThrows(IOException.class, () -> SumHistogram.readFrom(new ByteArrayInputStream(overlong.toByteArray())));
+    }
+
+    /**
+     * Checks that a histogram is rejected once its bytes are changed
+     *
+     * @param bytes      The bytes of a valid histogram
+     * @param corruption The change to make to a copy of the bytes
+     */
+    private static void assertCorrupt(byte[] bytes, Consumer<ByteBuffer> corruption) {
+        byte[] corrupt = bytes.clone();
+        corruption.accept(ByteBuffer.wrap(corrupt));
+        assertThrows(IOException.class, () -> SumHistogram.readFrom(new ByteArrayInputStream(corrupt)));
+    }
+
+    /**
+     * Gives the binary form of a histogram
+     *
+     * @param histogram The histogram
+     * @return The bytes written by writeTo
+     * @throws IOException Never, the bytes are kept in memory
+     */
+    private static byte[] bytes(SumHistogram histogram) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        histogram.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Checks that two histograms have the same bounds and counts
+     *
+     * @param expected The histogram that was written
+     * @param actual   The histogram that was read
+     */
+    private static void assertSameCounts(SumHistogram expected, SumHistogram actual) {
+        assertEquals(expected.getMinimum(), actual.getMinimum());
+        assertEquals(expected.getMaximum(), actual.getMaximum());
+        assertEquals(expected.total(), actual.total());
+        assertArrayEquals(expected.toArray(), actual.toArray());
+    }
+}
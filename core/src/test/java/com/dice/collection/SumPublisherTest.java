@@ -0,0 +1,192 @@
+package com.dice.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the promises of the sum publisher: nothing is delivered without demand, batches grow and shrink
+ * with the demand, and failures reach the subscriber. Every publisher runs on the calling thread, so each
+ * signal has happened by the time request returns
+ */
+class SumPublisherTest {
+    /* Sums of every publisher that completes */
+    private static final long ROLLS = 500_000;
+
+    @Test
+    void nothingIsDeliveredWithoutDemand() {
+        Recorder recorder = new Recorder(subscription -> {
+        });
+        publisher(ROLLS).subscribe(recorder);
+        assertEquals(0, recorder.batches.size());
+        recorder.subscription.request(1);
+        assertEquals(1, recorder.batches.size());
+        recorder.subscription.request(2);
+        assertEquals(3, recorder.batches.size());
+        assertFalse(recorder.completed);
+        assertNull(recorder.error);
+    }
+
+    @Test
+    void batchesGrowWhileDemandIsLeft() {
+        Recorder recorder = new Recorder(subscription -> subscription.request(Long.MAX_VALUE));
+        publisher(ROLLS).subscribe(recorder);
+        assertTrue(recorder.completed);
+        assertEquals(ROLLS, recorder.total());
+        List<Integer> sizes = recorder.sizes();
+        for (int i = 1; i + 1 < sizes.size(); i++)
+            assertEquals(Math.min(SumPublisher.MAX_BATCH, 2 * sizes.get(i - 1)), sizes.get(i), "Batch " + i);
+        assertEquals(SumPublisher.MAX_BATCH, sizes.get(sizes.size() - 2));
+    }
+
+    @Test
+    void batchesShrinkWhenDemandRunsOut() {
+        Recorder recorder = new Recorder(subscription -> subscription.request(1));
+        recorder.requestAfterEachBatch = true;
+        publisher(20_000).subscribe(recorder);
+        assertTrue(recorder.completed);
+        assertEquals(20_000, recorder.total());
+        List<Integer> sizes = recorder.sizes();
+        for (int i = 1; i + 1 < sizes.size(); i++)
+            assertEquals(Math.max(SumPublisher.MIN_BATCH, sizes.get(i - 1) / 2), sizes.get(i), "Batch " + i);
+        assertEquals(SumPublisher.MIN_BATCH, sizes.get(sizes.size() - 2));
+    }
+
+    @Test
+    void batchesFollowEachOther() {
+        Recorder recorder = new Recorder(subscription -> subscription.request(Long.MAX_VALUE));
+        publisher(ROLLS).subscribe(recorder);
+        long next = 0;
+        for (SumPublisher.Batch batch : recorder.batches) {
+            assertEquals(next, batch.firstRoll());
+            for (int i = 0; i < batch.size(); i++) assertTrue(batch.sum(i) >= 3 && batch.sum(i) <= 18);
+            next += batch.size();
+        }
+        assertEquals(ROLLS, next);
+    }
+
+    @Test
+    void failedRollReachesTheSubscriber() {
+        IllegalStateException failure = new IllegalStateException("Rolling failed");
+        int[] rolled = {0};
+        SumPublisher publisher = new SumPublisher(() -> {
+            if (++rolled[0] > 3000) throw failure;
+            return 7;
+        }, ROLLS, Runnable::run);
+        Recorder recorder = new Recorder(subscription -> subscription.request(Long.MAX_VALUE));
+        publisher.subscribe(recorder);
+        assertSame(failure, recorder.error);
+        assertFalse(recorder.completed);
+        int delivered = recorder.batches.size();
+        recorder.subscription.request(5); // Must neither deliver nor hang
+        assertEquals(delivered, recorder.batches.size());
+    }
+
+    @Test
+    void throwingSubscriberGetsOnError() {
+        RuntimeException failure = new RuntimeException("Subscriber failed");
+        Recorder recorder = new Recorder(subscription -> subscription.request(10));
+        recorder.onNextFailure = failure;
+        publisher(ROLLS).subscribe(recorder);
+        assertEquals(1, recorder.batches.size());
+        assertSame(failure, recorder.error);
+        assertFalse(recorder.completed);
+    }
+
+    /**
+     * Gives a publisher of rolls of 3d6 that signals on the calling thread
+     *
+     * @param rolls How many sums to publish
+     * @return The publisher
+     */
+    private static SumPublisher publisher(long rolls) {
+        DiceCollection collection = new DiceCollection(new int[]{6, 6, 6}, "L64X128MixRandom", 1);
+        return collection.publishSums(rolls, Runnable::run);
+    }
+
+    /**
+     * A subscriber that keeps every signal it gets
+     */
+    private static final class Recorder implements Flow.Subscriber<SumPublisher.Batch> {
+        /* What to request when subscribed */
+        private final Consumer<Flow.Subscription> onSubscribe;
+        /* Every batch received */
+        private final List<SumPublisher.Batch> batches = new ArrayList<>();
+        /* The subscription */
+        private Flow.Subscription subscription;
+        /* Whether onComplete was called */
+        private boolean completed;
+        /* The failure of onError, or null */
+        private Throwable error;
+        /* Whether to request one more batch after each batch */
+        private boolean requestAfterEachBatch;
+        /* Thrown from onNext when not null */
+        private RuntimeException onNextFailure;
+
+        /**
+         * Constructs a recorder
+         *
+         * @param onSubscribe What to request when subscribed
+         */
+        Recorder(Consumer<Flow.Subscription> onSubscribe) {
+            this.onSubscribe = onSubscribe;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            onSubscribe.accept(subscription);
+        }
+
+        @Override
+        public void onNext(SumPublisher.Batch batch) {
+            assertFalse(completed || error != null, "Batch after the end");
+            batches.add(batch);
+            if (onNextFailure != null) throw onNextFailure;
+            if (requestAfterEachBatch) subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            assertFalse(completed || error != null, "Second terminal signal");
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            assertFalse(completed || error != null, "Second terminal signal");
+            completed = true;
+        }
+
+        /**
+         * Gives the size of every batch received
+         *
+         * @return The sizes in the order of the batches
+         */
+        List<Integer> sizes() {
+            List<Integer> sizes = new ArrayList<>();
+            for (SumPublisher.Batch batch : batches) sizes.add(batch.size());
+            return sizes;
+        }
+
+        /**
+         * Gives how many sums were received
+         *
+         * @return The number of sums
+         */
+        long total() {
+            long total = 0;
+            for (SumPublisher.Batch batch : batches) total += batch.size();
+            return total;
+        }
+    }
+}
@@ -0,0 +1,665 @@
+package com.dice.collection;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import javafx.stage.Stage;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class is the view of Dice Collection GUI application.
+ * It contains:
+ * - 2 primary methods:
+ * + main
+ * + start
+ * - 3 simulation methods:
+ * + startSimulation
+ * + cancelSimulation
+ * + showSnapshot
+ * - 2 rendering methods:
+ * + drawHistogram
+ * + showInfo
+ * - 6 node creator methods:
+ * + createTitle
+ * + createButtons
+ * + createHistogramSection
+ * + createInfoSection
+ * + createInputSection
+ * + createInputField
+ * - 3 utility methods:
+ * + isInteger
+ * + isDigit
+ * + parseInt
+ * Overall vertical layout: Title -> Buttons -> Main area.
+ * All parts of overall vertical layout are contained and positioned inside a BorderPane.
+ * <p>
+ * Main area contains 3 sections horizontally positioned from left to right and created by:
+ * + createInputSection
+ * + createInfoSection
+ * + createHistogramSection
+ * <p>
+ * Simulations run on a background thread and send snapshots of their histogram back to the
+ * JavaFX application thread at most every {@code SNAPSHOT_INTERVAL}, so the window never freezes
+ * and the bar graph grows while the dice are rolling.
+ * <p>
+ * Nodes are created once. The canvas and the info text are only redrawn when the dice collection
+ * or the histogram changes, by calling drawHistogram or showInfo from the code that changes them.
+ * <p>
+ * LIMITATIONS: Due to the size limit of the canvas to draw the histogram, number of dice is
+ * limited to below 7 and number of sizes of each die is limited to below 10
+ *
+ * @author Manh Truong Nguyen
+ */
+public class MainGUI extends Application {
+    /* Minimum time between 2 updates of the bar graph while a simulation is running */
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofMillis(100);
+    /* How many times to roll when the user has not entered a roll count */
+    private static final long DEFAULT_ROLLS = 100_000;
+    // Constants that define the sizes of canvas and child elements
+    private static final int CHART_CONTAINER_WIDTH = 600;
+    private static final int CHART_CONTAINER_HEIGHT = 600;
+    private static final int CHART_CONTAINER_PADDING = 60;
+    private static final int CHART_WIDTH = CHART_CONTAINER_WIDTH - CHART_CONTAINER_PADDING * 2;
+    private static final int CHART_HEIGHT = CHART_CONTAINER_HEIGHT - CHART_CONTAINER_PADDING * 2;
+    private static final int CHART_Y_AXIS_TICKS = 10;
+    private static final int CHART_Y_AXIS_TICK_GAP = CHART_HEIGHT / CHART_Y_AXIS_TICKS;
+    private static final int TICK_LENGTH = 5;
+
+    /* Indicate whether it is the first time use clicks on Roll Thousands button */
+    private boolean isFirstThousandRoll = true;
+    /* How many times the Roll Thousands button rolls all dice */
+    private long rolls = DEFAULT_ROLLS;
+    /* Runs simulations away from the JavaFX application thread. Daemon threads so closing the window ends the app */
+    private final ExecutorService simulationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dice-simulation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /* The simulation that is currently running, null when none is running */
+    private HistogramRun currentRun;
+    /* Counts started simulations so snapshots of a replaced simulation can be ignored */
+    private long simulationCount;
+    /* Shows how much of the current simulation is done */
+    private ProgressBar progressBar;
+    /* Cancels the current simulation */
+    private Button cancelButton;
+    /* Stores the collection of dice */
+    private DiceCollection diceCollection;
+    /* Stores the histogram returned from calling histogram method of diceCollection */
+    private SumHistogram tracker;
+    /* Canvas of the bar graph, created once and redrawn by drawHistogram */
+    private Canvas chartContainer;
+    /* Text box of the dice collection info, created once and updated by showInfo */
+    private Text info;
+
+    /**
+     * Entry point of Dice Collection GUI App
+     *
+     * @param args Passed to the launch method of JavaFX
+     */
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    /**
+     * Entry point of JavaFX
+     *
+     * @param stage the primary stage for this application, onto which
+     *              the application scene can be set.
+     *              Applications may create other stages, if needed, but they will not be
+     *              primary stages.
+     */
+    @Override
+    public void start(Stage stage) {
+        DiceMetrics.setEnabled(true); // Count rolls and histogram runs for the info panel
+
+        Text title = createTitle("Dice Collection"); // Main header
+
+        Buttons buttons = createButtons(); // Buttons for user control
+
+        /* Create 3 sections from creator methods and put in the main BorderPane in order from left to right */
+        VBox inputSection = createInputSection(buttons.rollOne(), buttons.rollThousands());
+        VBox infoSection = createInfoSection();
+        VBox histogramSection = createHistogramSection();
+        BorderPane main = new BorderPane(infoSection, null, histogramSection, null, inputSection);
+
+        /* Container of title, buttons, and main area */
+        VBox root = new VBox();
+        root.setPadding(new Insets(50, 50, 50, 50));
+        root.setSpacing(50);
+        root.setAlignment(Pos.TOP_CENTER);
+        root.getChildren().addAll(title, buttons.container(), main);
+
+        Scene scene = new Scene(root); // Main scene
+
+        // Config primary stage then show
+        stage.setScene(scene);
+        stage.setWidth(1920);
+        stage.setHeight(1080);
+        stage.setMaximized(true);
+        stage.setResizable(false);
+        stage.setTitle("Dice Collection");
+        stage.show();
+    }
+
+    /**
+     * Creates the title header
+     *
+     * @param title A string to put as the title
+     * @return a Text node with the string argument as title
+     */
+    public Text createTitle(String title) {
+        Text text = new Text(title);
+        text.setFont(Font.font("Verdana", FontWeight.BOLD, 28));
+        text.setFill(Color.RED);
+        text.setTextAlignment(TextAlignment.CENTER);
+        return text;
+    }
+
+    /**
+     * Creates 3 buttons: Roll Once, Roll 100000 times, Cancel
+     * Creates 1 field for the number of rolls and 1 progress bar
+     * Create 1 container for all of them
+     * The return type of this method is a custom record at the end of this file
+     *
+     * @return An object of the button container and the buttons themselves
+     */
+    public Buttons createButtons() {
+        // Creates 3 buttons with labels
+        Button rollOnce = new Button("Roll Once");
+        Button rollThousands = new Button(rollsLabel(rolls));
+        cancelButton = new Button("Cancel");
+
+        // Buttons are disabled by default
+        rollOnce.setDisable(true);
+        rollThousands.setDisable(true);
+        cancelButton.setDisable(true);
+
+        // Field for how many times to roll, with the default count filled in
+        InputField rollCount = createInputField("Rolls");
+        rollCount.textField().setText(String.valueOf(rolls));
+        rollCount.textField().setPrefColumnCount(10);
+        // Only valid counts are used. The button label always shows the count that will be rolled
+        rollCount.textField().textProperty().addListener((obs, oldInput, currentInput) -> {
+            if (isInteger(currentInput) && currentInput.length() <= 18 && Long.parseLong(currentInput) > 0) {
+                rolls = Long.parseLong(currentInput);
+                rollThousands.setText(rollsLabel(rolls));
+            }
+        });
+
+        progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(200);
+
+        // Clicking on Roll Once button stops any simulation, clears the tracker and rolls all dice of the collection
+        rollOnce.setOnAction((event) -> {
+            cancelSimulation();
+            simulationCount++; // Snapshots still on their way belong to the stopped simulation and are ignored
+            tracker = null;
+            diceCollection.rollAll();
+            drawHistogram();
+            showInfo();
+        });
+        // Clicking on Roll 100000 Times starts a simulation in the background that updates the tracker as it rolls
+        // From here it is no longer the first time user clicks on this button
+        rollThousands.setOnAction((event) -> {
+            startSimulation(false);
+            isFirstThousandRoll = false;
+        });
+        // Clicking on Cancel stops the simulation and keeps the histogram of the rolls done so far
+        cancelButton.setOnAction((event) -> cancelSimulation());
+
+        // Container of buttons, roll count and progress
+        HBox container = new HBox(rollOnce, rollCount.container(), rollThousands, cancelButton, progressBar);
+        container.setSpacing(15);
+        container.setAlignment(Pos.CENTER);
+
+        return new Buttons(container, rollOnce, rollThousands);
+    }
+
+    /**
+     * Gives the label of the button that rolls many times
+     *
+     * @param rolls How many times the button rolls
+     * @return The label, e.g. "Roll 100,000 Times"
+     */
+    private String rollsLabel(long rolls) {
+        return String.format("Roll %,d Times", rolls);
+    }
+
+    /**
+     * Starts rolling a copy of the dice collection in the background, replacing any running simulation.
+     * The simulation rolls its own copy so rolling once on the application thread never races with it.
+     * Snapshots are handed to the application thread one at a time: a new update is only queued after
+     * the previous one has been shown, so a busy screen skips snapshots instead of falling behind.
+     * Finished histograms are kept in the shared distribution cache, so when the dice are changed back to
+     * dice that have already been rolled as many times their histogram is shown again without rolling.
+     * Clicking the button always rolls again
+     *
+     * @param reuseCached Whether a cached histogram of the same dice and rolls may be shown instead of rolling
+     */
+    private void startSimulation(boolean reuseCached) {
+        cancelSimulation();
+        final long simulationId = ++simulationCount;
+        final int[] sides = diceCollection.getSides();
+        final long simulatedRolls = rolls;
+        SumHistogram cached = reuseCached ? DistributionCache.shared().sampledHistogram(sides, simulatedRolls) : null;
+        if (cached != null) {
+            tracker = cached;
+            drawHistogram();
+            progressBar.setProgress(1);
+            return;
+        }
+        DiceCollection simulated = new DiceCollection(sides);
+        AtomicReference<HistogramRun.Snapshot> pending = new AtomicReference<>();
+        currentRun = simulated.streamHistogram(simulatedRolls, SNAPSHOT_INTERVAL, (snapshot) -> {
+            if (snapshot.finished() && !snapshot.cancelled())
+                DistributionCache.shared().putSampledHistogram(sides, simulatedRolls, snapshot.histogram());
+            if (pending.getAndSet(snapshot) == null)
+                Platform.runLater(() -> showSnapshot(simulationId, pending.getAndSet(null)));
+        });
+        cancelButton.setDisable(false);
+        progressBar.setProgress(0);
+        simulationExecutor.execute(currentRun);
+    }
+
+    /**
+     * Asks the running simulation to stop, if there is one
+     */
+    private void cancelSimulation() {
+        if (currentRun != null) currentRun.cancel();
+        currentRun = null;
+        cancelButton.setDisable(true);
+    }
+
+    /**
+     * Shows a snapshot of a simulation on the application thread
+     *
+     * @param simulationId The simulation the snapshot belongs to
+     * @param snapshot     The snapshot to show
+     */
+    private void showSnapshot(long simulationId, HistogramRun.Snapshot snapshot) {
+        // A newer simulation has started, so the histogram belongs to dice that are no longer shown
+        if (simulationId != simulationCount) return;
+        tracker = snapshot.histogram();
+        drawHistogram();
+        progressBar.setProgress(snapshot.progress());
+        if (snapshot.finished()) {
+            currentRun = null;
+            cancelButton.setDisable(true);
+            showInfo(); // The run is counted in the metrics once it is finished
+        }
+    }
+
+    /**
+     * Creates the histogram section with 1 header, 1 canvas to draw the bar graph
+     * The bar graph is redrawn whenever the histogram changes: while a simulation is running and
+     * whenever the user changes any input values after the user has clicked on Roll 100000 Times once
+     *
+     * @return The container of all child nodes
+     */
+    public VBox createHistogramSection() {
+        /* Container of child nodes */
+        VBox container = new VBox();
+        container.setSpacing(15);
+        container.setAlignment(Pos.TOP_CENTER);
+
+        // Header of section
+        Text title = new Text("Histogram");
+        title.setFont(Font.font("Verdana", FontWeight.BOLD, 17));
+        title.setTextAlignment(TextAlignment.CENTER);
+        title.setFill(Color.GREEN);
+
+        // Canvas to draw the bar graph
+        chartContainer = new Canvas(CHART_CONTAINER_WIDTH, CHART_CONTAINER_HEIGHT);
+        drawHistogram();
+
+        // Add header and bar chart to container
+        container.getChildren().addAll(title, chartContainer);
+
+        return container;
+    }
+
+    /**
+     * Redraws everything inside the canvas from the current tracker
+     * Called only when the tracker changes
+     */
+    private void drawHistogram() {
+        GraphicsContext gc = chartContainer.getGraphicsContext2D();
+        gc.setLineDashes(); // Dashes of the previous drawing must not apply to the background
+        gc.setFill(Color.DARKGRAY);
+        gc.clearRect(0, 0, CHART_CONTAINER_WIDTH, CHART_CONTAINER_HEIGHT);
+        gc.fillRect(0, 0, CHART_CONTAINER_WIDTH, CHART_CONTAINER_HEIGHT);
+
+        // Only draw bar graph if tracker has the return value from histogram method
+        if (tracker != null) {
+            // Every possible sum from the lowest to the highest gets a slot on the x-axis
+            final int SUMS = tracker.getMaximum() - tracker.getMinimum() + 1;
+            final double CHART_X_AXIS_TICK_GAP = CHART_WIDTH / (double) SUMS;
+
+            /* The highest value of tracker count is kept by the histogram */
+            long highestTrack = tracker.highestCount();
+
+
+            // Config attributes of bar graph
+            gc.setFill(Color.LIGHTGRAY);
+            gc.setStroke(Color.LIGHTGRAY);
+            gc.setLineWidth(0.4);
+
+            // Below lines contain redundant variables for understandability of code
+            // DO NOT remove these variables based on IntelliJ's warnings
+            // Draw x-axis
+            double yAxisTopX = CHART_CONTAINER_PADDING;
+            double yAxisTopY = CHART_CONTAINER_PADDING;
+            double yAxisBottomX = CHART_CONTAINER_PADDING;
+            double yAxisBottomY = CHART_CONTAINER_PADDING + CHART_HEIGHT;
+            gc.strokeLine(yAxisTopX, yAxisTopY, yAxisBottomX, yAxisBottomY);
+
+            // Draw y-axis
+            double xAxisLeftX = CHART_CONTAINER_PADDING;
+            double xAxisLeftY = CHART_CONTAINER_PADDING + CHART_HEIGHT;
+            double xAxisRightX = CHART_CONTAINER_PADDING + CHART_WIDTH;
+            double xAxisRightY = CHART_CONTAINER_PADDING + CHART_HEIGHT;
+            gc.strokeLine(xAxisLeftX, xAxisLeftY, xAxisRightX, xAxisRightY);
+
+            // Draw ticks on y-axis
+            for (int i = 0; i <= CHART_Y_AXIS_TICKS; i++) {
+                double yAxisTickLeftX = CHART_CONTAINER_PADDING - TICK_LENGTH;
+                double yAxisTickLeftY = yAxisBottomY - i * CHART_Y_AXIS_TICK_GAP;
+                double yAxisTickRightX = CHART_CONTAINER_PADDING;
+                double yAxisTickRightY = yAxisBottomY - i * CHART_Y_AXIS_TICK_GAP;
+
+                double yAxisDashLineLeftX = CHART_CONTAINER_PADDING;
+                double yAxisDashLineLeftY = yAxisBottomY - i * CHART_Y_AXIS_TICK_GAP;
+                double yAxisDashLineRightX = CHART_CONTAINER_PADDING + CHART_WIDTH;
+                double yAxisDashLineRightY = yAxisBottomY - i * CHART_Y_AXIS_TICK_GAP;
+
+                gc.strokeLine(yAxisTickLeftX, yAxisTickLeftY, yAxisTickRightX, yAxisTickRightY);
+                gc.setLineDashes(2);
+                gc.strokeLine(yAxisDashLineLeftX, yAxisDashLineLeftY, yAxisDashLineRightX, yAxisDashLineRightY);
+                gc.setTextAlign(TextAlignment.RIGHT);
+                gc.fillText(String.valueOf(i * highestTrack / CHART_Y_AXIS_TICKS), yAxisTickLeftX - 10, yAxisTickLeftY + 3);
+            }
+
+            // For every value in tracker array that has 0 count, shift all bars to the left 1
+            int shiftBarsLeft = 0;
+
+            // Draw bars on the chart
+            for (int i = 0; i < SUMS; i++) {
+                int sum = tracker.getMinimum() + i;
+                long count = tracker.count(sum);
+                // If a value has 0 count, add 1 shifting
+                if (count == 0) shiftBarsLeft += 1;
+                // Only draw a bar and the sum if its count is more than 0
+                if (count > 0) {
+                    double barWidth = (CHART_WIDTH / (double) SUMS) - 10;
+                    double barHeight = CHART_HEIGHT * (double) count / highestTrack;
+
+                    // The point to start drawing a bar
+                    double barTopX = xAxisLeftX + (i - shiftBarsLeft) * CHART_X_AXIS_TICK_GAP;
+                    double barTopY = xAxisLeftY;
+
+                    // The point to start drawing a sum value of dice sides facing up
+                    double valueX = (xAxisLeftX + (i - shiftBarsLeft) * CHART_X_AXIS_TICK_GAP) + barWidth / 2;
+                    double valueY = xAxisLeftY + TICK_LENGTH + 10;
+
+                    gc.setFill(Color.CYAN);
+
+                    // Draw bar
+                    gc.setFill(Color.LIGHTBLUE);
+                    gc.fillRect(barTopX, barTopY - barHeight, barWidth, barHeight);
+
+                    // Draw the sum value
+                    gc.setFill(Color.LIGHTGRAY);
+                    gc.setTextAlign(TextAlignment.CENTER);
+                    gc.fillText(String.valueOf(sum), valueX, valueY);
+                }
+            }
+
+            gc.fillText("Possible Values from Adding Dice Sides", CHART_CONTAINER_PADDING + CHART_CONTAINER_WIDTH / 3, CHART_CONTAINER_HEIGHT - CHART_CONTAINER_PADDING / 3);
+        }
+    }
+
+    /**
+     * Creates the section to display info of dice collection
+     * The info is updated by showInfo whenever the dice collection changes or is rolled, and when a simulation finishes
+     *
+     * @return the container of info section
+     */
+    public VBox createInfoSection() {
+        // Section container
+        VBox container = new VBox();
+        container.setSpacing(15);
+        container.setAlignment(Pos.TOP_CENTER);
+
+        // Header of section
+        Text title = new Text("Info");
+        title.setFont(Font.font("Verdana", FontWeight.BOLD, 17));
+        title.setFill(Color.GREEN);
+
+        // Text box of main contents of dice collection information
+        info = new Text();
+        info.setFont(Font.font(15));
+        showInfo();
+
+        // Add everything to their container
+        container.getChildren().addAll(title, info);
+
+        return container;
+    }
+
+    /**
+     * Pushes the current information of the dice collection to the info text box
+     * Called only when the dice collection changes or is rolled
+     */
+    private void showInfo() {
+        info.setText(diceCollection != null ? diceCollection + "\n\n" + DiceMetrics.snapshot() : "");
+    }
+
+    /**
+     * Creates section for user inputs.
+     * There are listeners for every input field
+     *
+     * @param rollOnce      The Roll Once button
+     * @param rollThousands The Roll 100000 Times button
+     * @return the container of input section
+     */
+    public VBox createInputSection(Button rollOnce, Button rollThousands) {
+        // Text box to display any error
+        Text error = new Text();
+        error.setFill(Color.RED);
+
+        // Header of section
+        Text title = new Text("User Inputs");
+        title.setFont(Font.font("Verdana", FontWeight.BOLD, 17));
+        title.setFill(Color.GREEN);
+
+        // The field for user to enter the number of dice
+        InputField diceNumber = createInputField("Number of dice");
+
+        // The container of all fields to input the sides of dice
+        VBox diceSidesContainer = new VBox();
+        diceSidesContainer.setSpacing(15);
+
+        // When user enter a valid number of dice, add the input fields of
+        // dice sides to container. The number of input fields added is the number
+        // of dice the user has entered
+        diceNumber.textField().textProperty().addListener((obs, oldInput, currentInput) -> {
+            // Reset error text box and clear dice side input fields
+            error.setText("");
+            diceSidesContainer.getChildren().clear();
+
+            // Push error when encountering these conditions
+            if (!isInteger(currentInput)) error.setText("Please enter a positive integer");
+            if (isInteger(currentInput) && parseInt(currentInput) >= 7)
+                error.setText("Please enter a positive integer smaller than 7");
+
+            // Push input fields according to the number of dice user has entered
+            if (isInteger(currentInput) && parseInt(currentInput) < 7) {
+                int[] diceSides = new int[parseInt(currentInput)];
+                for (int i = 0; i < parseInt(currentInput); i++) {
+                    // Since we will be using index in an event listener, we need to make it a constant
+                    // to prevent any unexpected results
+                    final int currentIndex = i;
+
+                    // Create an input field with label for a die
+                    InputField dieSides = createInputField("Sides of die " + (i + 1));
+
+                    // When user has entered all fields with valid values, enable the buttons
+                    // and initiate the dice collection
+                    dieSides.textField().textProperty().addListener((sidesObs, oldSideInput, currentSideInput) -> {
+                        error.setText(""); // Reset error box
+
+                        boolean enableButtons = true;
+
+                        // Reset the value in the current index, display error and disable buttons if user inputs invalid values
+                        if (!isInteger(currentSideInput)) {
+                            diceSides[currentIndex] = 0;
+                            rollOnce.setDisable(true);
+                            rollThousands.setDisable(true);
+                            error.setText("Please enter a positive integer as \nthe sides of die number " + (currentIndex + 1));
+                        }
+                        if (isInteger(currentSideInput) && parseInt(currentSideInput) < 2) {
+                            diceSides[currentIndex] = 0;
+                            rollOnce.setDisable(true);
+                            rollThousands.setDisable(true);
+                            error.setText("Die number " + (currentIndex + 1) + " needs at least 2 sides");
+                        }
+                        if (isInteger(currentSideInput) && parseInt(currentSideInput) >= 10) {
+                            diceSides[currentIndex] = 0;
+                            rollOnce.setDisable(true);
+                            rollThousands.setDisable(true);
+                            error.setText("Die number " + (currentIndex + 1) + " should only have\nless than 10 sides");
+                        }
+
+                        // If user has entered all fields with valid values, enable buttons and initiate dice collection
+                        if (isInteger(currentSideInput) && parseInt(currentSideInput) >= 2 && parseInt(currentSideInput) < 15) {
+                            diceSides[currentIndex] = parseInt(currentSideInput);
+                            for (int sides : diceSides)
+                                if (sides <= 0) {
+                                    enableButtons = false;
+                                    break;
+                                }
+                            if (enableButtons) {
+                                rollOnce.setDisable(false);
+                                rollThousands.setDisable(false);
+                                diceCollection = new DiceCollection(diceSides);
+                                showInfo();
+                                // If user has already clicked Roll 100000 Times button once,
+                                // everytime user changes value in any field, the dice are rolled that many times again,
+                                // or the histogram of the same dice is taken from the cache
+                                if (!isFirstThousandRoll) startSimulation(true);
+                            }
+                        }
+                    });
+                    diceSidesContainer.getChildren().add(dieSides.container());
+                }
+            }
+        });
+
+        // A note for user
+        Text note = new Text("Due to the limit in the size of the bar graph,\nthe number of dice should be\nsmaller than 7 and the sides of\neach die should be smaller than 10");
+
+        // The container of this section
+        VBox container = new VBox(title, diceNumber.container(), diceSidesContainer, note, error);
+        container.setSpacing(15);
+        container.setAlignment(Pos.TOP_CENTER);
+
+        return container;
+    }
+
+    /**
+     * Creates a field with a label for user input
+     * This method uses a record declared at the end of this file
+     *
+     * @param label The label of the field
+     * @return An object contains the container and the field element
+     */
+    public InputField createInputField(String label) {
+        Label lb = new Label(label);
+        TextField field = new TextField();
+        // Use BorderPane instead of other APIs to position the label to the left and the field to the right
+        BorderPane container = new BorderPane(null, null, field, null, lb);
+        BorderPane.setMargin(lb, new Insets(0, 10, 0, 0));
+        BorderPane.setAlignment(lb, Pos.CENTER);
+        return new InputField(container, field);
+    }
+
+    /**
+     * This is a utility method that identifies if a given string is an integer
+     *
+     * @param string The string to validate
+     * @return true if string is integer or otherwise
+     */
+    public boolean isInteger(String string) {
+        boolean result = true;
+        for (String character : string.split(""))
+            if (!isDigit(character)) {
+                result = false;
+                break;
+            }
+        return result;
+    }
+
+    /**
+     * This is a utility method that identifies if a given character is a digit
+     *
+     * @param character The character to identify
+     * @return true if the character is a digit or otherwise
+     */
+    public boolean isDigit(String character) {
+        return Arrays.asList(new String[]{"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"}).contains(character);
+    }
+
+    /**
+     * This is a utility method to parse a string into an integer
+     * Just a wrapper method to cure laziness
+     *
+     * @param number the integer number in type String
+     * @return the integer number in type int
+     */
+    public int parseInt(String number) {
+        return Integer.parseInt(number);
+    }
+}
+
+/**
+ * IntelliJ's suggestion to substitute writing a class with only purpose of constructing (Shorter version of a full class)
+ * This record is used to construct the return value of input field creator method in Main class
+ *
+ * @param container
+ * @param textField
+ */
+record InputField(BorderPane container, TextField textField) {
+}
+
+/**
+ * IntelliJ's suggestion to substitute writing a class with only purpose of constructing (Shorter version of a full class)
+ * This record is used to construct the return value of button creator method in Main class
+ *
+ * @param container
+ * @param rollOne
+ * @param rollThousands
+ */
+record Buttons(HBox container, Button rollOne, Button rollThousands) {
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.dice.collection.server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer that JSON responses are written into directly.
+ * Numbers are written digit by digit and names are copied char by char, so a response never goes
+ * through an intermediate String or StringBuilder before it reaches the socket.
+ * Only ASCII text is supported, which is all the responses of the roll service hold.
+ */
+final class JsonBytes {
+    /* The encoded response */
+    private byte[] bytes;
+    /* How many bytes of the buffer are used */
+    private int length;
+
+    /**
+     * Constructs an empty buffer
+     *
+     * @param capacity The initial size of the buffer, grown when needed
+     */
+    JsonBytes(int capacity) {
+        bytes = new byte[Math.max(16, capacity)];
+    }
+
+    /**
+     * Appends one ASCII char
+     *
+     * @param c The char
+     * @return This buffer
+     */
+    JsonBytes append(char c) {
+        ensure(1);
+        bytes[length++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Appends ASCII text as it is, e.g. a name with its quotes and colon
+     *
+     * @param text The text, which must not need escaping
+     * @return This buffer
+     */
+    JsonBytes append(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) bytes[length++] = (byte) text.charAt(i);
+        return this;
+    }
+
+    /**
+     * Appends a quoted string, escaping quotes, backslashes and control chars. Other chars are replaced by '?'
+     *
+     * @param text The text
+     * @return This buffer
+     */
+    JsonBytes appendQuoted(String text) {
+        append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') append('\\').append(c);
+            else if (c < 0x20 || c > 0x7E) append('?');
+            else append(c);
+        }
+        return append('"');
+    }
+
+    /**
+     * Appends a whole number
+     *
+     * @param value The number
+     * @return This buffer
+     */
+    JsonBytes append(long value) {
+        ensure(20);
+        if (value < 0) {
+            bytes[length++] = '-';
+            // Digits are taken from the negative value so Long.MIN_VALUE does not overflow
+        } else value = -value;
+        int start = length;
+        do {
+            bytes[length++] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        // The digits were written from the lowest, so turn them around
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = digit;
+        }
+        return this;
+    }
+
+    /**
+     * Appends an array of whole numbers
+     *
+     * @param values The numbers
+     * @param from   Index of the first number
+     * @param to     Index after the last number
+     * @return This buffer
+     */
+    JsonBytes append(int[] values, int from, int to) {
+        append('[');
+        for (int i = from; i < to; i++) {
+            if (i > from) append(',');
+            append(values[i]);
+        }
+        return append(']');
+    }
+
+    /**
+     * Appends an array of whole numbers
+     *
+     * @param values The numbers
+     * @return This buffer
+     */
+    JsonBytes append(long[] values) {
+        append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) append(',');
+            append(values[i]);
+        }
+        return append(']');
+    }
+
+    /**
+     * Grows the buffer so some more bytes fit
+     *
+     * @param more How many bytes are about to be appended
+     */
+    private void ensure(int more) {
+        if (length + more > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+    }
+
+    /**
+     * Sends the buffer as the whole body of a response
+     *
+     * @param exchange The exchange to answer
+     * @param status   The HTTP status code
+     * @throws IOException If the response cannot be written
+     */
+    void send(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes, 0, length);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.dice.collection.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A load generator for {@link RollServer}. Latencies are only recorded after a warm-up, then the
+ * throughput and the latency percentiles are printed. It runs in one of two modes:
+ * <ul>
+ * <li>Closed loop, by default: every worker is a virtual thread that sends a request, waits for the answer,
+ * and sends the next one. A stalled server also stalls the workers, so the requests they would have sent
+ * meanwhile are never measured and the percentiles look better than what callers would see.</li>
+ * <li>Open loop, when a rate is given: requests are sent at that fixed rate whatever the answers, each on
+ * its own virtual thread, and the latency of each one is measured from when it should have been sent.
+ * This gives the latency seen by callers arriving at that rate, including the time spent waiting behind
+ * a stall.</li>
+ * </ul>
+ * Usage: LoadGenerator [url] [workers] [seconds] [warm-up seconds] [requests per second], by default
+ * http://localhost:8080/roll?sides=3d6 with 64 workers for 10 seconds after 3 seconds of warm-up in a
+ * closed loop. The workers are ignored in an open loop.
+ */
+public class LoadGenerator {
+    /* The endpoint loaded when none is given */
+    private static final String DEFAULT_URL = "http://localhost:8080/roll?sides=3d6";
+
+    /**
+     * Entry point of the load generator
+     *
+     * @param args The url, the number of workers, the seconds to measure, the seconds to warm up and the
+     *             requests per second of an open loop
+     * @throws Exception If a worker is interrupted or fails
+     */
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args.length > 0 ? args[0] : DEFAULT_URL);
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Duration measured = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+        Duration warmUp = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 3);
+        double rate = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+        if (args.length > 4 && !(rate > 0)) throw new IllegalArgumentException("Rate must be positive: " + rate);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+
+        System.out.println("Loading " + uri + (rate > 0 ? String.format(" at %,.0f requests/s", rate) : " with " + workers + " workers")
+                + " for " + measured.toSeconds() + " s after " + warmUp.toSeconds() + " s of warm-up");
+        long start = System.nanoTime();
+        long measureFrom = start + warmUp.toNanos();
+        long measureTo = measureFrom + measured.toNanos();
+
+        List<Future<Worker>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (rate > 0) {
+                results.add(executor.submit(() -> openLoop(client, request, rate, start, measureFrom, measureTo)));
+            } else {
+                for (int i = 0; i < workers; i++)
+                    results.add(executor.submit(() -> new Worker().run(client, request, measureFrom, measureTo)));
+            }
+        }
+
+        // Merge the latencies of every worker to find the percentiles of the whole load
+        long errors = 0;
+        int total = 0;
+        for (Future<Worker> result : results) {
+            errors += result.get().errors;
+            total += result.get().count;
+        }
+        long[] latencies = new long[total];
+        int next = 0;
+        for (Future<Worker> result : results) {
+            Worker worker = result.get();
+            System.arraycopy(worker.latencies, 0, latencies, next, worker.count);
+            next += worker.count;
+        }
+        Arrays.sort(latencies);
+
+        double seconds = measured.toNanos() / 1e9;
+        System.out.printf("Requests: %,d (%,d errors)%n", total, errors);
+        System.out.printf("Throughput: %,.0f requests/s%n", total / seconds);
+        if (total == 0) return;
+        System.out.printf("Latency: p50 %s, p90 %s, p99 %s, p99.9 %s, max %s%n",
+                millis(percentile(latencies, 0.5)), millis(percentile(latencies, 0.9)), millis(percentile(latencies, 0.99)),
+                millis(percentile(latencies, 0.999)), millis(latencies[total - 1]));
+    }
+
+    /**
+     * Sends requests at a fixed rate until the end of the measurement, whether or not the earlier ones are
+     * answered. The i-th request is meant to be sent at start + i / rate, and its latency runs from that
+     * time, so a request sent late because the load generator fell behind still counts the delay
+     *
+     * @param client      The HTTP client
+     * @param request     The request to send
+     * @param rate        Requests per second
+     * @param start       When the first request is meant to be sent, from System.nanoTime
+     * @param measureFrom When to start recording, from System.nanoTime
+     * @param measureTo   When to stop sending, from System.nanoTime
+     * @return The latencies and errors of the measured requests
+     * @throws InterruptedException If the load generator is interrupted
+     */
+    private static Worker openLoop(HttpClient client, HttpRequest request, double rate, long start, long measureFrom,
+                                   long measureTo) throws InterruptedException {
+        double interval = 1e9 / rate;
+        int sends = (int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil((measureTo - start) / interval));
+        // Each slot is written by the thread of its request alone, and read once every thread is done
+        long[] latencies = new long[sends];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sends; i++) {
+                long intended = start + (long) (i * interval);
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                    if (Thread.interrupted()) throw new InterruptedException();
+                }
+                int index = i;
+                executor.submit(() -> {
+                    latencies[index] = send(client, request) ? System.nanoTime() - intended : -1;
+                    return null;
+                });
+            }
+        }
+        Worker measured = new Worker();
+        for (int i = 0; i < sends; i++) {
+            if (start + (long) (i * interval) < measureFrom) continue;
+            if (latencies[i] < 0) measured.errors++;
+            else measured.record(latencies[i]);
+        }
+        return measured;
+    }
+
+    /**
+     * Sends a request and waits for its answer
+     *
+     * @param client  The HTTP client
+     * @param request The request to send
+     * @return Whether the request succeeded
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    private static boolean send(HttpClient client, HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Gives a percentile of sorted values with the nearest-rank method
+     *
+     * @param sorted The values, sorted
+     * @param p      The percentile, between 0 and 1
+     * @return The value at that percentile
+     */
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    /**
+     * Formats a duration in milliseconds
+     *
+     * @param nanos The duration in nanoseconds
+     * @return The duration, e.g. "1.234 ms"
+     */
+    private static String millis(long nanos) {
+        return String.format("%.3f ms", nanos / 1e6);
+    }
+
+    /**
+     * One worker of a closed loop: a loop of requests and the latencies it measured. Also holds what an
+     * open loop measured
+     */
+    private static final class Worker {
+        /* Latency of each measured request, in nanoseconds */
+        private long[] latencies = new long[1024];
+        /* How many latencies are recorded */
+        private int count;
+        /* How many measured requests failed */
+        private long errors;
+
+        /**
+         * Sends requests one after the other until the end of the measurement
+         *
+         * @param client     The HTTP client shared by all workers
+         * @param request    The request to send
+         * @param measureFrom When to start recording, from System.nanoTime
+         * @param measureTo   When to stop, from System.nanoTime
+         * @return This worker
+         * @throws InterruptedException If the worker is interrupted
+         */
+        Worker run(HttpClient client, HttpRequest request, long measureFrom, long measureTo) throws InterruptedException {
+            long start;
+            while ((start = System.nanoTime()) < measureTo) {
+                boolean succeeded = send(client, request);
+                long end = System.nanoTime();
+                if (start < measureFrom) continue;
+                if (succeeded) record(end - start);
+                else errors++;
+            }
+            return this;
+        }
+
+        /**
+         * Records the latency of a measured request that succeeded
+         *
+         * @param latency The latency, in nanoseconds
+         */
+        void record(long latency) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latency;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.dice.collection.server;
+
+import com.dice.collection.RollResult;
+import com.dice.collection.SumHistogram;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A local HTTP service that rolls dice, served by the JDK's built-in HTTP server with one virtual
+ * thread per request. Every endpoint takes the dice as a spec, e.g. sides=3d6,1d20, and answers JSON:
+ * - GET /roll?sides=... rolls once: {"sum":14,"upSides":[3,5,1,5]}
+ * - GET /rolls?sides=...&amp;n=1000 rolls n times: {"rolls":1000,"sums":[...]}
+ * - GET /histogram?sides=...&amp;rolls=100000 counts the sums from the lowest rolled: {"rolls":100000,"minimum":4,"counts":[...]}
+ * Invalid requests are answered with status 400 and {"error":"..."}.
+ * The service only listens on the loopback address.
+ */
+public class RollServer {
+    /* Port used when none is given */
+    private static final int DEFAULT_PORT = 8080;
+    /* How many connections may wait to be accepted */
+    private static final int BACKLOG = 1024;
+
+    /* The dice behind the endpoints */
+    private final RollService service = new RollService();
+    /* The HTTP server */
+    private final HttpServer server;
+    /* Runs every request on its own virtual thread */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Creates a server on the loopback address
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @throws IOException If the port cannot be bound
+     */
+    public RollServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/roll", (exchange) -> handle(exchange, this::roll));
+        server.createContext("/rolls", (exchange) -> handle(exchange, this::rolls));
+        server.createContext("/histogram", (exchange) -> handle(exchange, this::histogram));
+    }
+
+    /**
+     * Entry point of the service
+     *
+     * @param args The port to listen on, 8080 if none is given
+     * @throws IOException If the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        RollServer rollServer = new RollServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(rollServer::stop));
+        rollServer.start();
+        System.out.println("Rolling dice on http://localhost:" + rollServer.getPort() + "/roll?sides=3d6");
+    }
+
+    /**
+     * Starts answering requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops answering requests and lets the requests in progress finish
+     */
+    public void stop() {
+        server.stop(1);
+        executor.close();
+    }
+
+    /**
+     * Give the port the server listens on
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers GET /roll
+     *
+     * @param query The parameters of the request
+     * @return The response
+     */
+    private JsonBytes roll(Map<String, String> query) {
+        RollResult roll = service.rollOnce(query.get("sides"));
+        JsonBytes json = new JsonBytes(32 + 8 * roll.size());
+        json.append("{\"sum\":").append(roll.sum()).append(",\"upSides\":[");
+        for (int i = 0; i < roll.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(roll.upSide(i));
+        }
+        return json.append("]}");
+    }
+
+    /**
+     * Answers GET /rolls
+     *
+     * @param query The parameters of the request
+     * @return The response
+     */
+    private JsonBytes rolls(Map<String, String> query) {
+        RollService.Request request = service.rollMany(query.get("sides"), (int) number(query, "n", RollService.MAX_ROLLS));
+        JsonBytes json = new JsonBytes(32 + 8 * request.rolls);
+        json.append("{\"rolls\":").append(request.rolls).append(",\"sums\":").append(request.sums, request.from, request.to);
+        return json.append('}');
+    }
+
+    /**
+     * Answers GET /histogram
+     *
+     * @param query The parameters of the request
+     * @return The response
+     */
+    private JsonBytes histogram(Map<String, String> query) {
+        long rolls = number(query, "rolls", RollService.MAX_HISTOGRAM_ROLLS);
+        SumHistogram histogram = service.histogram(query.get("sides"), rolls);
+        // Only the sums from the lowest to the highest rolled are listed, never every possible sum
+        int lowest = histogram.lowestSum(), highest = histogram.highestSum();
+        if ((long) highest - lowest + 1 > RollService.MAX_DIRECT_SUMS)
+            throw new IllegalArgumentException("The sums are spread over more than " + RollService.MAX_DIRECT_SUMS + " values");
+        long[] counts = new long[highest - lowest + 1];
+        for (int i = 0; i < counts.length; i++) counts[i] = histogram.count(lowest + i);
+        JsonBytes json = new JsonBytes(64 + 8 * counts.length);
+        json.append("{\"rolls\":").append(rolls).append(",\"minimum\":").append(lowest);
+        return json.append(",\"counts\":").append(counts).append('}');
+    }
+
+    /**
+     * Answers one request: checks the method, reads the query, and turns invalid input into status 400
+     *
+     * @param exchange The request and its response
+     * @param endpoint Builds the response from the query
+     * @throws IOException If the response cannot be written
+     */
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                error("Only GET is supported").send(exchange, 405);
+                return;
+            }
+            // Contexts match by prefix, so /rollsomething would otherwise reach /roll
+            String path = exchange.getRequestURI().getPath();
+            if (!path.equals(exchange.getHttpContext().getPath())) {
+                error("Unknown endpoint").send(exchange, 404);
+                return;
+            }
+            JsonBytes response;
+            try {
+                response = endpoint.answer(parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (IllegalArgumentException exception) {
+                error(exception.getMessage()).send(exchange, 400);
+                return;
+            }
+            response.send(exchange, 200);
+        }
+    }
+
+    /**
+     * Builds an error response
+     *
+     * @param message What went wrong
+     * @return The response
+     */
+    private static JsonBytes error(String message) {
+        return new JsonBytes(32 + message.length()).append("{\"error\":").appendQuoted(message).append('}');
+    }
+
+    /**
+     * Reads a whole number parameter
+     *
+     * @param query   The parameters of the request
+     * @param name    The name of the parameter
+     * @param maximum The highest value allowed
+     * @return The number, between 1 and the maximum
+     */
+    private static long number(Map<String, String> query, String name, long maximum) {
+        String value = query.get(name);
+        if (value == null) throw new IllegalArgumentException("Missing " + name);
+        try {
+            long number = Long.parseLong(value.trim());
+            if (number >= 1 && number <= maximum) return number;
+        } catch (NumberFormatException ignored) {
+            // Reported below like any other invalid number
+        }
+        throw new IllegalArgumentException(name + " must be a number between 1 and " + maximum);
+    }
+
+    /**
+     * Reads the parameters of a query string
+     *
+     * @param rawQuery The query, still URL encoded, or null
+     * @return The value of each parameter. The last one wins when a name is repeated
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals < 0) continue;
+            query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * Builds the response of an endpoint
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        /**
+         * Builds the response
+         *
+         * @param query The parameters of the request
+         * @return The response
+         * @throws IllegalArgumentException If the parameters are invalid
+         */
+        JsonBytes answer(Map<String, String> query);
+    }
+}
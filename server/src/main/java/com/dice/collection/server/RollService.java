@@ -0,0 +1,273 @@
+package com.dice.collection.server;
+
+import com.dice.collection.DiceCollection;
+import com.dice.collection.DiceGroup;
+import com.dice.collection.RollResult;
+import com.dice.collection.SamplingMode;
+import com.dice.collection.SumHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The dice behind the HTTP endpoints. Every distinct set of dice, e.g. "3d6,1d20", gets one shared
+ * collection instead of one per caller, however its spec is written: "3d6", "3D6" and "1d6,2d6" share one. Rolls of a spec are batched by flat combining: a request is
+ * queued, and whichever thread holds the spec's lock serves every queued request at once, so under
+ * load one lock acquisition and one call to rollSums serve many callers.
+ * Histograms do not touch the shared collection: each one draws its sums from the exact distribution,
+ * which the dice engine caches per spec, or rolls its own collection when the spec has too many possible
+ * sums to hold their distribution.
+ */
+final class RollService {
+    /* Most dice a spec may have */
+    static final int MAX_DICE = 10_000;
+    /* Most sums one request may ask for */
+    static final int MAX_ROLLS = 1 << 20;
+    /* Most rolls one histogram may count */
+    static final long MAX_HISTOGRAM_ROLLS = 100_000_000;
+    /* Most possible sums for which a histogram is drawn from the exact distribution instead of rolling */
+    static final int MAX_DIRECT_SUMS = 1 << 20;
+    /* Most dice one histogram may roll one by one, counting every die of every roll */
+    static final long MAX_HISTOGRAM_DICE = 1_000_000_000;
+    /* Most specs that keep a shared collection. Other specs get a collection per request */
+    private static final int MAX_SPECS = 1024;
+    /* Most sums rolled by one call to rollSums when serving a batch */
+    private static final int MAX_BATCH = 1 << 20;
+
+    /* The shared collection of each spec, keyed by its dice written in a normal form, see {@link #key(DiceGroup[])} */
+    private final ConcurrentHashMap<String, Batcher> batchers = new ConcurrentHashMap<>();
+
+    /**
+     * Rolls the dice of a spec once
+     *
+     * @param spec The dice, see {@link #parseGroups(String)}
+     * @return The sum and the up side of each die
+     */
+    RollResult rollOnce(String spec) {
+        return batcher(spec).submit(0).result;
+    }
+
+    /**
+     * Rolls the dice of a spec many times
+     *
+     * @param spec  The dice, see {@link #parseGroups(String)}
+     * @param rolls How many sums, between 1 and {@value #MAX_ROLLS}
+     * @return The served request, whose sums are in a shared array between from and to
+     */
+    Request rollMany(String spec, int rolls) {
+        if (rolls < 1 || rolls > MAX_ROLLS) throw new IllegalArgumentException("Rolls must be between 1 and " + MAX_ROLLS);
+        return batcher(spec).submit(rolls);
+    }
+
+    /**
+     * Counts the sums of many rolls of the dice of a spec
+     *
+     * @param spec  The dice, see {@link #parseGroups(String)}
+     * @param rolls How many rolls, between 1 and {@value #MAX_HISTOGRAM_ROLLS}, and at most
+     *              {@value #MAX_HISTOGRAM_DICE} dice in all when the dice have to be rolled
+     * @return The histogram of the sums
+     */
+    SumHistogram histogram(String spec, long rolls) {
+        if (rolls < 1 || rolls > MAX_HISTOGRAM_ROLLS)
+            throw new IllegalArgumentException("Rolls must be between 1 and " + MAX_HISTOGRAM_ROLLS);
+        DiceCollection dice = new DiceCollection(batcher(spec).sides);
+        // The exact distribution and its alias table take memory for every possible sum
+        if (dice.sumMaximum() - dice.sumMinimum() + 1 <= MAX_DIRECT_SUMS) {
+            dice.setSamplingMode(SamplingMode.DIRECT_SUM);
+        } else if (rolls > MAX_HISTOGRAM_DICE / dice.size()) {
+            throw new IllegalArgumentException("At most " + MAX_HISTOGRAM_DICE / dice.size() + " rolls of these dice are allowed");
+        }
+        return dice.histogram(rolls);
+    }
+
+    /**
+     * Gives the shared collection of a spec, creating it on first use
+     *
+     * @param spec The dice
+     * @return The batcher of the spec
+     */
+    private Batcher batcher(String spec) {
+        DiceGroup[] groups = parseGroups(spec);
+        String key = key(groups);
+        Batcher batcher = batchers.get(key);
+        if (batcher != null) return batcher;
+        Batcher created = new Batcher(sides(groups));
+        if (batchers.size() >= MAX_SPECS) return created;
+        batcher = batchers.putIfAbsent(key, created);
+        return batcher == null ? created : batcher;
+    }
+
+    /**
+     * Writes groups of dice in a normal form: lower case, with a count on every term, and consecutive groups
+     * with the same sides merged. Specs with the same dice in the same order get the same key, so "3d6",
+     * "3D6" and "1d6,2d6" all give "3d6", while "1d20,3d6" stays apart from "3d6,1d20" since its up sides
+     * are given in another order
+     *
+     * @param groups The groups, as written in a spec
+     * @return The key of the dice
+     */
+    static String key(DiceGroup[] groups) {
+        StringBuilder key = new StringBuilder();
+        int sides = 0;
+        long count = 0;
+        for (DiceGroup group : groups) {
+            if (group.sides() != sides && count > 0) {
+                key.append(key.isEmpty() ? "" : ",").append(count).append('d').append(sides);
+                count = 0;
+            }
+            sides = group.sides();
+            count += group.count();
+        }
+        if (count > 0) key.append(key.isEmpty() ? "" : ",").append(count).append('d').append(sides);
+        return key.toString();
+    }
+
+    /**
+     * Reads a spec of dice, see {@link DiceGroup#parse(String)}, and checks that the service can roll them
+     *
+     * @param spec The spec, e.g. "3d6,1d20"
+     * @return The groups in the order they are written
+     */
+    static DiceGroup[] parseGroups(String spec) {
+        DiceGroup[] groups = DiceGroup.parse(spec);
+        long dice = 0, maxSum = 0;
+        for (DiceGroup group : groups) {
+            if (group.sides() < 2) throw new IllegalArgumentException("A die has at least 2 sides: " + group.count() + "d" + group.sides());
+            dice += group.count();
+            maxSum += (long) group.count() * group.sides();
+            if (dice > MAX_DICE) throw new IllegalArgumentException("At most " + MAX_DICE + " dice are allowed");
+            if (maxSum > Integer.MAX_VALUE) throw new IllegalArgumentException("The highest sum is too large");
+        }
+        return groups;
+    }
+
+    /**
+     * Gives the sides of each die of checked groups
+     *
+     * @param groups The groups, see {@link #parseGroups(String)}
+     * @return The sides of each die, in the order of the groups
+     */
+    private static int[] sides(DiceGroup[] groups) {
+        int dice = 0;
+        for (DiceGroup group : groups) dice += group.count();
+        int[] sides = new int[dice];
+        int next = 0;
+        for (DiceGroup group : groups)
+            for (int i = 0; i < group.count(); i++) sides[next++] = group.sides();
+        return sides;
+    }
+
+    /**
+     * A queued request for rolls of one spec, filled in by whichever thread serves the batch it is in
+     */
+    static final class Request {
+        /* How many sums are asked for, or 0 for one roll with its up sides */
+        final int rolls;
+        /* The roll, when rolls is 0 */
+        RollResult result;
+        /* The array holding the sums of this request and others of the same batch */
+        int[] sums;
+        /* Where the sums of this request start and end in the array */
+        int from, to;
+        /* Whether the request has been served. Only read and written while holding the spec's lock */
+        boolean done;
+
+        /**
+         * Constructs a request
+         *
+         * @param rolls How many sums are asked for, or 0 for one roll with its up sides
+         */
+        Request(int rolls) {
+            this.rolls = rolls;
+        }
+    }
+
+    /**
+     * The shared collection of one spec and the requests waiting for it
+     */
+    private static final class Batcher {
+        /* Sides of each die of the spec */
+        final int[] sides;
+        /* The shared collection. Only used while holding the lock */
+        private final DiceCollection dice;
+        /* Requests waiting to be served */
+        private final ConcurrentLinkedQueue<Request> queue = new ConcurrentLinkedQueue<>();
+        /* Held by the thread serving a batch */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Constructs the batcher of a spec
+         *
+         * @param sides Sides of each die
+         */
+        Batcher(int[] sides) {
+            this.sides = sides;
+            dice = new DiceCollection(sides);
+        }
+
+        /**
+         * Queues a request and waits until it is served. The thread that gets the lock serves every
+         * queued request, so a thread that gets it later usually finds its request already done
+         *
+         * @param rolls How many sums, or 0 for one roll with its up sides
+         * @return The served request
+         */
+        Request submit(int rolls) {
+            Request request = new Request(rolls);
+            queue.add(request);
+            lock.lock();
+            try {
+                if (!request.done) serveQueued();
+            } finally {
+                lock.unlock();
+            }
+            return request;
+        }
+
+        /**
+         * Serves every queued request. Sums of many requests are rolled together by one call to rollSums
+         */
+        private void serveQueued() {
+            List<Request> group = new ArrayList<>();
+            int groupRolls = 0;
+            Request request;
+            while ((request = queue.poll()) != null) {
+                if (request.rolls == 0) {
+                    request.result = dice.roll();
+                    request.done = true;
+                    continue;
+                }
+                if (groupRolls + request.rolls > MAX_BATCH) {
+                    serveGroup(group, groupRolls);
+                    group.clear();
+                    groupRolls = 0;
+                }
+                group.add(request);
+                groupRolls += request.rolls;
+            }
+            serveGroup(group, groupRolls);
+        }
+
+        /**
+         * Rolls the sums of a group of requests at once and hands each request its share
+         *
+         * @param group The requests
+         * @param rolls The number of sums they ask for together
+         */
+        private void serveGroup(List<Request> group, int rolls) {
+            if (group.isEmpty()) return;
+            int[] sums = new int[rolls];
+            dice.rollSums(sums);
+            int from = 0;
+            for (Request request : group) {
+                request.sums = sums;
+                request.from = from;
+                request.to = from += request.rolls;
+                request.done = true;
+            }
+        }
+    }
+}